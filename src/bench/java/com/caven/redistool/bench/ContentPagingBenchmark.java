@@ -0,0 +1,70 @@
+package com.caven.redistool.bench;
+
+import com.caven.redistool.utils.RedisConnection;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内容视图分页读取: HSCAN 逐页遍历大 Hash，LRANGE 按窗口读取大 List
+ * 走 byte[] 连接，与内容视图的读取路径相同。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentPagingBenchmark {
+    private static final int COLLECTION_SIZE = 1_000_000;
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private RespStubServer server;
+    private RedisConnection connection;
+    private ScanCursor hashCursor = ScanCursor.INITIAL;
+    private long listOffset;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new RespStubServer(0, COLLECTION_SIZE, COLLECTION_SIZE);
+        connection = new RedisConnection();
+        connection.connect("127.0.0.1", server.getPort(), null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connection.disconnect();
+        server.close();
+    }
+
+    @Benchmark
+    public MapScanCursor<byte[], byte[]> hscanPage() throws Exception {
+        MapScanCursor<byte[], byte[]> page = connection.hscanBytesAsync(RespStubServer.HASH_KEY, hashCursor, pageSize).get();
+        hashCursor = page.isFinished() ? ScanCursor.INITIAL : page;
+        return page;
+    }
+
+    @Benchmark
+    public List<byte[]> lrangeWindow() throws Exception {
+        long start = listOffset;
+        listOffset = start + pageSize >= COLLECTION_SIZE ? 0 : start + pageSize;
+        return connection.lrangeBytesAsync(RespStubServer.LIST_KEY, start, start + pageSize - 1).get();
+    }
+}
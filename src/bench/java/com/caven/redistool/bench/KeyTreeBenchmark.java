@@ -0,0 +1,81 @@
+package com.caven.redistool.bench;
+
+import com.caven.redistool.entity.KeyNamespace;
+import com.caven.redistool.entity.RedisKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key 树构建: 按 SCAN 的分页大小把全部 key 插入 KeyNamespace
+ * key 和类型在 Setup 中预先生成，测量的只有前缀树本身 (拆分层级、查找子节点、驻留片段)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class KeyTreeBenchmark {
+    private static final String[] TYPES = {"string", "hash", "list", "set"};
+
+    @Param({"10000", "1000000", "10000000"})
+    private int keyCount;
+
+    @Param({"1000"})
+    private int pageSize;
+
+    private List<List<RedisKey>> pages;
+
+    @Setup
+    public void setup() {
+        pages = new ArrayList<>(keyCount / pageSize + 1);
+        List<RedisKey> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < keyCount; i++) {
+            String key = RespStubServer.keyAt(i);
+            page.add(new RedisKey(key, key, TYPES[i % TYPES.length], true));
+            if (page.size() == pageSize) {
+                pages.add(page);
+                page = new ArrayList<>(pageSize);
+            }
+        }
+        if (!page.isEmpty()) {
+            pages.add(page);
+        }
+    }
+
+    @Benchmark
+    public KeyNamespace buildTree() {
+        KeyNamespace namespace = new KeyNamespace();
+        for (List<RedisKey> page : pages) {
+            namespace.insertAll(page);
+        }
+        return namespace;
+    }
+
+    /**
+     * 只建文件夹不记录 key (内存分析的用法)
+     */
+    @Benchmark
+    public KeyNamespace buildFolders() {
+        KeyNamespace namespace = new KeyNamespace();
+        for (List<RedisKey> page : pages) {
+            for (RedisKey key : page) {
+                namespace.addFolders(key.getFullKeyName(), key.getKeyType());
+            }
+        }
+        return namespace;
+    }
+}
@@ -0,0 +1,301 @@
+package com.caven.redistool.bench;
+
+import com.caven.redistool.utils.GlobMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 进程内的 RESP2 服务器替身，只实现基准测试用到的命令，数据按序号即时生成，不占内存
+ * <ul>
+ *     <li>普通 key: {@code bench:<i % 100>:<i / 100 % 100>:<i>}，共 keyCount 个，类型按 i 轮流为 string/hash/list/set</li>
+ *     <li>{@link #HASH_KEY}: hashSize 个字段 {@code field:<n>}</li>
+ *     <li>{@link #LIST_KEY}: listSize 个元素</li>
+ * </ul>
+ * 监听回环地址的随机端口，每个连接一个线程，完全离线运行。
+ * HELLO 返回错误，让 Lettuce 退回 RESP2。
+ */
+public class RespStubServer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RespStubServer.class);
+    public static final String HASH_KEY = "bench:hash";
+    public static final String LIST_KEY = "bench:list";
+    private static final String[] TYPES = {"string", "hash", "list", "set"};
+    private static final String VALUE_PADDING = "x".repeat(48); // 让每个元素约 64 字节, 接近常见的小 value
+
+    private final int keyCount;
+    private final int hashSize;
+    private final int listSize;
+    private final ServerSocket serverSocket;
+    private final List<Socket> clients = new ArrayList<>();
+    private volatile boolean closed;
+
+    public RespStubServer(int keyCount, int hashSize, int listSize) throws IOException {
+        this.keyCount = keyCount;
+        this.hashSize = hashSize;
+        this.listSize = listSize;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "resp-stub-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public static String keyAt(int index) {
+        return "bench:" + index % 100 + ":" + index / 100 % 100 + ":" + index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                synchronized (clients) {
+                    clients.add(socket);
+                }
+                Thread worker = new Thread(() -> serve(socket), "resp-stub-client");
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.error("接受连接失败: ", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            Reply out = new Reply(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            while (true) {
+                List<String> command = readCommand(in);
+                execute(command, out);
+                // 管道中的后续命令已经到达时先不 flush, 一批命令的回复合并写出
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // 客户端断开
+        } catch (IOException e) {
+            if (!closed) {
+                log.error("处理客户端命令失败: ", e);
+            }
+        }
+    }
+
+    private void execute(List<String> command, Reply out) throws IOException {
+        String name = command.get(0).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING" -> out.simple("PONG");
+            case "CLIENT", "SELECT" -> out.simple("OK");
+            case "DBSIZE" -> out.integer(keyCount + 2);
+            case "TYPE" -> out.simple(typeOf(command.get(1)));
+            case "HLEN" -> out.integer(HASH_KEY.equals(command.get(1)) ? hashSize : 0);
+            case "LLEN" -> out.integer(LIST_KEY.equals(command.get(1)) ? listSize : 0);
+            case "SCAN" -> scan(command, out);
+            case "HSCAN" -> hscan(command, out);
+            case "LRANGE" -> lrange(command, out);
+            default -> out.error("ERR unknown command '" + command.get(0) + "'");
+        }
+    }
+
+    private String typeOf(String key) {
+        if (HASH_KEY.equals(key)) return "hash";
+        if (LIST_KEY.equals(key)) return "list";
+        int index = indexOf(key);
+        return index < 0 ? "none" : TYPES[index % TYPES.length];
+    }
+
+    /**
+     * 普通 key 的序号, 不是本服务器生成的 key 时为 -1
+     */
+    private int indexOf(String key) {
+        int separator = key.lastIndexOf(':');
+        if (separator < 0 || !key.startsWith("bench:")) return -1;
+        try {
+            int index = Integer.parseInt(key.substring(separator + 1));
+            return index >= 0 && index < keyCount && key.equals(keyAt(index)) ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void scan(List<String> command, Reply out) throws IOException {
+        int cursor = Integer.parseInt(command.get(1));
+        String pattern = option(command, 2, "MATCH", "*");
+        int count = Integer.parseInt(option(command, 2, "COUNT", "10"));
+        int end = (int) Math.min((long) cursor + count, keyCount);
+        List<String> keys = new ArrayList<>(end - cursor);
+        for (int i = cursor; i < end; i++) {
+            String key = keyAt(i);
+            if ("*".equals(pattern) || GlobMatcher.matches(pattern, key)) {
+                keys.add(key);
+            }
+        }
+        out.arrayHeader(2);
+        out.bulk(end >= keyCount ? "0" : String.valueOf(end));
+        out.arrayHeader(keys.size());
+        for (String key : keys) {
+            out.bulk(key);
+        }
+    }
+
+    private void hscan(List<String> command, Reply out) throws IOException {
+        int size = HASH_KEY.equals(command.get(1)) ? hashSize : 0;
+        int cursor = Integer.parseInt(command.get(2));
+        int count = Integer.parseInt(option(command, 3, "COUNT", "10"));
+        int end = (int) Math.min((long) cursor + count, size);
+        out.arrayHeader(2);
+        out.bulk(end >= size ? "0" : String.valueOf(end));
+        out.arrayHeader(Math.max(0, end - cursor) * 2);
+        for (int i = cursor; i < end; i++) {
+            out.bulk("field:" + i);
+            out.bulk(valueAt(i));
+        }
+    }
+
+    private void lrange(List<String> command, Reply out) throws IOException {
+        int size = LIST_KEY.equals(command.get(1)) ? listSize : 0;
+        long start = Long.parseLong(command.get(2));
+        long stop = Long.parseLong(command.get(3));
+        if (start < 0) start = Math.max(0, size + start);
+        if (stop < 0) stop = size + stop;
+        stop = Math.min(stop, size - 1);
+        if (start > stop) {
+            out.arrayHeader(0);
+            return;
+        }
+        out.arrayHeader((int) (stop - start + 1));
+        for (long i = start; i <= stop; i++) {
+            out.bulk(valueAt(i));
+        }
+    }
+
+    private static String valueAt(long index) {
+        return "value:" + index + ":" + VALUE_PADDING;
+    }
+
+    private static String option(List<String> command, int from, String name, String defaultValue) {
+        for (int i = from; i + 1 < command.size(); i += 2) {
+            if (name.equalsIgnoreCase(command.get(i))) {
+                return command.get(i + 1);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 读取一条命令: 由 bulk string 组成的数组
+     */
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int marker = in.read();
+        if (marker == -1) {
+            throw new EOFException();
+        }
+        if (marker != '*') {
+            throw new IOException("unsupported request type: " + (char) marker);
+        }
+        int length = (int) readNumber(in);
+        List<String> command = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            if (in.read() != '$') {
+                throw new IOException("bulk string expected");
+            }
+            byte[] data = in.readNBytes((int) readNumber(in));
+            in.skipNBytes(2); // \r\n
+            command.add(new String(data, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) throw new EOFException();
+            if (b == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (b - '0');
+            }
+        }
+        in.read(); // \n
+        return negative ? -value : value;
+    }
+
+    /**
+     * RESP2 回复编码
+     */
+    private static final class Reply {
+        private static final byte[] CRLF = {'\r', '\n'};
+        private final OutputStream out;
+
+        private Reply(OutputStream out) {
+            this.out = out;
+        }
+
+        void simple(String value) throws IOException {
+            line('+', value);
+        }
+
+        void error(String message) throws IOException {
+            line('-', message);
+        }
+
+        void integer(long value) throws IOException {
+            line(':', String.valueOf(value));
+        }
+
+        void arrayHeader(int length) throws IOException {
+            line('*', String.valueOf(length));
+        }
+
+        void bulk(String value) throws IOException {
+            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            line('$', String.valueOf(data.length));
+            out.write(data);
+            out.write(CRLF);
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        private void line(char type, String value) throws IOException {
+            out.write(type);
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+            out.write(CRLF);
+        }
+    }
+}
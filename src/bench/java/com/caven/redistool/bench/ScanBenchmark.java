@@ -0,0 +1,68 @@
+package com.caven.redistool.bench;
+
+import com.caven.redistool.utils.RedisConnection;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扫描一页 key 并批量查询类型 (SCAN + 管道化的 TYPE) 的吞吐，对应 Key 树加载时的每一页
+ * 连接的是进程内的 RESP 替身服务器，结果反映客户端编解码和管道化的开销，不含真实网络。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+    private static final int KEY_COUNT = 1_000_000;
+
+    @Param({"100", "1000"})
+    private int count;
+
+    private RespStubServer server;
+    private RedisConnection connection;
+    private ScanCursor cursor = ScanCursor.INITIAL;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new RespStubServer(KEY_COUNT, 0, 0);
+        connection = new RedisConnection();
+        connection.connect("127.0.0.1", server.getPort(), null);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connection.disconnect();
+        server.close();
+    }
+
+    @Benchmark
+    public KeyScanCursor<String> scanPage() throws Exception {
+        KeyScanCursor<String> page = connection.scanAsync(cursor, "*", count).get();
+        cursor = page.isFinished() ? ScanCursor.INITIAL : page;
+        return page;
+    }
+
+    @Benchmark
+    public List<String> scanPageWithTypes() throws Exception {
+        KeyScanCursor<String> page = scanPage();
+        return connection.typesAsync(page.getKeys()).get();
+    }
+}
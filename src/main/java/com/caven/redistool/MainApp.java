@@ -1,5 +1,7 @@
 package com.caven.redistool;
 
+import com.caven.redistool.controller.MainController;
+import com.caven.redistool.utils.ConnectionManager;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -9,14 +11,27 @@ import javafx.stage.Stage;
 import java.util.Objects;
 
 public class MainApp extends Application {
+    private MainController controller;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
-        Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("/main.fxml")));
+        FXMLLoader loader = new FXMLLoader(Objects.requireNonNull(getClass().getResource("/main.fxml")));
+        Parent root = loader.load();
+        controller = loader.getController();
         primaryStage.setTitle("Redis 远程连接工具");
         primaryStage.setScene(new Scene(root, 1200, 800));
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // 保存当前服务器的 key 索引, 再关闭所有保温中的连接和共享的 Netty 资源
+        if (controller != null) {
+            controller.shutdown();
+        }
+        ConnectionManager.getInstance().shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,129 @@
+package com.caven.redistool.cli;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按行流式输出记录，每条记录写完就可以丢弃，内存占用与结果总量无关
+ * NDJSON 每行一个 JSON 对象；CSV 第一行是表头，字段按 RFC 4180 加引号转义。
+ * 数值和布尔值在 NDJSON 中保持原类型，null 输出为 JSON null 或 CSV 空字段。
+ */
+public class RecordWriter implements Flushable, Closeable {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * 写入输出端失败，通常是管道下游已经退出，调用方据此与其他 I/O 错误区分
+     */
+    public static class OutputClosedException extends UncheckedIOException {
+        public OutputClosedException(IOException cause) {
+            super(cause);
+        }
+    }
+
+    private final Format format;
+    private final String[] columns;
+    private final Writer writer;
+    private final JsonWriter json;
+
+    public RecordWriter(Format format, OutputStream out, String... columns) {
+        this.format = format;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.NDJSON) {
+            json = new JsonWriter(writer);
+            json.setLenient(true); // 允许连续写多个顶层对象
+        } else {
+            json = null;
+            writeCsv((Object[]) columns);
+        }
+    }
+
+    /**
+     * 写一条记录，values 与构造时的列一一对应
+     * @throws OutputClosedException 输出端已关闭 (例如管道下游的 head 已退出)
+     */
+    public void write(Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("expected " + columns.length + " values but got " + values.length);
+        }
+        if (format == Format.NDJSON) {
+            writeJson(values);
+        } else {
+            writeCsv(values);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new OutputClosedException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeJson(Object[] values) {
+        try {
+            json.beginObject();
+            for (int i = 0; i < columns.length; i++) {
+                json.name(columns[i]);
+                Object value = values[i];
+                if (value == null) {
+                    json.nullValue();
+                } else if (value instanceof Number) {
+                    json.value((Number) value);
+                } else if (value instanceof Boolean) {
+                    json.value((Boolean) value);
+                } else {
+                    json.value(value.toString());
+                }
+            }
+            json.endObject();
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new OutputClosedException(e);
+        }
+    }
+
+    private void writeCsv(Object[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(csvField(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new OutputClosedException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,491 @@
+package com.caven.redistool.cli;
+
+import com.caven.redistool.config.ServerConfig;
+import com.caven.redistool.config.ServerConfigStore;
+import com.caven.redistool.entity.KeyNamespace;
+import com.caven.redistool.service.ExportJob;
+import com.caven.redistool.service.KeyspaceCrawler;
+import com.caven.redistool.service.MemoryAnalyzer;
+import com.caven.redistool.utils.EncryptionUtil;
+import com.caven.redistool.utils.RedisConnection;
+import com.caven.redistool.utils.ValueDecoder;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanCursor;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 命令行模式入口，不启动 JavaFX
+ * 复用 RedisConnection 和 data/servers.json 中保存的服务器配置，结果以 NDJSON 或 CSV 逐行写到标准输出，
+ * 遍历类命令每处理完一页才请求下一页，输出端读得慢时扫描也随之放慢，内存占用恒定。
+ * 日志只输出 WARN 以上，写到标准错误，不混入结果。
+ */
+public class RedisCli {
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_ERROR = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final int PAGE_SIZE = 500;
+    private static final String USAGE = String.join("\n",
+            "用法: redis-tool-cli [选项] <命令> [参数]",
+            "",
+            "连接选项:",
+            "  -s, --server <序号|host:port>  使用已保存的服务器 (序号见 servers 命令)",
+            "  -h, --host <host>              服务器地址, 默认 127.0.0.1",
+            "  -p, --port <port>              端口, 默认 6379",
+            "  -a, --password <password>      密码, 也可以通过环境变量 REDISCLI_AUTH 传入",
+            "      --cluster                  按 Redis Cluster 连接",
+            "      --config <file>            服务器配置文件, 默认 data/servers.json",
+            "",
+            "输出选项:",
+            "  -f, --format ndjson|csv        输出格式, 默认 ndjson",
+            "      --ops <n>                  遍历类命令每秒命令数上限, 0 表示不限速",
+            "",
+            "命令:",
+            "  servers                        列出已保存的服务器",
+            "  scan [pattern] [--types]       遍历匹配的 key, --types 同时输出类型",
+            "  type <key>...                  查询 key 的类型",
+            "  get <key>                      读取 String 的值",
+            "  hscan <key>                    遍历 Hash 的字段和值",
+            "  lrange <key> [start] [stop]    读取 List 的元素, 默认全部",
+            "  memory [pattern] [--depth n] [--top n] [--sample rate]",
+            "                                 按前缀汇总内存占用, 并列出最大的 key",
+            "  export <file> [pattern]... [--compress]",
+            "                                 导出匹配的 key (DUMP 格式), 可用图形界面导入",
+            "",
+            "二进制值以 Base64 输出, 此时该行的 encoding 为 base64。");
+
+    private final PrintStream err = System.err;
+    private final OutputStream out = new FileOutputStream(FileDescriptor.out); // 不经过 PrintStream, 管道关闭时能感知到
+    private final List<String> positional = new ArrayList<>();
+    private String server;
+    private String host = "127.0.0.1";
+    private int port = 6379;
+    private String password = System.getenv("REDISCLI_AUTH");
+    private boolean cluster;
+    private Path configFile = ServerConfigStore.DEFAULT_FILE;
+    private RecordWriter.Format format = RecordWriter.Format.NDJSON;
+    private Integer opsPerSecond;
+    private boolean withTypes;
+    private boolean compress;
+    private int depth = 1;
+    private int topN = 20;
+    private double sampleRate = 1.0;
+
+    public static void main(String[] args) {
+        // 以下属性必须在第一次使用 SLF4J 和 Lettuce 之前设置
+        System.setProperty("logback.configurationFile", "logback-cli.xml");
+        if (System.getProperty("io.lettuce.core.jfr") == null) {
+            System.setProperty("io.lettuce.core.jfr", "false"); // 不加载 JFR 事件, 缩短启动时间
+        }
+        System.exit(new RedisCli().run(args));
+    }
+
+    int run(String[] args) {
+        try {
+            parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println();
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (positional.isEmpty()) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        String command = positional.get(0).toLowerCase(Locale.ROOT);
+        List<String> params = positional.subList(1, positional.size());
+        RedisConnection connection = null;
+        try {
+            if (command.equals("servers")) {
+                return listServers();
+            }
+            connection = connect();
+            switch (command) {
+                case "scan":
+                    return scan(connection, params);
+                case "type":
+                    return type(connection, params);
+                case "get":
+                    return get(connection, params);
+                case "hscan":
+                    return hscan(connection, params);
+                case "lrange":
+                    return lrange(connection, params);
+                case "memory":
+                    return memory(connection, params);
+                case "export":
+                    return export(connection, params);
+                default:
+                    err.println("未知命令: " + command);
+                    err.println(USAGE);
+                    return EXIT_USAGE;
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return EXIT_USAGE;
+        } catch (Exception e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RecordWriter.OutputClosedException) {
+                return EXIT_OK; // 输出端已关闭 (如 | head), 静默结束
+            }
+            if (cause instanceof UncheckedIOException) {
+                // 导出文件无法写入等, NoSuchFileException 之类的消息只有路径, 连同异常类型一起输出
+                err.println("错误: " + cause.getCause());
+                return EXIT_ERROR;
+            }
+            err.println("错误: " + cause.getMessage());
+            return EXIT_ERROR;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-s", "--server" -> server = value(args, ++i, arg);
+                case "-h", "--host" -> host = value(args, ++i, arg);
+                case "-p", "--port" -> port = intValue(args, ++i, arg);
+                case "-a", "--password" -> password = value(args, ++i, arg);
+                case "--cluster" -> cluster = true;
+                case "--config" -> configFile = Paths.get(value(args, ++i, arg));
+                case "-f", "--format" -> format = formatValue(value(args, ++i, arg));
+                case "--ops" -> opsPerSecond = intValue(args, ++i, arg);
+                case "--types" -> withTypes = true;
+                case "--compress" -> compress = true;
+                case "--depth" -> depth = intValue(args, ++i, arg);
+                case "--top" -> topN = intValue(args, ++i, arg);
+                case "--sample" -> sampleRate = Double.parseDouble(value(args, ++i, arg));
+                case "--help" -> throw new IllegalArgumentException("");
+                default -> {
+                    if (arg.startsWith("-") && arg.length() > 1 && !isNumber(arg)) {
+                        throw new IllegalArgumentException("未知选项: " + arg);
+                    }
+                    positional.add(arg);
+                }
+            }
+        }
+    }
+
+    private RedisConnection connect() throws Exception {
+        if (server != null) {
+            ServerConfig config = findServer(server);
+            host = config.getHost();
+            port = config.getPort();
+            cluster = config.isCluster();
+            password = config.getEncryptedPassword() == null || config.getEncryptedPassword().isEmpty()
+                    ? null : EncryptionUtil.decrypt(config.getEncryptedPassword());
+            if (opsPerSecond == null) {
+                opsPerSecond = config.getScanOpsPerSecond();
+            }
+        }
+        RedisConnection connection = new RedisConnection();
+        connection.connect(host, port, password, cluster);
+        return connection;
+    }
+
+    private ServerConfig findServer(String name) throws IOException {
+        List<ServerConfig> configs = new ServerConfigStore(configFile).load();
+        if (isNumber(name)) {
+            int index = Integer.parseInt(name);
+            if (index < 1 || index > configs.size()) {
+                throw new IllegalArgumentException("没有序号为 " + name + " 的服务器 (共 " + configs.size() + " 个)");
+            }
+            return configs.get(index - 1);
+        }
+        for (ServerConfig config : configs) {
+            if ((config.getHost() + ":" + config.getPort()).equals(name) || config.getHost().equals(name)) {
+                return config;
+            }
+        }
+        throw new IllegalArgumentException("没有找到已保存的服务器: " + name);
+    }
+
+    private int listServers() throws IOException {
+        RecordWriter writer = new RecordWriter(format, out, "index", "host", "port", "cluster", "delimiter");
+        List<ServerConfig> configs = new ServerConfigStore(configFile).load();
+        for (int i = 0; i < configs.size(); i++) {
+            ServerConfig config = configs.get(i);
+            writer.write(i + 1, config.getHost(), config.getPort(), config.isCluster(), config.getKeyDelimiter());
+        }
+        writer.flush();
+        return EXIT_OK;
+    }
+
+    private int scan(RedisConnection connection, List<String> params) {
+        String pattern = params.isEmpty() ? "*" : params.get(0);
+        RecordWriter writer = withTypes
+                ? new RecordWriter(format, out, "key", "type")
+                : new RecordWriter(format, out, "key");
+        KeyspaceCrawler crawler = new KeyspaceCrawler(connection, pattern, page -> {
+            if (!withTypes) {
+                page.forEach(writer::write);
+                writer.flush();
+                return CompletableFuture.completedFuture(null);
+            }
+            return connection.typesAsync(page).thenAccept(types -> {
+                for (int i = 0; i < page.size(); i++) {
+                    if (!"none".equals(types.get(i))) {
+                        writer.write(page.get(i), types.get(i));
+                    }
+                }
+                writer.flush();
+            });
+        });
+        applyOps(crawler);
+        crawler.start().join();
+        return EXIT_OK;
+    }
+
+    private int type(RedisConnection connection, List<String> keys) {
+        requireArgs(keys, 1, "type <key>...");
+        RecordWriter writer = new RecordWriter(format, out, "key", "type");
+        for (int from = 0; from < keys.size(); from += PAGE_SIZE) {
+            List<String> page = keys.subList(from, Math.min(keys.size(), from + PAGE_SIZE));
+            List<String> types = connection.typesAsync(page).join();
+            for (int i = 0; i < page.size(); i++) {
+                writer.write(page.get(i), types.get(i));
+            }
+        }
+        writer.flush();
+        return EXIT_OK;
+    }
+
+    private int get(RedisConnection connection, List<String> params) {
+        requireArgs(params, 1, "get <key>");
+        String key = params.get(0);
+        byte[] value = connection.getBytesAsync(key).join();
+        if (value == null) {
+            err.println("key 不存在: " + key);
+            return EXIT_ERROR;
+        }
+        RecordWriter writer = new RecordWriter(format, out, "key", "value", "encoding");
+        String encoding = encodingOf(value);
+        writer.write(key, encode(value, encoding), encoding);
+        writer.flush();
+        return EXIT_OK;
+    }
+
+    private int hscan(RedisConnection connection, List<String> params) {
+        requireArgs(params, 1, "hscan <key>");
+        String key = params.get(0);
+        RecordWriter writer = new RecordWriter(format, out, "field", "value", "encoding");
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            MapScanCursor<byte[], byte[]> page = connection.hscanBytesAsync(key, cursor, PAGE_SIZE).join();
+            for (Map.Entry<byte[], byte[]> entry : page.getMap().entrySet()) {
+                String encoding = encodingOf(entry.getKey(), entry.getValue());
+                writer.write(encode(entry.getKey(), encoding), encode(entry.getValue(), encoding), encoding);
+            }
+            writer.flush();
+            cursor = page;
+        } while (!cursor.isFinished());
+        return EXIT_OK;
+    }
+
+    private int lrange(RedisConnection connection, List<String> params) {
+        requireArgs(params, 1, "lrange <key> [start] [stop]");
+        String key = params.get(0);
+        long start = params.size() > 1 ? Long.parseLong(params.get(1)) : 0;
+        long stop = params.size() > 2 ? Long.parseLong(params.get(2)) : -1;
+        if (start < 0 || stop < 0) {
+            // 负数下标换算成绝对位置, 才能按页推进
+            long length = connection.getAsyncCommands().llen(key).toCompletableFuture().join();
+            start = start < 0 ? Math.max(0, length + start) : start;
+            stop = stop < 0 ? length + stop : stop;
+        }
+        RecordWriter writer = new RecordWriter(format, out, "index", "value", "encoding");
+        for (long from = start; from <= stop; from += PAGE_SIZE) {
+            List<byte[]> page = connection.lrangeBytesAsync(key, from, Math.min(stop, from + PAGE_SIZE - 1)).join();
+            for (int i = 0; i < page.size(); i++) {
+                String encoding = encodingOf(page.get(i));
+                writer.write(from + i, encode(page.get(i), encoding), encoding);
+            }
+            writer.flush();
+            if (page.size() < PAGE_SIZE) {
+                break; // List 在读取过程中变短了
+            }
+        }
+        return EXIT_OK;
+    }
+
+    private int memory(RedisConnection connection, List<String> params) {
+        String pattern = params.isEmpty() ? "*" : params.get(0);
+        MemoryAnalyzer analyzer = new MemoryAnalyzer(connection, pattern, delimiter());
+        analyzer.setSampleRate(sampleRate);
+        analyzer.setTopN(topN);
+        if (opsPerSecond != null) {
+            analyzer.setOpsPerSecond(opsPerSecond);
+        }
+        analyzer.setListener(new MemoryAnalyzer.Listener() {
+            private long lastReport;
+
+            @Override
+            public void onProgress(long analyzedKeys, long examinedKeys, long totalKeys) {
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= 1000) {
+                    lastReport = now;
+                    err.printf("已遍历 %,d / %,d%n", examinedKeys, totalKeys);
+                }
+            }
+        });
+        analyzer.start().join();
+
+        RecordWriter writer = new RecordWriter(format, out, "kind", "name", "type", "keys", "bytes");
+        KeyNamespace namespace = analyzer.getNamespace();
+        MemoryAnalyzer.PrefixStats total = analyzer.statsOf(namespace.getRoot());
+        writer.write("total", "", null, total.getKeys(), total.getBytes());
+        writePrefixes(writer, analyzer, namespace.getRoot(), 1);
+        for (MemoryAnalyzer.KeySize key : analyzer.topKeys()) {
+            writer.write("key", key.getKey(), key.getType(), 1, key.getBytes());
+        }
+        writer.flush();
+        return EXIT_OK;
+    }
+
+    /**
+     * 按内存从大到小深度优先输出前缀, 不超过 --depth 层
+     */
+    private void writePrefixes(RecordWriter writer, MemoryAnalyzer analyzer, KeyNamespace.Node node, int level) {
+        if (level > depth) {
+            return;
+        }
+        KeyNamespace namespace = analyzer.getNamespace();
+        List<KeyNamespace.Node> children = namespace.childrenOf(node);
+        children.sort(Comparator.comparingLong((KeyNamespace.Node child) -> analyzer.statsOf(child).getBytes()).reversed());
+        for (KeyNamespace.Node child : children) {
+            MemoryAnalyzer.PrefixStats stats = analyzer.statsOf(child);
+            writer.write("prefix", namespace.fullPath(child) + namespace.getDelimiter(), child.getFolderType(), stats.getKeys(), stats.getBytes());
+            writePrefixes(writer, analyzer, child, level + 1);
+        }
+    }
+
+    private int export(RedisConnection connection, List<String> params) {
+        requireArgs(params, 1, "export <file> [pattern]...");
+        Path file = Paths.get(params.get(0));
+        List<String> patterns = params.size() > 1 ? new ArrayList<>(params.subList(1, params.size())) : List.of("*");
+        ExportJob job = new ExportJob(connection, List.of(), patterns, file, compress);
+        if (opsPerSecond != null) {
+            job.setOpsPerSecond(opsPerSecond);
+        }
+        AtomicLong exported = new AtomicLong();
+        job.setListener(new ExportJob.Listener() {
+            private long lastReport;
+
+            @Override
+            public void onProgress(long exportedKeys, String currentPattern) {
+                exported.set(exportedKeys);
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= 1000) {
+                    lastReport = now;
+                    err.printf("已导出 %,d 个 key%n", exportedKeys);
+                }
+            }
+        });
+        job.start().join();
+        RecordWriter writer = new RecordWriter(format, out, "file", "keys");
+        writer.write(file.toAbsolutePath().toString(), exported.get());
+        writer.flush();
+        return EXIT_OK;
+    }
+
+    private void applyOps(KeyspaceCrawler crawler) {
+        if (opsPerSecond != null) {
+            crawler.setOpsPerSecond(opsPerSecond);
+        }
+    }
+
+    private String delimiter() {
+        if (server != null) {
+            try {
+                return findServer(server).getKeyDelimiter();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return KeyNamespace.DEFAULT_DELIMITER;
+    }
+
+    /**
+     * 整行的编码: 任何一个值不是合法 UTF-8 文本时, 这一行的值都用 Base64
+     */
+    private static String encodingOf(byte[]... values) {
+        for (byte[] value : values) {
+            if (!ValueDecoder.isText(value, 0, value.length)) {
+                return "base64";
+            }
+        }
+        return "utf8";
+    }
+
+    private static String encode(byte[] value, String encoding) {
+        return "base64".equals(encoding)
+                ? Base64.getEncoder().encodeToString(value)
+                : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void requireArgs(List<String> params, int count, String usage) {
+        if (params.size() < count) {
+            throw new IllegalArgumentException("用法: " + usage);
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " 缺少参数");
+        }
+        return args[index];
+    }
+
+    private static int intValue(String[] args, int index, String option) {
+        try {
+            return Integer.parseInt(value(args, index, option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " 需要整数参数");
+        }
+    }
+
+    private static RecordWriter.Format formatValue(String value) {
+        try {
+            return RecordWriter.Format.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的输出格式: " + value);
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        return value.matches("-?\\d+");
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException
+                || cause instanceof IllegalStateException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
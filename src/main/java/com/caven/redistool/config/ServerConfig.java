@@ -6,9 +6,16 @@ package com.caven.redistool.config;
  * @date 2025/10/16 17:02
  */
 public class ServerConfig {
+    public static final String DEFAULT_KEY_DELIMITER = ":";
+    public static final int DEFAULT_SCAN_OPS_PER_SECOND = 2000;
+
     private String host;
     private int port;
     private String encryptedPassword;  // 加密后的密码
+    private String keyDelimiter;       // Key 层级分隔符, 为空时使用 ":"
+    private int scanOpsPerSecond;      // 后台全量扫描的每秒命令数上限, 0 表示使用默认值
+    private boolean cluster;           // 是否为 Redis Cluster 集群
+    private int clientCacheMegabytes;  // 本地内容缓存容量 (MB), 0 表示不开启
 
     public ServerConfig(String host, int port, String encryptedPassword) {
         this.host = host;
@@ -41,6 +48,38 @@ public class ServerConfig {
         this.encryptedPassword = encryptedPassword;
     }
 
+    public String getKeyDelimiter() {
+        return keyDelimiter == null || keyDelimiter.isEmpty() ? DEFAULT_KEY_DELIMITER : keyDelimiter;
+    }
+
+    public void setKeyDelimiter(String keyDelimiter) {
+        this.keyDelimiter = keyDelimiter;
+    }
+
+    public int getScanOpsPerSecond() {
+        return scanOpsPerSecond > 0 ? scanOpsPerSecond : DEFAULT_SCAN_OPS_PER_SECOND;
+    }
+
+    public void setScanOpsPerSecond(int scanOpsPerSecond) {
+        this.scanOpsPerSecond = scanOpsPerSecond;
+    }
+
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    public void setCluster(boolean cluster) {
+        this.cluster = cluster;
+    }
+
+    public int getClientCacheMegabytes() {
+        return clientCacheMegabytes;
+    }
+
+    public void setClientCacheMegabytes(int clientCacheMegabytes) {
+        this.clientCacheMegabytes = clientCacheMegabytes;
+    }
+
     @Override
     public String toString() {
         return host + ":" + port;  // ListView 显示格式
@@ -0,0 +1,62 @@
+package com.caven.redistool.config;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 已保存的服务器配置 (data/servers.json) 的读写
+ * 图形界面和命令行模式共用同一份配置文件。
+ */
+public class ServerConfigStore {
+    public static final Path DEFAULT_FILE = Paths.get("data", "servers.json");
+
+    private final Path file;
+    private final Gson gson = new Gson();
+
+    public ServerConfigStore() {
+        this(DEFAULT_FILE);
+    }
+
+    public ServerConfigStore(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return 保存的配置, 文件不存在时为空列表
+     */
+    public List<ServerConfig> load() throws IOException {
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Type listType = new TypeToken<ArrayList<ServerConfig>>() {}.getType();
+            List<ServerConfig> loaded = gson.fromJson(reader, listType);
+            return loaded != null ? loaded : new ArrayList<>();
+        }
+    }
+
+    public void save(List<ServerConfig> configs) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(configs, writer);
+        }
+    }
+}
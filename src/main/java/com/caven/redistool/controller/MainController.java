@@ -1,15 +1,42 @@
 package com.caven.redistool.controller;
 
 import com.caven.redistool.config.ServerConfig;
+import com.caven.redistool.config.ServerConfigStore;
 import com.caven.redistool.entity.HashEntry;
+import com.caven.redistool.entity.KeyNamespace;
 import com.caven.redistool.entity.RedisKey;
+import com.caven.redistool.service.BulkDeleteJob;
+import com.caven.redistool.service.ExportJob;
+import com.caven.redistool.service.ImportJob;
+import com.caven.redistool.service.KeyspaceCrawler;
+import com.caven.redistool.service.KeyspaceWatcher;
+import com.caven.redistool.utils.CachingDataSource;
+import com.caven.redistool.utils.ConnectionManager;
 import com.caven.redistool.utils.EncryptionUtil;
+import com.caven.redistool.utils.KeyIndex;
+import com.caven.redistool.utils.KeyIndexStore;
+import com.caven.redistool.utils.RangedValueSource;
+import com.caven.redistool.utils.RdbSnapshot;
 import com.caven.redistool.utils.RedisConnection;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.caven.redistool.utils.RedisDataSource;
+import com.caven.redistool.utils.RequestGeneration;
+import com.caven.redistool.utils.ValueDecoder;
+import com.caven.redistool.utils.ValueFormat;
+import com.caven.redistool.view.DashboardWindow;
+import com.caven.redistool.view.KeyTreeModel;
+import com.caven.redistool.view.LargeValueView;
+import com.caven.redistool.view.LatencyWindow;
+import com.caven.redistool.view.ListContentView;
+import com.caven.redistool.view.MemoryAnalyzerWindow;
+import com.caven.redistool.view.RingList;
+import com.caven.redistool.view.StreamContentView;
+import com.caven.redistool.view.TaskProgressDialog;
+import com.caven.redistool.view.UiDispatcher;
+import com.caven.redistool.view.ZSetContentView;
 import io.lettuce.core.KeyScanCursor;
 import io.lettuce.core.ScanCursor;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -21,20 +48,21 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.Reader;
-import java.io.Writer;
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Stream;
 
 public class MainController implements Initializable {
@@ -45,7 +73,14 @@ public class MainController implements Initializable {
     @FXML private SplitPane mainSplitPane;
     @FXML private TreeView<RedisKey> keyTreeView;
     @FXML private TextField searchField;
+    @FXML private ComboBox<KeyIndex.Mode> searchModeBox;
+    @FXML private ToggleButton caseSensitiveButton;
     @FXML private Button loadMoreButton;
+    @FXML private ToggleButton crawlButton;
+    @FXML private ToggleButton liveButton;
+    @FXML private HBox crawlStatusBox;
+    @FXML private ProgressBar crawlProgressBar;
+    @FXML private Label crawlStatusLabel;
     @FXML private VBox welcomeCenter;
     @FXML private VBox redisKeyView;
 
@@ -53,29 +88,59 @@ public class MainController implements Initializable {
     @FXML private VBox keyContentView;
     @FXML private Label welcomeLabel;
     @FXML private TextArea stringContentView;
-    @FXML private ListView<String> listContentView;
+    @FXML private LargeValueView largeStringView;
+    @FXML private ListContentView listContentView;
     @FXML private TableView<HashEntry> hashContentView;
+    @FXML private TableColumn<HashEntry, String> hashFieldColumn;
+    @FXML private TableColumn<HashEntry, String> hashValueColumn;
+    @FXML private ListView<byte[]> setContentView;
+    @FXML private ZSetContentView zsetContentView;
+    @FXML private StreamContentView streamContentView;
     @FXML private Button contentLoadMoreButton;
+    @FXML private ComboBox<ValueFormat> valueFormatBox;
 
     // --- 业务逻辑属性 ---
     // --- 业务逻辑 ---
-    private RedisConnection redisConn;
+    private final ConnectionManager connectionManager = ConnectionManager.getInstance();
+    private final UiDispatcher ui = UiDispatcher.getInstance(); // 异步结果统一经由它按帧批量更新 UI
+    private final KeyIndexStore keyIndexStore = KeyIndexStore.getInstance();
+    private RedisConnection redisConn; // 在线连接, 浏览离线 RDB 时为 null
+    private RdbSnapshot snapshot; // 当前打开的离线 RDB 快照
+    private RedisDataSource dataSource; // Key 树和内容视图读取数据的来源: redisConn 或 snapshot
+    private ServerConfig activeServer; // 当前连接的服务器配置
+    private KeyTreeModel keyTreeModel; // 左侧 Key 树背后的前缀树模型, 子节点按需懒加载
+    private KeyspaceCrawler crawler; // 后台全量扫描任务, 未运行时为 null
+    private KeyspaceWatcher liveWatcher; // 实时更新 Key 树的 keyspace 通知订阅, 未开启时为 null
     private RedisKey activeKey; // 当前在右侧显示内容的Key
     private ScanCursor scanCursor; // 左侧Key列表的游标
-    private ScanCursor contentScanCursor; // 右侧内容(Hash)的游标
-    private long listContentOffset; // 右侧List内容的偏移量
+    private KeyIndex keyIndex = new KeyIndex(); // 已扫描到的全部 key, 搜索直接在本地进行
+    private ScanCursor indexFrontier = ScanCursor.INITIAL; // 不带 MATCH 的遍历进行到的位置, 之前的 key 都已在索引中
+    private KeyIndex.Query activeQuery; // 当前生效的搜索, 未搜索时为 null
+    private boolean indexRestored; // 当前索引从本地快照恢复, 包含上次保存的全部 key
+    private long savedIndexModCount; // 上次保存 (或恢复) 时索引的修改计数
+    private ScanCursor contentScanCursor; // 右侧内容(Hash、Set)的游标
+    private final RequestGeneration keyLoads = new RequestGeneration(MAX_REQUESTS_PER_VIEW); // Key 树的分页加载和搜索, 新的一次作废之前未完成的
+    private final RequestGeneration contentLoads = new RequestGeneration(MAX_REQUESTS_PER_VIEW); // 右侧内容的加载, 切换 key 时作废之前的
+    private final RingList<byte[]> setMembers = new RingList<>(MAX_SET_ROWS); // Set 已加载的成员, 超出上限时丢弃最早的
+    private byte[] stringContentValue; // 右侧String内容的原始字节, 切换显示格式时重新解码
     private static final int SCAN_COUNT = 20;
+    private static final int MAX_REQUESTS_PER_VIEW = 2; // 每个视图同时在途的请求数上限
+    private static final int MAX_SEARCH_RESULTS = 100_000; // 搜索结果最多放入 Key 树的数量
+    private static final int STRING_PREVIEW_BYTES = 1024 * 1024; // String 超过该长度时改为分块按需加载
+    private static final int ELEMENT_PREVIEW_BYTES = 1024; // 集合类型单个元素最多解码显示的字节数
+    private static final int SET_SCAN_COUNT = 1000; // Set 每次 SSCAN 的 COUNT
+    private static final int MAX_SET_ROWS = 50_000; // Set 视图最多保留的成员数
     private ObservableList<ServerConfig> serverConfigs = FXCollections.observableArrayList();
-    private static final String DATA_DIR = "data";
-    private static final String CONFIG_FILE = DATA_DIR + "/servers.json";
-    private final Gson gson = new Gson();
+    private final ServerConfigStore configStore = new ServerConfigStore();
 
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         updateUI(false);
         setupKeyTreeView();
+        setupSearchBar();
         keyContentView.setVisible(false); // 初始隐藏右侧面板
+        setupContentViews();
 
         // 加载配置
         loadServerConfigs();
@@ -93,6 +158,32 @@ public class MainController implements Initializable {
         });
     }
 
+    /**
+     * 搜索方式下拉框和大小写开关，默认通配符并区分大小写，与 SCAN MATCH 一致
+     */
+    private void setupSearchBar() {
+        searchModeBox.getItems().setAll(KeyIndex.Mode.values());
+        searchModeBox.setValue(KeyIndex.Mode.GLOB);
+        searchModeBox.valueProperty().addListener((obs, oldMode, mode) -> {
+            switch (mode) {
+                case SUBSTRING:
+                    searchField.setPromptText("包含该文本的 key");
+                    break;
+                case REGEX:
+                    searchField.setPromptText("Java 正则表达式, 部分匹配即可");
+                    break;
+                case FUZZY:
+                    searchField.setPromptText("按顺序出现的字符, 如 usrsess");
+                    break;
+                default:
+                    searchField.setPromptText("使用 * 模糊匹配");
+                    break;
+            }
+            caseSensitiveButton.setDisable(mode == KeyIndex.Mode.FUZZY);
+        });
+        caseSensitiveButton.setTooltip(new Tooltip("区分大小写"));
+    }
+
     /**
      * 设置 TreeView 的单元格工厂和多选模式
      */
@@ -125,21 +216,97 @@ public class MainController implements Initializable {
         });
     }
 
+    /**
+     * 设置右侧内容视图: value 保持原始字节，只在单元格可见时按所选格式解码
+     */
+    private void setupContentViews() {
+        valueFormatBox.getItems().setAll(ValueFormat.values());
+        valueFormatBox.getSelectionModel().select(ValueFormat.AUTO);
+        valueFormatBox.valueProperty().addListener((obs, oldFormat, newFormat) -> renderContentFormat());
+
+        // 固定行高让虚拟化不必逐行测量，百万行时滚动依然流畅
+        hashContentView.setFixedCellSize(24);
+        // 只在单元格显示时才解码并包装成属性，行对象本身只保存原始字节
+        hashFieldColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(decodeValue(cell.getValue().getField(), ELEMENT_PREVIEW_BYTES)));
+        hashValueColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(decodeValue(cell.getValue().getValue(), ELEMENT_PREVIEW_BYTES)));
+        listContentView.setDecoder(value -> decodeValue(value, ELEMENT_PREVIEW_BYTES));
+        listContentView.setOnTailModeChanged(fromTail -> {
+            if (activeKey != null && "list".equalsIgnoreCase(activeKey.getKeyType())) loadListContent();
+        });
+        setContentView.setFixedCellSize(24);
+        setContentView.setItems(setMembers);
+        setContentView.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(byte[] member, boolean empty) {
+                super.updateItem(member, empty);
+                setText(empty || member == null ? null : decodeValue(member, ELEMENT_PREVIEW_BYTES));
+            }
+        });
+        zsetContentView.setDecoder(value -> decodeValue(value, ELEMENT_PREVIEW_BYTES));
+        zsetContentView.setOnTailModeChanged(fromTail -> {
+            if (activeKey != null && "zset".equalsIgnoreCase(activeKey.getKeyType())) loadZSetContent();
+        });
+        streamContentView.setDecoder(value -> decodeValue(value, ELEMENT_PREVIEW_BYTES));
+    }
+
+    private String decodeValue(byte[] value, int maxBytes) {
+        return ValueDecoder.decode(value, valueFormatBox.getValue(), maxBytes);
+    }
+
+    /**
+     * 切换显示格式后重新解码当前内容
+     */
+    private void renderContentFormat() {
+        if (activeKey == null) return;
+        switch (activeKey.getKeyType().toLowerCase()) {
+            case "string":
+                if (largeStringView.getSource() != null) {
+                    RangedValueSource source = largeStringView.getSource();
+                    largeStringView.setHexMode(isHexFormat(source, (int) Math.min(source.getLength(), 4096)));
+                } else {
+                    stringContentView.setText(stringContentValue == null ? null : decodeValue(stringContentValue, STRING_PREVIEW_BYTES));
+                }
+                break;
+            case "list":
+                listContentView.refresh();
+                break;
+            case "hash":
+                hashContentView.refresh();
+                break;
+            case "set":
+                setContentView.refresh();
+                break;
+            case "zset":
+                zsetContentView.refresh();
+                break;
+            case "stream":
+                streamContentView.refresh();
+                break;
+            default:
+                break;
+        }
+    }
+
     private void connectToServer(ServerConfig config) {
         try {
             String password = EncryptionUtil.decrypt(config.getEncryptedPassword());
-            // 如果已有连接，先断开
-            if (redisConn != null) {
-                redisConn.disconnect();
-            }
-            redisConn = new RedisConnection();
-            redisConn.connect(config.getHost(), config.getPort(), password);
+            // 如果已有连接，先停止后台扫描并归还连接 (由连接管理器保温，切回时直接复用)
+            closeDataSource();
+            redisConn = connectionManager.acquire(config, password);
+            // 开启本地缓存时内容视图的读取经由缓存, 由 CLIENT TRACKING 推送保证不会读到旧值
+            dataSource = config.getClientCacheMegabytes() > 0
+                    ? redisConn.cachingDataSource(config.getClientCacheMegabytes() * 1024L * 1024L) : redisConn;
+            activeServer = config;
             log.info("连接成功到 " + config.getHost() + ":" + config.getPort() + "！\n");
 
 
-            // 切换服务器时先隐藏右侧,再初始化 Key 视图
+            // 切换服务器时先隐藏右侧,再初始化 Key 视图; 有本地快照时先显示快照
             updateUI(true);
-            initializeKeyView();
+            if (keyIndexStore.exists(config)) {
+                restoreKeyView(config);
+            } else {
+                initializeKeyView();
+            }
         } catch (Exception e) {
             log.error("连接失败: ", e);
             // 可以在此弹窗提示用户连接失败
@@ -154,6 +321,87 @@ public class MainController implements Initializable {
         }
     }
 
+    /**
+     * 打开离线 RDB 快照，建立 key 索引后用同一套 Key 树和内容视图浏览
+     */
+    @FXML
+    private void handleOpenRdb() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("打开 RDB 快照");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("RDB 文件", "*.rdb"),
+                new FileChooser.ExtensionFilter("所有文件", "*.*"));
+        File file = chooser.showOpenDialog(serverListView.getScene().getWindow());
+        if (file == null) return;
+
+        RdbSnapshot newSnapshot;
+        try {
+            newSnapshot = new RdbSnapshot(file.toPath());
+        } catch (IOException e) {
+            log.error("打开 RDB 失败: ", e);
+            new Alert(Alert.AlertType.ERROR, "无法打开文件: " + e.getMessage()).showAndWait();
+            return;
+        }
+
+        TaskProgressDialog dialog = new TaskProgressDialog(serverListView.getScene().getWindow(), "加载 RDB");
+        dialog.setOnCancel(newSnapshot::cancelLoad);
+        long fileSize = newSnapshot.getFileSize();
+        newSnapshot.load(position -> ui.post(dialog, () -> dialog.update((double) position / fileSize,
+                String.format("正在建立索引 %s / %s", formatSize(position), formatSize(fileSize))))
+        ).whenComplete((v, ex) -> ui.post(() -> {
+            if (ex != null) {
+                newSnapshot.close();
+                boolean cancelled = ex.getCause() instanceof CancellationException;
+                log.error("加载 RDB 失败: ", ex);
+                dialog.finish(cancelled ? "已取消" : "加载失败: " + ex.getCause().getMessage());
+                return;
+            }
+            dialog.finish("加载完成");
+            closeDataSource();
+            snapshot = newSnapshot;
+            dataSource = newSnapshot;
+            activeServer = null;
+            log.info("已打开 RDB 快照 {}", file);
+            initializeKeyView();
+        }));
+        dialog.show();
+    }
+
+    /**
+     * 停止后台扫描并释放当前的数据来源: 在线连接归还给连接管理器 (保温复用)，离线快照直接关闭
+     */
+    private void closeDataSource() {
+        keyLoads.invalidate();
+        contentLoads.invalidate();
+        cancelCrawler();
+        saveKeyIndex();
+        keyIndex = new KeyIndex(); // 旧数据来源上未完成的扫描不会再写入或保存它
+        stopLiveWatcher();
+        liveButton.setSelected(false);
+        largeStringView.close();
+        listContentView.close();
+        zsetContentView.close();
+        streamContentView.close(); // 停止实时跟踪, 关闭 XREAD BLOCK 的独立连接
+        setMembers.clear();
+        if (redisConn != null) {
+            connectionManager.release(redisConn);
+            redisConn = null;
+        }
+        if (snapshot != null) {
+            snapshot.close();
+            snapshot = null;
+        }
+        dataSource = null;
+    }
+
+    private void showReadOnlyAlert() {
+        new Alert(Alert.AlertType.INFORMATION, "离线 RDB 快照是只读的，不能修改数据。").showAndWait();
+    }
+
+    private static String formatSize(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
     /**
      * 加载 Key 的内容
      * @param key 要加载的 Key
@@ -161,24 +409,53 @@ public class MainController implements Initializable {
     private void loadKeyContent(RedisKey key) {
         this.activeKey = key;
         keyContentView.setVisible(true); // 显示右侧面板
+        largeStringView.close(); // 释放上一个大 value 的临时文件
+        listContentView.close();
+        zsetContentView.close();
+        streamContentView.close();
+        setMembers.clear();
+        stringContentValue = null;
         switch (key.getKeyType().toLowerCase()) {
             case "string":
                 loadStringContent();
                 break;
             case "list":
-                loadListContent(false);
+                loadListContent();
                 break;
             case "hash":
                 loadHashContent(false);
                 break;
+            case "set":
+                loadSetContent(false);
+                break;
+            case "zset":
+                loadZSetContent();
+                break;
+            case "stream":
+                loadStreamContent();
+                break;
             default:
+                contentLoads.invalidate();
                 showContentPlaceholder("不支持的类型: " + key.getKeyType());
                 break;
         }
     }
 
+    /**
+     * 内容读取失败时显示错误，被新的加载取消的请求不提示
+     */
+    private void showContentLoadError(String logMessage, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof CancellationException) {
+            return;
+        }
+        log.error(logMessage, cause);
+        showContentPlaceholder("读取失败: " + cause.getMessage());
+    }
+
     private void showContentPlaceholder(String message) {
-        Stream.of(stringContentView, listContentView, hashContentView).forEach(node -> node.setVisible(false));
+        Stream.of(stringContentView, largeStringView, listContentView, hashContentView, setContentView, zsetContentView, streamContentView)
+                .forEach(node -> node.setVisible(false));
         welcomeLabel.setText(message);
         welcomeLabel.setVisible(true);
         contentLoadMoreButton.setVisible(false);
@@ -187,34 +464,101 @@ public class MainController implements Initializable {
     private void setVisibleContentNode(Node node) {
         welcomeLabel.setVisible(false);
         stringContentView.setVisible(node == stringContentView);
+        largeStringView.setVisible(node == largeStringView);
         listContentView.setVisible(node == listContentView);
         hashContentView.setVisible(node == hashContentView);
+        setContentView.setVisible(node == setContentView);
+        zsetContentView.setVisible(node == zsetContentView);
+        streamContentView.setVisible(node == streamContentView);
     }
 
+    /**
+     * 先用 STRLEN 判断大小，小 value 直接 GET，大 value 交给分块查看器按需 GETRANGE
+     */
     private void loadStringContent() {
         setVisibleContentNode(stringContentView);
         contentLoadMoreButton.setVisible(false);
-        redisConn.getAsync(activeKey.getFullKeyName()).thenAcceptAsync(value ->
-                Platform.runLater(() -> stringContentView.setText(value)), Platform::runLater);
+        stringContentView.clear();
+        String key = activeKey.getFullKeyName();
+        RequestGeneration.Token token = contentLoads.next();
+        token.submit(() -> dataSource.strlenAsync(key)).whenComplete((length, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) return; // 已经切换到别的 key
+            if (ex != null) {
+                showContentLoadError("读取 String 长度失败: ", ex);
+                return;
+            }
+            if (length > STRING_PREVIEW_BYTES) {
+                loadLargeStringContent(token, key, length);
+                return;
+            }
+            token.submit(() -> dataSource.getBytesAsync(key)).whenComplete((value, error) -> ui.post(() -> {
+                if (!token.isCurrent()) return;
+                if (error != null) {
+                    showContentLoadError("读取 String 失败: ", error);
+                    return;
+                }
+                stringContentValue = value;
+                stringContentView.setText(value == null ? null : decodeValue(value, STRING_PREVIEW_BYTES));
+            }));
+        }));
     }
 
-    private void loadListContent(boolean isLoadMore) {
-        setVisibleContentNode(listContentView);
-        if (!isLoadMore) {
-            listContentView.getItems().clear();
-            listContentOffset = 0;
+    private void loadLargeStringContent(RequestGeneration.Token token, String key, long length) {
+        RangedValueSource source;
+        try {
+            source = new RangedValueSource(dataSource, key, length);
+        } catch (Exception e) {
+            log.error("创建临时文件失败: ", e);
+            showContentPlaceholder("无法打开大 value: " + e.getMessage());
+            return;
         }
+        // 自动识别时先拉取第一块，根据内容决定按文本还是十六进制显示
+        int probe = (int) Math.min(length, 4096);
+        token.submit(() -> source.ensureLoaded(0, probe)).whenComplete((v, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) {
+                source.close(); // 已经切换到别的 key
+                return;
+            }
+            if (ex != null) {
+                source.close();
+                showContentLoadError("读取大 value 失败: ", ex);
+                return;
+            }
+            largeStringView.show(source, isHexFormat(source, probe));
+            setVisibleContentNode(largeStringView);
+        }));
+    }
 
-        long start = listContentOffset;
-        long end = start + SCAN_COUNT - 1;
+    private boolean isHexFormat(RangedValueSource source, int probe) {
+        switch (valueFormatBox.getValue()) {
+            case HEX:
+                return true;
+            case UTF8:
+                return false;
+            default:
+                byte[] head = new byte[probe];
+                int n = source.read(0, head, 0, probe);
+                return !ValueDecoder.isText(head, 0, n);
+        }
+    }
 
-        redisConn.lrangeAsync(activeKey.getFullKeyName(), start, end).thenAcceptAsync(values -> {
-            Platform.runLater(() -> {
-                listContentView.getItems().addAll(values);
-                listContentOffset += values.size();
-                contentLoadMoreButton.setVisible(!values.isEmpty() && values.size() == SCAN_COUNT);
-            });
-        }, Platform::runLater);
+    /**
+     * 先用 LLEN 确定行数，再交给虚拟化视图按滚动位置分窗口 LRANGE
+     */
+    private void loadListContent() {
+        setVisibleContentNode(listContentView);
+        contentLoadMoreButton.setVisible(false);
+        String key = activeKey.getFullKeyName();
+        boolean fromTail = listContentView.isTailMode();
+        RequestGeneration.Token token = contentLoads.next();
+        token.submit(() -> dataSource.llenAsync(key)).whenComplete((length, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) return; // 已经切换到别的 key
+            if (ex != null) {
+                showContentLoadError("读取 List 长度失败: ", ex);
+                return;
+            }
+            listContentView.show(dataSource, key, length, fromTail);
+        }));
     }
 
     private void loadHashContent(boolean isLoadMore) {
@@ -229,95 +573,543 @@ public class MainController implements Initializable {
             return;
         }
 
-        redisConn.hscanAsync(activeKey.getFullKeyName(), contentScanCursor, SCAN_COUNT)
-                .thenAcceptAsync(cursor -> {
-                    contentScanCursor = cursor;
-                    Platform.runLater(() -> {
-                        for (Map.Entry<String, String> entry : cursor.getMap().entrySet()) {
-                            hashContentView.getItems().add(new HashEntry(entry.getKey(), entry.getValue()));
-                        }
+        String key = activeKey.getFullKeyName();
+        ScanCursor start = contentScanCursor;
+        RequestGeneration.Token token = contentLoads.next();
+        token.submit(() -> dataSource.hscanBytesAsync(key, start, SCAN_COUNT))
+                .whenComplete((cursor, ex) -> {
+                    if (ex != null) {
+                        ui.post(() -> {
+                            if (token.isCurrent()) showContentLoadError("读取 Hash 失败: ", ex);
+                        });
+                        return;
+                    }
+                    List<HashEntry> rows = new ArrayList<>(cursor.getMap().size());
+                    for (Map.Entry<byte[], byte[]> entry : cursor.getMap().entrySet()) {
+                        rows.add(new HashEntry(entry.getKey(), entry.getValue()));
+                    }
+                    ui.post(() -> {
+                        if (!token.isCurrent()) return; // 已经切换到别的 key
+                        contentScanCursor = cursor;
+                        // 整页一次 addAll，只触发一次列表变更事件
+                        hashContentView.getItems().addAll(rows);
                         contentLoadMoreButton.setVisible(!cursor.isFinished());
                     });
-                }, Platform::runLater);
+                });
+    }
+
+    /**
+     * SSCAN 分页追加到环形列表，成员超过 MAX_SET_ROWS 时丢弃最早加载的
+     */
+    private void loadSetContent(boolean isLoadMore) {
+        setVisibleContentNode(setContentView);
+        if (!isLoadMore) {
+            setMembers.clear();
+            contentScanCursor = ScanCursor.INITIAL;
+        }
+
+        if (contentScanCursor == null || contentScanCursor.isFinished()) {
+            contentLoadMoreButton.setVisible(false);
+            return;
+        }
+
+        String key = activeKey.getFullKeyName();
+        ScanCursor start = contentScanCursor;
+        RequestGeneration.Token token = contentLoads.next();
+        token.submit(() -> dataSource.sscanBytesAsync(key, start, SET_SCAN_COUNT)).whenComplete((cursor, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) return; // 已经切换到别的 key
+            if (ex != null) {
+                showContentLoadError("读取 Set 失败: ", ex);
+                return;
+            }
+            contentScanCursor = cursor;
+            setMembers.addAllLast(cursor.getValues());
+            contentLoadMoreButton.setVisible(!cursor.isFinished());
+        }));
+    }
+
+    /**
+     * 先用 ZCARD 确定行数，再交给虚拟化视图按滚动位置分窗口 ZRANGE
+     */
+    private void loadZSetContent() {
+        setVisibleContentNode(zsetContentView);
+        contentLoadMoreButton.setVisible(false);
+        String key = activeKey.getFullKeyName();
+        boolean fromTail = zsetContentView.isTailMode();
+        RequestGeneration.Token token = contentLoads.next();
+        token.submit(() -> dataSource.zcardAsync(key)).whenComplete((length, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) return; // 已经切换到别的 key
+            if (ex != null) {
+                showContentLoadError("读取 Sorted Set 大小失败: ", ex);
+                return;
+            }
+            zsetContentView.show(dataSource, key, length, fromTail);
+        }));
+    }
+
+    /**
+     * Stream 只在在线连接上查看，离线快照不解析 Stream 的内部结构
+     */
+    private void loadStreamContent() {
+        contentLoads.invalidate(); // 翻页和实时跟踪由视图自己管理
+        contentLoadMoreButton.setVisible(false);
+        if (redisConn == null) {
+            showContentPlaceholder("离线 RDB 快照暂不支持查看 Stream");
+            return;
+        }
+        setVisibleContentNode(streamContentView);
+        streamContentView.show(redisConn, activeKey.getFullKeyName());
+    }
+
+    /**
+     * 程序退出时保存当前服务器的 key 索引并等待写完
+     */
+    public void shutdown() {
+        closeDataSource();
+        keyIndexStore.shutdown(30, TimeUnit.SECONDS);
     }
 
     /**
      * 初始化 Key 视图，并加载第一批数据
      */
     private void initializeKeyView() {
+        resetKeyView();
+        loadKeys(false); // 初始加载
+    }
+
+    /**
+     * 先显示上次保存的 Key 树，再从头全量扫描一遍与服务器核对
+     * 扫描中出现的 key 标记为新一轮，扫描结束后删除上一轮留下而这一轮没有出现的
+     */
+    private void restoreKeyView(ServerConfig config) {
+        resetKeyView();
+        KeyIndex placeholder = keyIndex;
+        loadMoreButton.setDisable(true);
+        crawlProgressBar.setProgress(-1);
+        crawlStatusLabel.setText("正在读取本地索引...");
+        crawlStatusBox.setVisible(true);
+        crawlStatusBox.setManaged(true);
+
+        KeyNamespace namespace = newKeyNamespace();
+        keyIndexStore.loadAsync(config).thenApply(index -> {
+            if (index != null) {
+                index.forEachBatch(10_000, (keys, types) -> namespace.insertAll(toLeafKeys(keys, types)));
+            }
+            return index;
+        }).whenComplete((index, ex) -> ui.post(() -> {
+            if (keyIndex != placeholder || activeServer != config) return; // 期间已经刷新或切换了服务器
+            if (ex != null) {
+                log.error("恢复 key 索引失败: ", ex);
+            }
+            if (index == null) {
+                // 没有可用的快照, 按普通方式加载第一页
+                crawlStatusBox.setVisible(false);
+                crawlStatusBox.setManaged(false);
+                loadMoreButton.setDisable(false);
+                loadKeys(false);
+                return;
+            }
+            keyIndex = index;
+            indexRestored = true;
+            savedIndexModCount = index.getModCount();
+            index.beginEpoch();
+            keyTreeModel = new KeyTreeModel(namespace);
+            keyTreeView.setRoot(keyTreeModel.getRoot());
+            crawlButton.setSelected(true);
+            startCrawler();
+        }));
+    }
+
+    /**
+     * 清空 Key 树、搜索和索引，游标回到起点
+     */
+    private void resetKeyView() {
         updateUI(true);
+        keyLoads.invalidate();
+        cancelCrawler();
         searchField.setText(""); // 清空搜索框
-
-        TreeItem<RedisKey> rootItem = new TreeItem<>(); // 使用我们新的数据模型
-        keyTreeView.setRoot(rootItem);
+        activeQuery = null;
+        keyIndex = new KeyIndex(); // 未完成的旧扫描仍写入旧索引, 不会混进来
+        indexFrontier = ScanCursor.INITIAL;
+        indexRestored = false;
+        savedIndexModCount = 0;
+
+        keyTreeModel = new KeyTreeModel(newKeyNamespace()); // 使用我们新的数据模型
+        keyTreeView.setRoot(keyTreeModel.getRoot());
         keyTreeView.setShowRoot(false);
 
         scanCursor = ScanCursor.INITIAL;
         loadMoreButton.setDisable(false);
-        loadKeys(false); // 初始加载
     }
 
     /**
      * loadKeys 方法现在能处理追加和清空加载
+     * 每次加载都是 keyLoads 的新一代: 重新加载或搜索会作废之前未完成的页，过期的页不会再发 TYPE，也不会改动游标和 Key 树
      * @param isLoadMore true 表示追加加载, false 表示清空后重新加载
      */
     private void loadKeys(boolean isLoadMore) {
-        if (redisConn == null || scanCursor == null || scanCursor.isFinished()) {
+        if (dataSource == null || scanCursor == null || scanCursor.isFinished()) {
             return;
         }
-
-        String pattern = searchField.getText().trim();
-        if (pattern.isEmpty()) {
-            pattern = "*"; // 默认为 *
+        if (isLoadMore && keyLoads.isBusy()) {
+            return; // 上一页还没回来, 连续点击不重复扫描同一个游标
         }
 
-        // 异步扫描 keys
-        redisConn.scanAsync(scanCursor, pattern, SCAN_COUNT).thenComposeAsync(keyScanCursor -> {
-            scanCursor = keyScanCursor;
-            List<String> keys = keyScanCursor.getKeys();
-
-            if (keys.isEmpty()) {
-                return CompletableFuture.completedFuture(new ArrayList<RedisKey>());
-            }
-
-            List<CompletableFuture<RedisKey>> typeFutures = keys.stream()
-                    .map(key -> redisConn.typeAsync(key)
-                            // 注意：这里只创建了叶子节点的模型，displayPart 暂时用 full name
-                            .thenApply(type -> new RedisKey(key, key, type, true)))
-                    .collect(Collectors.toList());
+        RequestGeneration.Token token = keyLoads.next();
+        RedisDataSource source = dataSource;
+        ScanCursor cursor = scanCursor;
+        String pattern = currentPattern();
+        KeyIndex index = keyIndex;
+        KeyIndex.Query query = activeQuery;
 
-            return CompletableFuture.allOf(typeFutures.toArray(new CompletableFuture[0]))
-                    .thenApply(v -> typeFutures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        // 追加时沿用当前前缀树，重新加载时在后台构建一棵新的
+        KeyNamespace namespace = isLoadMore ? keyTreeModel.getNamespace() : newKeyNamespace();
 
-        }).thenAcceptAsync(leafKeys -> {
-            // 在 JavaFX 线程更新 UI
-            Platform.runLater(() -> {
-                TreeItem<RedisKey> root = keyTreeView.getRoot();
-                if (!isLoadMore) {
-                    root.getChildren().clear(); // 如果不是追加，先清空
+        // 异步扫描 keys
+        token.submit(() -> source.scanAsync(cursor, pattern, SCAN_COUNT)).thenCompose(keyScanCursor -> {
+            List<String> keys = keyScanCursor.getKeys();
+            CompletableFuture<List<String>> types = keys.isEmpty()
+                    ? CompletableFuture.completedFuture(new ArrayList<>())
+                    // 整页 TYPE 命令管道化发送，一次 flush 拿回所有类型
+                    : token.submit(() -> source.typesAsync(keys));
+
+            return types.thenApplyAsync(pageTypes -> {
+                index.addAll(keys, pageTypes);
+                if (!token.isCurrent()) {
+                    throw new CancellationException("key load superseded"); // 不再并入可能已被替换的前缀树
                 }
-
-                // [核心改动] 使用新的方法来构建树
-                for (RedisKey leafKey : leafKeys) {
-                    insertKeyIntoTree(root, leafKey);
+                return namespace.insertAll(toLeafKeys(keys, pageTypes, query));
+            }).thenAccept(change -> ui.post(() -> {
+                // 前缀树已在后台线程构建完毕，FX 线程只刷新已展开的文件夹
+                if (!token.isCurrent()) return; // 已经开始了新的加载或搜索
+                scanCursor = keyScanCursor;
+                advanceIndexFrontier(index, pattern, keyScanCursor);
+                if (!isLoadMore) {
+                    // 如果不是追加，直接换上新的前缀树
+                    keyTreeModel = new KeyTreeModel(namespace);
+                    keyTreeView.setRoot(keyTreeModel.getRoot());
+                    if (liveWatcher != null) {
+                        startLiveWatcher(); // 跟随新的 Key 树和搜索模式
+                    }
+                } else {
+                    keyTreeModel.apply(change);
                 }
 
                 if (scanCursor.isFinished()) {
                     loadMoreButton.setDisable(true);
                 }
-            });
+            }));
         }).exceptionally(ex -> {
-            log.error("扫描 keys 失败: ", ex);
-            // ... (错误处理) ...
+            if (token.isCurrent()) {
+                log.error("扫描 keys 失败: ", ex);
+            }
             return null;
         });
     }
 
+    /**
+     * 将一页 key 和对应的类型组装成叶子节点模型
+     */
+    private static List<RedisKey> toLeafKeys(List<String> keys, List<String> types) {
+        return toLeafKeys(keys, types, null);
+    }
+
+    /**
+     * @param query 只保留匹配的 key, null 表示全部保留
+     */
+    private static List<RedisKey> toLeafKeys(List<String> keys, List<String> types, KeyIndex.Query query) {
+        List<RedisKey> leafKeys = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            if (query != null && !query.matches(keys.get(i))) {
+                continue;
+            }
+            // 注意：这里只创建了叶子节点的模型，displayPart 暂时用 full name
+            leafKeys.add(new RedisKey(keys.get(i), keys.get(i), types.get(i), true));
+        }
+        return leafKeys;
+    }
+
+    /**
+     * 不带 MATCH 的一页已经全部并入索引后，把索引边界推进到这一页之后
+     */
+    private void advanceIndexFrontier(KeyIndex index, String pattern, ScanCursor cursor) {
+        if (!"*".equals(pattern) || index != keyIndex) {
+            return;
+        }
+        boolean completed = cursor.isFinished() && !indexFrontier.isFinished();
+        indexFrontier = cursor;
+        if (completed) {
+            // 完整遍历了一遍 keyspace, 快照里有而这一轮没有出现的 key 已经不在服务器上了
+            List<String> removed = index.sweep();
+            if (!removed.isEmpty()) {
+                log.info("核对完成, 移除 {} 个已不存在的 key", removed.size());
+                KeyTreeModel model = keyTreeModel;
+                model.post(model.getNamespace().removeAll(removed));
+            }
+            saveKeyIndex();
+        }
+    }
+
+    /**
+     * 把当前服务器的 key 索引保存到本地，没有变化时跳过
+     */
+    private void saveKeyIndex() {
+        ServerConfig server = activeServer;
+        KeyIndex index = keyIndex;
+        if (server == null || index.getModCount() == savedIndexModCount) {
+            return;
+        }
+        if (!indexRestored && !indexFrontier.isFinished() && keyIndexStore.exists(server)) {
+            return; // 只扫描了一部分的新索引不覆盖已保存的快照
+        }
+        savedIndexModCount = index.getModCount();
+        keyIndexStore.saveAsync(server, index);
+    }
+
+    /**
+     * 当前搜索在服务端对应的 SCAN MATCH 模式
+     * 正则和模糊搜索无法在服务端表达，返回 * 后由本地过滤 (顺带把扫到的 key 全部并入索引)
+     */
+    private String currentPattern() {
+        String pattern = activeQuery != null ? activeQuery.serverPattern() : null;
+        return pattern != null ? pattern : "*";
+    }
+
+    /**
+     * 删除、导出等直接作用于服务器的批量操作使用的模式
+     * @return 当前搜索无法用 MATCH 表达时提示并返回 null
+     */
+    private String serverPatternOrWarn() {
+        if (activeQuery != null && activeQuery.serverPattern() == null) {
+            new Alert(Alert.AlertType.INFORMATION, activeQuery.getMode() + "搜索无法在服务器上执行, 请改用通配符或包含搜索, 或直接选中要操作的 key。").showAndWait();
+            return null;
+        }
+        return currentPattern();
+    }
+
+    private KeyNamespace newKeyNamespace() {
+        return new KeyNamespace(keyDelimiter());
+    }
+
+    private String keyDelimiter() {
+        return activeServer != null ? activeServer.getKeyDelimiter() : KeyNamespace.DEFAULT_DELIMITER;
+    }
+
+    /**
+     * 后台扫描的限速，离线快照不占用服务器资源，不限速
+     */
+    private int scanOpsPerSecond() {
+        return activeServer != null ? activeServer.getScanOpsPerSecond() : 0;
+    }
+
     @FXML
     private void handleLoadMoreKeys() {
         loadKeys(true); // 追加加载
     }
 
+    /**
+     * 开启或停止后台全量扫描
+     */
+    @FXML
+    private void handleToggleCrawl() {
+        if (crawlButton.isSelected()) {
+            startCrawler();
+        } else if (crawler != null) {
+            crawler.cancel(); // 结束回调里会恢复 "加载更多" 的游标
+        }
+    }
+
+    /**
+     * 从当前游标开始在后台遍历剩余的 keyspace，结果持续并入当前的 Key 树
+     */
+    private void startCrawler() {
+        if (dataSource == null || scanCursor == null || scanCursor.isFinished()) {
+            crawlButton.setSelected(false);
+            return;
+        }
+        keyLoads.invalidate(); // 后台扫描接管游标, 未完成的分页加载作废
+        RedisDataSource conn = dataSource.uncached(); // 遍历整个 keyspace, 不经过缓存和跟踪
+        KeyTreeModel model = keyTreeModel;
+        KeyIndex index = keyIndex;
+        KeyIndex.Query query = activeQuery;
+        String pattern = currentPattern();
+        KeyspaceCrawler newCrawler = new KeyspaceCrawler(conn, pattern, keys -> conn.typesAsync(keys)
+                .thenApplyAsync(types -> {
+                    index.addAll(keys, types);
+                    return model.getNamespace().insertAll(toLeafKeys(keys, types, query));
+                })
+                .thenAccept(model::post));
+        newCrawler.setStartCursor(scanCursor);
+        newCrawler.setOpsPerSecond(scanOpsPerSecond());
+        newCrawler.setListener(new KeyspaceCrawler.Listener() {
+            @Override
+            public void onProgress(long matchedKeys, long examinedKeys, long totalKeys, int count) {
+                ui.post(crawlProgressBar, () -> {
+                    if (crawler != newCrawler) return;
+                    crawlProgressBar.setProgress(totalKeys > 0 ? Math.min(0.99, (double) examinedKeys / totalKeys) : -1);
+                    crawlStatusLabel.setText(String.format("已加载 %d 个 key (COUNT=%d)", model.getNamespace().getKeyCount(), count));
+                });
+            }
+
+            @Override
+            public void onFinished(boolean cancelled, Throwable error) {
+                ui.post(() -> {
+                    if (crawler != newCrawler) return;
+                    crawler = null;
+                    scanCursor = newCrawler.getCursor();
+                    advanceIndexFrontier(index, pattern, scanCursor);
+                    loadMoreButton.setDisable(scanCursor.isFinished());
+                    crawlButton.setSelected(false);
+                    if (error != null) {
+                        log.error("后台扫描失败: ", error);
+                        crawlStatusLabel.setText("扫描失败: " + error.getMessage());
+                    } else {
+                        crawlProgressBar.setProgress(scanCursor.isFinished() ? 1 : crawlProgressBar.getProgress());
+                        crawlStatusLabel.setText(String.format("%s, 共 %d 个 key",
+                                scanCursor.isFinished() ? "扫描完成" : "已暂停", model.getNamespace().getKeyCount()));
+                    }
+                });
+            }
+        });
+
+        crawler = newCrawler;
+        loadMoreButton.setDisable(true);
+        crawlProgressBar.setProgress(-1);
+        crawlStatusLabel.setText("正在扫描...");
+        crawlStatusBox.setVisible(true);
+        crawlStatusBox.setManaged(true);
+        newCrawler.start();
+    }
+
+    /**
+     * 丢弃当前的后台扫描 (切换服务器、刷新、重新搜索时)
+     */
+    private void cancelCrawler() {
+        if (crawler != null) {
+            crawler.cancel();
+            // 已处理完的页都在索引里, 游标之前的部分不必再扫描
+            advanceIndexFrontier(keyIndex, crawler.getPattern(), crawler.getCursor());
+            crawler = null;
+        }
+        crawlButton.setSelected(false);
+        crawlStatusBox.setVisible(false);
+        crawlStatusBox.setManaged(false);
+    }
+
+    /**
+     * 开启或关闭实时更新: 订阅 keyspace 通知，增量地把新增、删除、过期的 key 应用到当前 Key 树
+     * 服务器未开启 notify-keyspace-events 时询问是否开启
+     */
+    @FXML
+    private void handleToggleLive() {
+        if (!liveButton.isSelected()) {
+            stopLiveWatcher();
+            return;
+        }
+        if (redisConn == null) {
+            liveButton.setSelected(false);
+            showReadOnlyAlert();
+            return;
+        }
+        RedisConnection conn = redisConn;
+        conn.keyspaceEventsAsync().whenComplete((flags, ex) -> ui.post(() -> {
+            if (conn != redisConn || !liveButton.isSelected()) return;
+            if (ex != null) {
+                log.warn("读取 notify-keyspace-events 失败, 直接订阅: {}", ex.getMessage());
+                startLiveWatcher();
+                return;
+            }
+            String required = requiredKeyspaceEvents(flags);
+            if (required.equals(flags)) {
+                startLiveWatcher();
+                return;
+            }
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("实时更新");
+            alert.setHeaderText("服务器未开启 keyspace 通知");
+            alert.setContentText(String.format("是否将 notify-keyspace-events 从 '%s' 改为 '%s'？%n开启后服务器每次写入都会额外发布一条通知。", flags, required));
+            Optional<ButtonType> result = alert.showAndWait();
+            if (result.isEmpty() || result.get() != ButtonType.OK) {
+                liveButton.setSelected(false);
+                return;
+            }
+            conn.setKeyspaceEventsAsync(required).whenComplete((v, setEx) -> ui.post(() -> {
+                if (setEx != null) {
+                    log.error("设置 notify-keyspace-events 失败: ", setEx);
+                    liveButton.setSelected(false);
+                    new Alert(Alert.AlertType.ERROR, "设置失败: " + setEx.getMessage()).show();
+                } else if (conn == redisConn && liveButton.isSelected()) {
+                    startLiveWatcher();
+                }
+            }));
+        }));
+    }
+
+    /**
+     * 在现有配置上补齐 K (keyspace 频道) 和 A (全部事件类型)
+     */
+    private static String requiredKeyspaceEvents(String flags) {
+        StringBuilder required = new StringBuilder(flags == null ? "" : flags);
+        if (required.indexOf("K") < 0) {
+            required.append('K');
+        }
+        if (required.indexOf("A") < 0 && !"g$lshzxe".chars().allMatch(c -> required.indexOf(String.valueOf((char) c)) >= 0)) {
+            required.append('A');
+        }
+        return required.toString();
+    }
+
+    /**
+     * 按当前 Key 树和搜索模式 (重新) 订阅
+     */
+    private void startLiveWatcher() {
+        stopLiveWatcher();
+        KeyTreeModel model = keyTreeModel;
+        KeyIndex index = keyIndex;
+        KeyIndex.Query query = activeQuery;
+        // 订阅全部 key 以保持索引准确, 搜索条件只用于过滤 Key 树
+        KeyspaceWatcher watcher = new KeyspaceWatcher(redisConn, "*", new KeyspaceWatcher.Listener() {
+            @Override
+            public void onChanges(List<String> keys, List<String> types, List<String> removedKeys) {
+                index.addAll(keys, types);
+                index.removeAll(removedKeys);
+                KeyNamespace namespace = model.getNamespace();
+                model.post(namespace.insertAll(toLeafKeys(keys, types, query)));
+                model.post(namespace.removeAll(removedKeys));
+            }
+
+            @Override
+            public void onOverflow() {
+                log.warn("keyspace 通知过多, 部分变化已丢弃");
+                ui.post(crawlStatusLabel, () -> {
+                    crawlStatusLabel.setText("通知过多, 部分变化未同步, 建议刷新");
+                    crawlStatusBox.setVisible(true);
+                    crawlStatusBox.setManaged(true);
+                });
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                log.error("订阅 keyspace 通知失败: ", error);
+                ui.post(() -> {
+                    if (liveWatcher == null || !liveWatcher.isStopped()) return; // 已经换成新的订阅
+                    liveButton.setSelected(false);
+                    liveWatcher = null;
+                    new Alert(Alert.AlertType.ERROR, "订阅 keyspace 通知失败: " + error.getMessage()).show();
+                });
+            }
+        });
+        liveWatcher = watcher;
+        watcher.start();
+    }
+
+    private void stopLiveWatcher() {
+        if (liveWatcher != null) {
+            liveWatcher.stop();
+            liveWatcher = null;
+        }
+    }
+
     /**
      * 更新中心区域的UI显示
      * @param connected true 显示 key 视图, false 显示欢迎页
@@ -330,26 +1122,17 @@ public class MainController implements Initializable {
     // --- 您已有的、无需修改的方法 ---
 
     private void loadServerConfigs() {
-        File file = new File(CONFIG_FILE);
-        if (file.exists()) {
-            try (Reader reader = new FileReader(file)) {
-                Type listType = new TypeToken<ArrayList<ServerConfig>>() {}.getType();
-                List<ServerConfig> loaded = gson.fromJson(reader, listType);
-                if (loaded != null) {
-                    serverConfigs.addAll(loaded);
-                }
-            } catch (Exception e) {
-                log.error("加载配置失败: ", e);
-                serverConfigs.clear();
-            }
+        try {
+            serverConfigs.addAll(configStore.load());
+        } catch (Exception e) {
+            log.error("加载配置失败: ", e);
+            serverConfigs.clear();
         }
     }
 
     private void saveServerConfigs() {
-        File dir = new File(DATA_DIR);
-        if (!dir.exists()) dir.mkdirs();
-        try (Writer writer = new FileWriter(CONFIG_FILE)) {
-            gson.toJson(serverConfigs, writer);
+        try {
+            configStore.save(serverConfigs);
         } catch (Exception e) {
             log.error("保存配置失败: ", e);
         }
@@ -360,7 +1143,7 @@ public class MainController implements Initializable {
             @Override
             protected void updateItem(ServerConfig item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty || item == null ? null : item.getHost() + ":" + item.getPort());
+                setText(empty || item == null ? null : item.getHost() + ":" + item.getPort() + (item.isCluster() ? " (集群)" : ""));
             }
         });
     }
@@ -377,12 +1160,19 @@ public class MainController implements Initializable {
         portInput.setPromptText("端口");
         PasswordField passwordInput = new PasswordField();
         passwordInput.setPromptText("密码");
+        TextField delimiterInput = new TextField(KeyNamespace.DEFAULT_DELIMITER);
+        delimiterInput.setPromptText("Key 分隔符");
+        TextField scanOpsInput = new TextField(String.valueOf(KeyspaceCrawler.DEFAULT_OPS_PER_SECOND));
+        scanOpsInput.setPromptText("后台扫描限速 (ops/s)");
+        CheckBox clusterInput = new CheckBox("集群模式 (Redis Cluster)");
+        CheckBox clientCacheInput = new CheckBox("本地缓存 (需要 Redis 6+ RESP3)");
         HBox buttonBox = new HBox(10);
         Button okButton = new Button("确定");
         Button cancelButton = new Button("取消");
         buttonBox.getChildren().addAll(okButton, cancelButton);
-        dialogVBox.getChildren().addAll(new Label("主机:"), hostInput, new Label("端口:"), portInput, new Label("密码:"), passwordInput, buttonBox);
-        Scene dialogScene = new Scene(dialogVBox, 300, 200);
+        dialogVBox.getChildren().addAll(new Label("主机:"), hostInput, new Label("端口:"), portInput, new Label("密码:"), passwordInput, new Label("Key 分隔符:"), delimiterInput,
+                new Label("后台扫描限速 (ops/s):"), scanOpsInput, clusterInput, clientCacheInput, buttonBox);
+        Scene dialogScene = new Scene(dialogVBox, 300, 380);
         dialog.setScene(dialogScene);
         okButton.setOnAction(event -> {
             try {
@@ -391,6 +1181,10 @@ public class MainController implements Initializable {
                 String password = passwordInput.getText().trim();
                 String encryptedPw = EncryptionUtil.encrypt(password);
                 ServerConfig newConfig = new ServerConfig(host, port, encryptedPw);
+                newConfig.setKeyDelimiter(delimiterInput.getText());
+                newConfig.setScanOpsPerSecond(Integer.parseInt(scanOpsInput.getText().trim()));
+                newConfig.setCluster(clusterInput.isSelected());
+                newConfig.setClientCacheMegabytes(clientCacheInput.isSelected() ? CachingDataSource.DEFAULT_MAX_MEGABYTES : 0);
                 serverConfigs.add(newConfig);
                 saveServerConfigs();
                 connectToServer(newConfig);
@@ -410,6 +1204,8 @@ public class MainController implements Initializable {
     @FXML
     private void handleRefreshKeys() {
         keyContentView.setVisible(false);
+        cancelCrawler();
+        saveKeyIndex(); // 丢弃之前先保存, 新的索引要扫描完整后才会覆盖它
         initializeKeyView();
     }
 
@@ -419,14 +1215,71 @@ public class MainController implements Initializable {
     @FXML
     private void handleSearchKeys() {
         if (keyTreeView.getRoot() == null) return;
-        log.info("按模式 '{}' 搜索 keys...", searchField.getText());
-        scanCursor = ScanCursor.INITIAL; // 重置游标从头开始搜索
-        loadMoreButton.setDisable(false); // 重新启用加载按钮
-        loadKeys(false); // 清空并加载
+        String text = searchField.getText().trim();
+        KeyIndex.Query query;
+        try {
+            query = text.isEmpty() ? null : KeyIndex.Query.of(searchModeBox.getValue(), text, caseSensitiveButton.isSelected());
+        } catch (PatternSyntaxException e) {
+            new Alert(Alert.AlertType.ERROR, "正则表达式无效: " + e.getDescription()).show();
+            return;
+        }
+        log.info("按{} '{}' 在本地索引中搜索 keys...", searchModeBox.getValue(), text);
+        cancelCrawler();
+        activeQuery = query;
+
+        // 先在本地索引中并行搜索并在后台建好前缀树, 索引未覆盖的部分再交给服务器
+        // 新的搜索作废之前的搜索和未完成的分页加载
+        RequestGeneration.Token token = keyLoads.next();
+        KeyIndex index = keyIndex;
+        KeyNamespace namespace = newKeyNamespace();
+        token.submit(() -> index.searchAsync(query, MAX_SEARCH_RESULTS)).thenApplyAsync(result -> {
+            namespace.insertAll(toLeafKeys(result.getKeys(), result.getTypes()));
+            return result;
+        }).thenAccept(result -> ui.post(() -> {
+            if (!token.isCurrent() || keyIndex != index) return; // 已经开始了新的搜索, 或索引已被恢复的快照替换
+            keyTreeModel = new KeyTreeModel(namespace);
+            keyTreeView.setRoot(keyTreeModel.getRoot());
+            scanCursor = indexFrontier;
+            loadMoreButton.setDisable(scanCursor.isFinished());
+            showSearchStatus(query, result);
+            if (liveWatcher != null) {
+                startLiveWatcher(); // 跟随新的 Key 树和搜索条件
+            }
+            if (!scanCursor.isFinished() && (query != null || result.getKeys().isEmpty())) {
+                loadKeys(true); // 从索引边界开始在服务器上继续查找
+            }
+        })).exceptionally(ex -> {
+            if (token.isCurrent()) {
+                log.error("搜索 keys 失败: ", ex);
+            }
+            return null;
+        });
+    }
+
+    private void showSearchStatus(KeyIndex.Query query, KeyIndex.Result result) {
+        if (query == null && scanCursor.isFinished()) {
+            crawlStatusBox.setVisible(false);
+            crawlStatusBox.setManaged(false);
+            return;
+        }
+        String status = query == null
+                ? String.format("本地已索引 %,d 个 key", result.getSearchedKeys())
+                : String.format("本地 %,d 个 key 中匹配 %,d 个", result.getSearchedKeys(), result.getTotalMatches());
+        if (result.isTruncated()) {
+            status += String.format(", 只显示前 %,d 个", result.getKeys().size());
+        }
+        if (!scanCursor.isFinished()) {
+            status += ", 其余 key 尚未索引, 可加载更多或全量扫描";
+        }
+        crawlProgressBar.setProgress(scanCursor.isFinished() ? 1 : 0);
+        crawlStatusLabel.setText(status);
+        crawlStatusBox.setVisible(true);
+        crawlStatusBox.setManaged(true);
     }
 
     /**
      * 处理删除按钮点击事件
+     * 选中的 key 直接 UNLINK，选中的文件夹会扫描并删除其下的全部 key
      */
     @FXML
     private void handleDeleteKeys() {
@@ -435,30 +1288,333 @@ public class MainController implements Initializable {
             log.warn("没有选择任何 key 进行删除。");
             return;
         }
+        if (redisConn == null) {
+            showReadOnlyAlert();
+            return;
+        }
+
+        List<String> keysToDelete = new ArrayList<>();
+        List<BulkDeleteJob> jobs = new ArrayList<>();
+        for (TreeItem<RedisKey> item : selectedItems) {
+            RedisKey key = item.getValue();
+            if (key.isLeaf()) {
+                keysToDelete.add(key.getFullKeyName());
+            } else {
+                jobs.add(new BulkDeleteJob(redisConn, BulkDeleteJob.folderPattern(key.getFullKeyName(), keyDelimiter())));
+            }
+        }
+
+        if (jobs.isEmpty()) {
+            // 确认对话框
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("确认删除");
+            alert.setHeaderText("您确定要删除选中的 " + keysToDelete.size() + " 个 key 吗？");
+            alert.setContentText("此操作不可恢复！");
+            Optional<ButtonType> result = alert.showAndWait();
+            if (result.isPresent() && result.get() == ButtonType.OK) {
+                deleteKeys(keysToDelete);
+            }
+            return;
+        }
+
+        String header = keysToDelete.isEmpty()
+                ? "您确定要删除选中的 " + jobs.size() + " 个文件夹下的全部 key 吗？"
+                : "您确定要删除选中的 " + keysToDelete.size() + " 个 key 以及 " + jobs.size() + " 个文件夹下的全部 key 吗？";
+        if (confirmBulkDelete(header, jobs)) {
+            runBulkDelete(keysToDelete, jobs);
+        }
+    }
+
+    /**
+     * 删除当前搜索模式匹配的全部 key
+     */
+    @FXML
+    private void handleDeleteByPattern() {
+        if (keyTreeModel == null) return;
+        if (redisConn == null) {
+            showReadOnlyAlert();
+            return;
+        }
+        String pattern = serverPatternOrWarn();
+        if (pattern == null) return;
+        List<BulkDeleteJob> jobs = List.of(new BulkDeleteJob(redisConn, pattern));
+        String header = "*".equals(pattern)
+                ? "您确定要删除当前库的全部 key 吗？"
+                : "您确定要删除匹配 '" + pattern + "' 的全部 key 吗？";
+        if (confirmBulkDelete(header, jobs)) {
+            runBulkDelete(List.of(), jobs);
+        }
+    }
+
+    /**
+     * 打开内存分析窗口，按当前搜索模式统计各前缀的内存占用
+     */
+    @FXML
+    private void handleMemoryAnalyzer() {
+        if (dataSource == null) return;
+        String title = activeServer != null ? activeServer.getHost() + ":" + activeServer.getPort() : snapshot.getFile().getFileName().toString();
+        String pattern = serverPatternOrWarn();
+        if (pattern == null) return;
+        MemoryAnalyzerWindow window = new MemoryAnalyzerWindow(dataSource.uncached(), pattern, keyDelimiter(), scanOpsPerSecond(), title);
+        window.show();
+    }
+
+    /**
+     * 打开当前服务器的状态面板
+     */
+    @FXML
+    private void handleDashboard() {
+        if (redisConn == null) {
+            new Alert(Alert.AlertType.INFORMATION, "请先连接到 Redis 服务器。").showAndWait();
+            return;
+        }
+        new DashboardWindow(redisConn, activeServer.getHost() + ":" + activeServer.getPort()).show();
+    }
+
+    /**
+     * 打开当前连接的客户端侧命令延迟统计
+     */
+    @FXML
+    private void handleLatencyStats() {
+        if (redisConn == null) {
+            new Alert(Alert.AlertType.INFORMATION, "请先连接到 Redis 服务器。").showAndWait();
+            return;
+        }
+        new LatencyWindow(redisConn, activeServer.getHost() + ":" + activeServer.getPort()).show();
+    }
 
-        // 确认对话框
+    /**
+     * 导出 key 到本地文件 (DUMP + PTTL)
+     * 有选中项时导出选中的 key 和文件夹，否则导出当前搜索模式匹配的全部 key
+     */
+    @FXML
+    private void handleExportKeys() {
+        if (keyTreeModel == null) return;
+        if (redisConn == null) {
+            new Alert(Alert.AlertType.INFORMATION, "导出需要连接到 Redis 服务器。").showAndWait();
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        for (TreeItem<RedisKey> item : keyTreeView.getSelectionModel().getSelectedItems()) {
+            RedisKey key = item.getValue();
+            if (key.isLeaf()) {
+                keys.add(key.getFullKeyName());
+            } else {
+                patterns.add(BulkDeleteJob.folderPattern(key.getFullKeyName(), keyDelimiter()));
+            }
+        }
+        if (keys.isEmpty() && patterns.isEmpty()) {
+            String pattern = serverPatternOrWarn();
+            if (pattern == null) return;
+            patterns.add(pattern);
+        }
+
+        CheckBox compressBox = new CheckBox("压缩");
+        compressBox.setSelected(true);
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-        alert.setTitle("确认删除");
-        alert.setHeaderText("您确定要删除选中的 " + selectedItems.size() + " 个 key 吗？");
-        alert.setContentText("此操作不可恢复！");
+        alert.setTitle("导出");
+        alert.setHeaderText(keys.isEmpty()
+                ? "导出匹配 " + String.join(", ", patterns) + " 的全部 key"
+                : "导出选中的 " + keys.size() + " 个 key" + (patterns.isEmpty() ? "" : " 以及 " + patterns.size() + " 个文件夹"));
+        alert.getDialogPane().setContent(compressBox);
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("导出到");
+        chooser.setInitialFileName("redis-export.rctdump");
+        File file = chooser.showSaveDialog(keyTreeView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        ExportJob job = new ExportJob(redisConn, keys, patterns, file.toPath(), compressBox.isSelected());
+        job.setOpsPerSecond(scanOpsPerSecond());
+        TaskProgressDialog dialog = new TaskProgressDialog(keyTreeView.getScene().getWindow(), "导出");
+        dialog.setOnCancel(job::cancel);
+        job.setListener(new ExportJob.Listener() {
+            @Override
+            public void onProgress(long exportedKeys, String currentPattern) {
+                ui.post(dialog, () -> dialog.update(-1, String.format("已导出 %,d 个 key%s", exportedKeys,
+                        currentPattern != null ? ", 正在遍历 " + currentPattern : "")));
+            }
+
+            @Override
+            public void onFinished(boolean cancelled, Throwable error) {
+                ui.post(() -> {
+                    if (error != null) {
+                        log.error("导出失败: ", error);
+                        dialog.finish("导出失败: " + error.getMessage());
+                    } else {
+                        dialog.finish(cancelled ? "已取消, 文件中只包含部分 key" : "导出完成: " + file.getName());
+                    }
+                });
+            }
+        });
+        job.start();
+        dialog.show();
+    }
+
+    /**
+     * 把导出文件恢复到当前服务器 (RESTORE)
+     */
+    @FXML
+    private void handleImportKeys() {
+        if (keyTreeModel == null) return;
+        if (redisConn == null) {
+            showReadOnlyAlert();
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("选择导出文件");
+        File file = chooser.showOpenDialog(keyTreeView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        CheckBox replaceBox = new CheckBox("覆盖已存在的 key (REPLACE)");
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("导入");
+        alert.setHeaderText("把 " + file.getName() + " 导入到当前数据库？");
+        alert.getDialogPane().setContent(replaceBox);
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            return;
+        }
+
+        RedisConnection target = redisConn;
+        ImportJob job = new ImportJob(target, file.toPath(), replaceBox.isSelected());
+        TaskProgressDialog dialog = new TaskProgressDialog(keyTreeView.getScene().getWindow(), "导入");
+        dialog.setOnCancel(job::cancel);
+        job.setListener(new ImportJob.Listener() {
+            @Override
+            public void onProgress(long importedKeys, long failedKeys) {
+                ui.post(dialog, () -> dialog.update(-1, String.format("已导入 %,d 个 key, 失败 %,d 个", importedKeys, failedKeys)));
+            }
+
+            @Override
+            public void onFinished(boolean cancelled, Throwable error, Throwable firstError) {
+                if (firstError != null) {
+                    log.warn("部分 key 导入失败, 第一个错误: {}", firstError.getMessage());
+                }
+                ui.post(() -> {
+                    if (error != null) {
+                        log.error("导入失败: ", error);
+                        dialog.finish("导入失败: " + error.getMessage());
+                    } else {
+                        dialog.finish((cancelled ? "已取消" : "导入完成")
+                                + (firstError != null ? ", 部分 key 失败: " + firstError.getMessage() : ""));
+                    }
+                    if (target == redisConn) {
+                        handleRefreshKeys(); // 导入期间切换了服务器时不刷新新服务器的 Key 树
+                    }
+                });
+            }
+        });
+        job.start();
+        dialog.show();
+    }
+
+    private void deleteKeys(List<String> keysToDelete) {
+        KeyTreeModel model = keyTreeModel;
+        KeyIndex index = keyIndex;
+        // 异步删除，UNLINK 不会因为大 key 阻塞服务器
+        redisConn.unlinkAsync(keysToDelete, BulkDeleteJob.DEFAULT_BATCH_SIZE).thenApplyAsync(deletedCount -> {
+            log.info("成功删除了 {} 个 keys。", deletedCount);
+            index.removeAll(keysToDelete);
+            return model.getNamespace().removeAll(keysToDelete);
+        }).thenAccept(change -> {
+            // 在 UI 线程移除对应节点
+            model.post(change);
+        }).exceptionally(ex -> {
+            log.error("删除 keys 失败: ", ex);
+            ui.post(() -> new Alert(Alert.AlertType.ERROR, "删除失败: " + ex.getMessage()).show());
+            return null;
+        });
+    }
 
+    /**
+     * 批量删除的确认对话框，可以调整每批 UNLINK 的 key 数和限速
+     */
+    private boolean confirmBulkDelete(String header, List<BulkDeleteJob> jobs) {
+        TextField batchSizeInput = new TextField(String.valueOf(BulkDeleteJob.DEFAULT_BATCH_SIZE));
+        TextField rateInput = new TextField(String.valueOf(BulkDeleteJob.DEFAULT_KEYS_PER_SECOND));
+        VBox content = new VBox(5, new Label("此操作不可恢复！"),
+                new Label("每条 UNLINK 的 key 数:"), batchSizeInput,
+                new Label("限速 (key/s, 0 表示不限速):"), rateInput);
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("确认删除");
+        alert.setHeaderText(header);
+        alert.getDialogPane().setContent(content);
         Optional<ButtonType> result = alert.showAndWait();
-        if (result.isPresent() && result.get() == ButtonType.OK) {
-            String[] keysToDelete = selectedItems.stream()
-                    .map(item -> item.getValue().getFullKeyName())
-                    .toArray(String[]::new);
-
-            // 异步删除
-            redisConn.delAsync(keysToDelete).thenAcceptAsync(deletedCount -> {
-                log.info("成功删除了 {} 个 keys。", deletedCount);
-                // 在 UI 线程移除对应节点
-                Platform.runLater(() -> keyTreeView.getRoot().getChildren().removeAll(selectedItems));
-            }).exceptionally(ex -> {
-                log.error("删除 keys 失败: ", ex);
-                // ... (错误处理) ...
-                return null;
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            return false;
+        }
+        try {
+            int batchSize = Integer.parseInt(batchSizeInput.getText().trim());
+            int keysPerSecond = Integer.parseInt(rateInput.getText().trim());
+            for (BulkDeleteJob job : jobs) {
+                job.setBatchSize(batchSize);
+                job.setKeysPerSecond(keysPerSecond);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("批量删除参数无效, 使用默认值: {}", e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * 依次执行删除任务，期间显示进度并同步更新 Key 树
+     */
+    private void runBulkDelete(List<String> keysToDelete, List<BulkDeleteJob> jobs) {
+        RedisConnection conn = redisConn;
+        KeyTreeModel model = keyTreeModel;
+        KeyIndex index = keyIndex;
+        TaskProgressDialog dialog = new TaskProgressDialog(keyTreeView.getScene().getWindow(), "批量删除");
+        dialog.setOnCancel(() -> jobs.forEach(BulkDeleteJob::cancel));
+        AtomicLong deletedBefore = new AtomicLong();
+
+        CompletableFuture<Void> chain = conn.unlinkAsync(keysToDelete, BulkDeleteJob.DEFAULT_BATCH_SIZE)
+                .thenAccept(deleted -> {
+                    deletedBefore.addAndGet(deleted);
+                    index.removeAll(keysToDelete);
+                    model.post(model.getNamespace().removeAll(keysToDelete));
+                });
+        for (int i = 0; i < jobs.size(); i++) {
+            BulkDeleteJob job = jobs.get(i);
+            String step = jobs.size() > 1 ? String.format(" (%d/%d)", i + 1, jobs.size()) : "";
+            job.setListener(new BulkDeleteJob.Listener() {
+                @Override
+                public void onDeleted(List<String> keys) {
+                    index.removeAll(keys);
+                    model.post(model.getNamespace().removeAll(keys));
+                }
+
+                @Override
+                public void onProgress(long deletedKeys, long examinedKeys, long totalKeys) {
+                    long deleted = deletedBefore.get() + deletedKeys;
+                    ui.post(dialog, () -> dialog.update(totalKeys > 0 ? Math.min(0.99, (double) examinedKeys / totalKeys) : -1,
+                            String.format("正在删除 %s%s, 已删除 %,d 个 key", job.getPattern(), step, deleted)));
+                }
             });
+            chain = chain.thenCompose(v -> job.start()).thenRun(() -> deletedBefore.addAndGet(job.getDeletedKeys()));
         }
+
+        chain.whenComplete((v, ex) -> ui.post(() -> {
+            boolean cancelled = jobs.stream().anyMatch(BulkDeleteJob::isCancelled);
+            if (ex != null) {
+                log.error("批量删除失败: ", ex);
+                dialog.finish(String.format("删除失败: %s (已删除 %,d 个 key)", ex.getMessage(), deletedBefore.get()));
+            } else {
+                log.info("批量删除{}, 共删除 {} 个 key", cancelled ? "已取消" : "完成", deletedBefore.get());
+                dialog.finish(String.format("%s, 共删除 %,d 个 key", cancelled ? "已取消" : "删除完成", deletedBefore.get()));
+            }
+        }));
+        dialog.show();
     }
 
 
@@ -470,80 +1626,33 @@ public class MainController implements Initializable {
 
     @FXML
     private void handleContentLoadMore() {
-        if (activeKey == null) return;
-        String type = activeKey.getKeyType().toLowerCase();
-        if ("list".equals(type)) {
-            loadListContent(true);
-        } else if ("hash".equals(type)) {
+        if (activeKey == null || contentLoads.isBusy()) return; // 上一页还没回来, 不重复读取同一个游标
+        if ("hash".equalsIgnoreCase(activeKey.getKeyType())) {
             loadHashContent(true);
+        } else if ("set".equalsIgnoreCase(activeKey.getKeyType())) {
+            loadSetContent(true);
         }
     }
 
     @FXML
     private void handleContentDelete() {
         if (activeKey == null) return;
+        if (redisConn == null) {
+            showReadOnlyAlert();
+            return;
+        }
         String type = activeKey.getKeyType().toLowerCase();
 
         if ("hash".equals(type)) {
             HashEntry selected = hashContentView.getSelectionModel().getSelectedItem();
             if (selected != null) {
                 // ... (此处可加确认对话框) ...
-                redisConn.hdelAsync(activeKey.getFullKeyName(), selected.getField()).thenAccept(res -> {
-                    if (res > 0) Platform.runLater(() -> hashContentView.getItems().remove(selected));
+                redisConn.hdelBytesAsync(activeKey.getFullKeyName(), selected.getField()).thenAccept(res -> {
+                    if (res > 0) ui.post(() -> hashContentView.getItems().remove(selected));
                 });
             }
         }
         // ... 此处可扩展 List, Set 等类型的删除逻辑 (e.g., LREM, SREM) ...
     }
 
-    /**
-     * [新增] 核心方法：将一个完整的 key 插入到 TreeView 的正确位置
-     * @param root TreeView 的根节点
-     * @param leafKey 代表一个真实 Redis Key 的对象
-     */
-    private void insertKeyIntoTree(TreeItem<RedisKey> root, RedisKey leafKey) {
-        String fullKeyName = leafKey.getFullKeyName();
-        String[] parts = fullKeyName.split(":");
-
-        // 如果 key 不含 ':', 直接加到 root 下
-        if (parts.length <= 1) {
-            root.getChildren().add(new TreeItem<>(leafKey));
-            return;
-        }
-
-        TreeItem<RedisKey> currentNode = root;
-        String currentPath = "";
-
-        // 遍历所有父路径部分 (除了最后一部分)
-        for (int i = 0; i < parts.length - 1; i++) {
-            String part = parts[i];
-            currentPath = currentPath.isEmpty() ? part : currentPath + ":" + part;
-
-            // 查找是否已存在该父节点
-            TreeItem<RedisKey> foundNode = null;
-            for (TreeItem<RedisKey> child : currentNode.getChildren()) {
-                if (child.getValue().getDisplayPart().equals(part)) {
-                    foundNode = child;
-                    break;
-                }
-            }
-
-            // 如果不存在，创建一个新的虚拟父节点
-            if (foundNode == null) {
-                // 父节点也带上类型，这样显示为 "[HASH] USER"
-                RedisKey folderKey = new RedisKey(currentPath, part, leafKey.getKeyType(), false);
-                TreeItem<RedisKey> newFolderNode = new TreeItem<>(folderKey);
-                currentNode.getChildren().add(newFolderNode);
-                currentNode = newFolderNode;
-            } else {
-                currentNode = foundNode;
-            }
-        }
-
-        // 添加最后的叶子节点
-        String lastPart = parts[parts.length - 1];
-        RedisKey finalLeafKey = new RedisKey(fullKeyName, lastPart, leafKey.getKeyType(), true);
-        currentNode.getChildren().add(new TreeItem<>(finalLeafKey));
-    }
-
 }
\ No newline at end of file
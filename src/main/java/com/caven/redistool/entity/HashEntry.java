@@ -1,22 +1,26 @@
 package com.caven.redistool.entity;
 
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import java.nio.charset.StandardCharsets;
 
-public class HashEntry {
-    private final StringProperty field = new SimpleStringProperty();
-    private final StringProperty value = new SimpleStringProperty();
+/**
+ * Hash 内容的一行
+ * 不可变的紧凑结构，只持有字段和值的原始字节；
+ * 显示用的文本和 JavaFX 属性由表格在单元格可见时临时生成，不随行常驻内存。
+ */
+public final class HashEntry {
+    private final byte[] field;
+    private final byte[] value;
 
     public HashEntry(String field, String value) {
-        setField(field);
-        setValue(value);
+        this(field.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
     }
 
-    public String getField() { return field.get(); }
-    public void setField(String value) { this.field.set(value); }
-    public StringProperty fieldProperty() { return field; }
+    public HashEntry(byte[] field, byte[] value) {
+        this.field = field;
+        this.value = value;
+    }
+
+    public byte[] getField() { return field; }
 
-    public String getValue() { return value.get(); }
-    public void setValue(String value) { this.value.set(value); }
-    public StringProperty valueProperty() { return value; }
+    public byte[] getValue() { return value; }
 }
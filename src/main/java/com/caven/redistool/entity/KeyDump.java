@@ -0,0 +1,28 @@
+package com.caven.redistool.entity;
+
+/**
+ * 一个 key 的 DUMP 序列化结果，用于导出和导入
+ */
+public final class KeyDump {
+    private final String key;
+    private final long ttlMillis; // 剩余存活时间, 0 表示永不过期
+    private final byte[] payload; // DUMP 返回的序列化数据
+
+    public KeyDump(String key, long ttlMillis, byte[] payload) {
+        this.key = key;
+        this.ttlMillis = ttlMillis;
+        this.payload = payload;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
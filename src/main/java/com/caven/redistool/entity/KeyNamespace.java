@@ -0,0 +1,287 @@
+package com.caven.redistool.entity;
+
+import com.caven.redistool.config.ServerConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Key 命名空间前缀树
+ * 按分隔符把 key 拆成层级，子节点用 HashMap 查找，插入一个 key 的代价只与层级数有关。
+ * 文件夹路径片段统一驻留，所有方法都是同步的，可以在非 FX 线程上构建。
+ */
+public class KeyNamespace {
+    public static final String DEFAULT_DELIMITER = ServerConfig.DEFAULT_KEY_DELIMITER;
+
+    private final String delimiter;
+    private final Node root = new Node(null, "");
+    private final Map<String, String> segmentPool = new HashMap<>(); // 文件夹片段和类型字符串的驻留池
+    private long keyCount;
+
+    public KeyNamespace() {
+        this(DEFAULT_DELIMITER);
+    }
+
+    public KeyNamespace(String delimiter) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("delimiter must not be empty");
+        }
+        this.delimiter = delimiter;
+    }
+
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public synchronized long getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * 批量插入一页 key
+     * @param keys 真实的 Redis key (fullKeyName + keyType)
+     * @return 本次新增的节点，供 UI 增量更新
+     */
+    public synchronized Change insertAll(List<RedisKey> keys) {
+        Change change = new Change();
+        for (RedisKey key : keys) {
+            insert(key.getFullKeyName(), key.getKeyType(), change);
+        }
+        return change;
+    }
+
+    /**
+     * 只创建 key 所在的各级文件夹，不记录 key 本身
+     * 用于只关心前缀汇总的场景 (如内存分析)，避免为海量叶子节点分配内存。
+     * @return key 的直接父文件夹, 没有分隔符时为根节点
+     */
+    public synchronized Node addFolders(String fullKeyName, String keyType) {
+        return insertFolders(fullKeyName, intern(keyType), new Change());
+    }
+
+    /**
+     * 节点下是否还有子节点
+     */
+    public synchronized boolean hasChildren(Node node) {
+        return node.children != null && !node.children.isEmpty();
+    }
+
+    private void insert(String fullKeyName, String keyType, Change change) {
+        String type = intern(keyType);
+        Node current = insertFolders(fullKeyName, type, change);
+        // 最后一个分隔符之后的部分是 key 本身
+        int start = 0;
+        int index;
+        while ((index = fullKeyName.indexOf(delimiter, start)) >= 0) {
+            start = index + delimiter.length();
+        }
+
+        String lastPart = fullKeyName.substring(start);
+        Node leaf = current.child(lastPart);
+        if (leaf == null) {
+            leaf = current.addChild(lastPart);
+        }
+        if (leaf.keyType == null) {
+            keyCount++;
+            change.addedKeys.add(leaf);
+        }
+        leaf.keyType = type;
+    }
+
+    private Node insertFolders(String fullKeyName, String type, Change change) {
+        Node current = root;
+        int start = 0;
+        int index;
+        // 逐层查找或创建文件夹节点 (最后一段之前的所有片段)
+        while ((index = fullKeyName.indexOf(delimiter, start)) >= 0) {
+            String part = fullKeyName.substring(start, index);
+            Node child = current.child(part);
+            if (child == null) {
+                child = current.addChild(intern(part));
+            }
+            if (child.folderType == null) {
+                // 父节点也带上类型，这样显示为 "[HASH] USER"
+                child.folderType = type;
+                change.addedFolders.add(child);
+            }
+            current = child;
+            start = index + delimiter.length();
+        }
+        return current;
+    }
+
+    /**
+     * 批量移除 key，并逐级清理已经没有子节点的文件夹
+     * @param fullKeyNames 要移除的完整 key
+     * @return 本次移除的节点，供 UI 增量更新
+     */
+    public synchronized Change removeAll(Collection<String> fullKeyNames) {
+        Change change = new Change();
+        for (String fullKeyName : fullKeyNames) {
+            Node node = find(fullKeyName);
+            if (node == null || node.keyType == null) {
+                continue;
+            }
+            node.keyType = null;
+            keyCount--;
+            change.removedKeys.add(node);
+
+            Node current = node;
+            while (current != root) {
+                boolean empty = current.children == null || current.children.isEmpty();
+                if (empty && current.folderType != null) {
+                    current.folderType = null;
+                    change.removedFolders.add(current);
+                }
+                if (!empty || current.keyType != null) {
+                    break;
+                }
+                current.parent.children.remove(current.segment);
+                current = current.parent;
+            }
+        }
+        return change;
+    }
+
+    private Node find(String fullKeyName) {
+        Node current = root;
+        int start = 0;
+        int index;
+        while ((index = fullKeyName.indexOf(delimiter, start)) >= 0) {
+            current = current.child(fullKeyName.substring(start, index));
+            if (current == null) {
+                return null;
+            }
+            start = index + delimiter.length();
+        }
+        return current.child(fullKeyName.substring(start));
+    }
+
+    /**
+     * 取某个节点当前所有子节点的快照
+     */
+    public synchronized List<Node> childrenOf(Node node) {
+        return node.children == null ? new ArrayList<>() : new ArrayList<>(node.children.values());
+    }
+
+    /**
+     * 由节点还原完整的 key (或文件夹路径)
+     */
+    public synchronized String fullPath(Node node) {
+        if (node == root) {
+            return "";
+        }
+        List<String> parts = new ArrayList<>();
+        for (Node n = node; n != root; n = n.parent) {
+            parts.add(n.segment);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            sb.append(parts.get(i));
+            if (i > 0) {
+                sb.append(delimiter);
+            }
+        }
+        return sb.toString();
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = segmentPool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    /**
+     * 前缀树节点
+     * 一个节点既可以是文件夹 (folderType != null)，也可以是真实 key (keyType != null)，或者两者都是。
+     */
+    public static final class Node {
+        private final Node parent;
+        private final String segment;
+        private Map<String, Node> children; // 懒创建，叶子节点不占用 HashMap
+        private String keyType;             // 真实 key 的类型, null 表示不是真实 key
+        private String folderType;          // 文件夹显示的类型, null 表示不是文件夹
+
+        private Node(Node parent, String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        private Node child(String part) {
+            return children == null ? null : children.get(part);
+        }
+
+        private Node addChild(String part) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node node = new Node(this, part);
+            children.put(part, node);
+            return node;
+        }
+
+        public Node getParent() {
+            return parent;
+        }
+
+        public String getSegment() {
+            return segment;
+        }
+
+        public String getKeyType() {
+            return keyType;
+        }
+
+        public String getFolderType() {
+            return folderType;
+        }
+
+        public boolean isKey() {
+            return keyType != null;
+        }
+
+        public boolean isFolder() {
+            return folderType != null;
+        }
+    }
+
+    /**
+     * 一次插入或移除产生的节点变化
+     * addedFolders 按创建顺序排列，父文件夹总在子文件夹之前。
+     */
+    public static final class Change {
+        private final List<Node> addedFolders = new ArrayList<>();
+        private final List<Node> addedKeys = new ArrayList<>();
+        private final List<Node> removedFolders = new ArrayList<>();
+        private final List<Node> removedKeys = new ArrayList<>();
+
+        public List<Node> getAddedFolders() {
+            return addedFolders;
+        }
+
+        public List<Node> getAddedKeys() {
+            return addedKeys;
+        }
+
+        public List<Node> getRemovedFolders() {
+            return removedFolders;
+        }
+
+        public List<Node> getRemovedKeys() {
+            return removedKeys;
+        }
+
+        public boolean isEmpty() {
+            return addedFolders.isEmpty() && addedKeys.isEmpty() && removedFolders.isEmpty() && removedKeys.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.utils.GlobMatcher;
+import com.caven.redistool.utils.RedisConnection;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按模式批量删除 key
+ * 用 KeyspaceCrawler 逐页 SCAN 匹配的 key，每页按 batchSize 拆成多条 UNLINK 流水线发送，
+ * 本页删除完成后才扫描下一页，因此在途的命令数有上限。
+ * 限速按每秒删除的 key 数计算 (每页额外计 1 次 SCAN)。
+ */
+public class BulkDeleteJob {
+
+    /**
+     * 进度回调，在 Redis I/O 线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        /**
+         * 一页 key 已删除，用于同步本地的 Key 树
+         */
+        default void onDeleted(List<String> keys) {
+        }
+
+        /**
+         * @param deletedKeys 已删除的 key 数
+         * @param examinedKeys 已遍历的 key 数估计
+         * @param totalKeys 开始时的 DBSIZE, 未知时为 -1
+         */
+        default void onProgress(long deletedKeys, long examinedKeys, long totalKeys) {
+        }
+
+        default void onFinished(boolean cancelled, Throwable error) {
+        }
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_KEYS_PER_SECOND = 20000;
+
+    private final RedisConnection connection;
+    private final String pattern;
+    private final AtomicLong deletedKeys = new AtomicLong();
+
+    private Listener listener = new Listener() {};
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int keysPerSecond = DEFAULT_KEYS_PER_SECOND;
+    private KeyspaceCrawler crawler;
+    private volatile boolean cancelled;
+
+    public BulkDeleteJob(RedisConnection connection, String pattern) {
+        this.connection = connection;
+        this.pattern = pattern;
+    }
+
+    /**
+     * 删除某个文件夹下全部 key 的匹配模式，文件夹名中的通配符会被转义
+     */
+    public static String folderPattern(String folderPath, String delimiter) {
+        return GlobMatcher.escape(folderPath + delimiter) + "*";
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @param keysPerSecond 每秒删除的 key 数上限, 小于等于 0 表示不限速
+     */
+    public void setKeysPerSecond(int keysPerSecond) {
+        this.keysPerSecond = keysPerSecond;
+    }
+
+    public long getDeletedKeys() {
+        return deletedKeys.get();
+    }
+
+    public synchronized CompletableFuture<Void> start() {
+        if (crawler != null) {
+            return crawler.getCompletion();
+        }
+        crawler = new KeyspaceCrawler(connection, pattern, keys -> connection.unlinkAsync(keys, batchSize)
+                .thenAccept(removed -> {
+                    deletedKeys.addAndGet(removed);
+                    listener.onDeleted(keys);
+                }));
+        crawler.setOpsPerSecond(keysPerSecond);
+        // 每页的 key 数不超过几个批次，避免单页堆积过多在途命令
+        crawler.setCountRange(Math.min(batchSize, 100), batchSize * 10);
+        crawler.setListener(new KeyspaceCrawler.Listener() {
+            @Override
+            public void onProgress(long matchedKeys, long examinedKeys, long totalKeys, int count) {
+                listener.onProgress(deletedKeys.get(), examinedKeys, totalKeys);
+            }
+
+            @Override
+            public void onFinished(boolean crawlerCancelled, Throwable error) {
+                listener.onFinished(crawlerCancelled, error);
+            }
+        });
+        if (cancelled) {
+            crawler.cancel();
+        }
+        return crawler.start();
+    }
+
+    /**
+     * 取消任务，当前这一页删除完成后停止
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (crawler != null) {
+            crawler.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,146 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.entity.KeyDump;
+import com.caven.redistool.utils.DumpArchiveWriter;
+import com.caven.redistool.utils.RedisConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 把选中的 key 和匹配模式的 key 导出到本地文件
+ * 先导出明确选中的 key，再用 KeyspaceCrawler 依次遍历每个模式；每页流水线发送 DUMP + PTTL，
+ * 写入文件完成后才请求下一页，因此同一时刻只有一页数据在内存中。
+ * 写文件在专用线程上进行，不占用 Redis I/O 线程。
+ */
+public class ExportJob {
+
+    /**
+     * 进度回调，在后台线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        default void onProgress(long exportedKeys, String currentPattern) {
+        }
+
+        default void onFinished(boolean cancelled, Throwable error) {
+        }
+    }
+
+    private static final int KEY_PAGE_SIZE = 500;
+
+    private final RedisConnection connection;
+    private final List<String> keys;
+    private final List<String> patterns;
+    private final Path file;
+    private final boolean compress;
+    private final ExecutorService writerThread = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "redis-export-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Listener listener = new Listener() {};
+    private int opsPerSecond = KeyspaceCrawler.DEFAULT_OPS_PER_SECOND;
+    private DumpArchiveWriter writer;
+    private KeyspaceCrawler crawler;
+    private volatile boolean cancelled;
+
+    /**
+     * @param keys 明确选中的 key
+     * @param patterns 需要遍历导出的匹配模式
+     */
+    public ExportJob(RedisConnection connection, List<String> keys, List<String> patterns, Path file, boolean compress) {
+        this.connection = connection;
+        this.keys = keys;
+        this.patterns = patterns;
+        this.file = file;
+        this.compress = compress;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param opsPerSecond 每秒命令数上限, 小于等于 0 表示不限速
+     */
+    public void setOpsPerSecond(int opsPerSecond) {
+        this.opsPerSecond = opsPerSecond;
+    }
+
+    public CompletableFuture<Void> start() {
+        CompletableFuture<Void> chain = CompletableFuture.runAsync(() -> {
+            try {
+                writer = new DumpArchiveWriter(file, compress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, writerThread);
+
+        for (int from = 0; from < keys.size(); from += KEY_PAGE_SIZE) {
+            List<String> page = keys.subList(from, Math.min(keys.size(), from + KEY_PAGE_SIZE));
+            chain = chain.thenCompose(v -> cancelled ? CompletableFuture.completedFuture(null) : exportPage(page, null));
+        }
+        for (String pattern : patterns) {
+            chain = chain.thenCompose(v -> crawl(pattern));
+        }
+
+        return chain.handleAsync((v, ex) -> {
+            Throwable error = ex;
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                error = error != null ? error : e;
+            }
+            writerThread.shutdown();
+            listener.onFinished(cancelled, error);
+            if (error != null) {
+                throw new IllegalStateException(error.getMessage(), error);
+            }
+            return null;
+        }, writerThread);
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        if (crawler != null) {
+            crawler.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private synchronized CompletableFuture<Void> crawl(String pattern) {
+        if (cancelled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        crawler = new KeyspaceCrawler(connection, pattern, page -> exportPage(page, pattern));
+        crawler.setOpsPerSecond(opsPerSecond);
+        // 控制单页大小，避免一页里的大 key 一起堆在内存中
+        crawler.setCountRange(20, 1000);
+        return crawler.start();
+    }
+
+    private CompletionStage<Void> exportPage(List<String> page, String pattern) {
+        return connection.dumpAllAsync(page).thenAcceptAsync(dumps -> {
+            try {
+                for (KeyDump dump : dumps) {
+                    writer.write(dump);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            listener.onProgress(writer.getRecords(), pattern);
+        }, writerThread);
+    }
+}
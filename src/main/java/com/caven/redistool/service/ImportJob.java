@@ -0,0 +1,183 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.entity.KeyDump;
+import com.caven.redistool.utils.DumpArchiveReader;
+import com.caven.redistool.utils.RedisConnection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 把导出文件回放到当前服务器
+ * 按批读取记录并流水线发送 RESTORE，最多同时有 maxInFlightBatches 批在途，
+ * 每批同时受条数和字节数限制，所以内存占用与文件大小无关。
+ * 读文件和全部状态都在一个专用线程上处理，不需要额外加锁。
+ */
+public class ImportJob {
+
+    /**
+     * 进度回调，在后台线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        default void onProgress(long importedKeys, long failedKeys) {
+        }
+
+        /**
+         * @param firstError 第一个失败 key 的错误, 全部成功时为 null
+         */
+        default void onFinished(boolean cancelled, Throwable error, Throwable firstError) {
+        }
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 200;
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+    private static final long MAX_BATCH_BYTES = 4L * 1024 * 1024;
+
+    private final RedisConnection connection;
+    private final Path file;
+    private final boolean replace;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "redis-import-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Listener listener = new Listener() {};
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+    private volatile boolean cancelled;
+
+    // 以下字段只在 worker 线程上访问
+    private DumpArchiveReader reader;
+    private int inFlight;
+    private boolean endOfFile;
+    private long importedKeys;
+    private long failedKeys;
+    private Throwable firstError;
+
+    /**
+     * @param replace 是否覆盖已存在的 key (RESTORE ... REPLACE)
+     */
+    public ImportJob(RedisConnection connection, Path file, boolean replace) {
+        this.connection = connection;
+        this.file = file;
+        this.replace = replace;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void setMaxInFlightBatches(int maxInFlightBatches) {
+        this.maxInFlightBatches = Math.max(1, maxInFlightBatches);
+    }
+
+    public CompletableFuture<Void> start() {
+        worker.execute(() -> {
+            try {
+                reader = new DumpArchiveReader(file);
+            } catch (IOException e) {
+                finish(e);
+                return;
+            }
+            pump();
+        });
+        return done;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 在窗口允许的范围内继续读取并发送批次
+     */
+    private void pump() {
+        if (done.isDone()) {
+            return;
+        }
+        try {
+            while (!cancelled && !endOfFile && inFlight < maxInFlightBatches) {
+                List<KeyDump> batch = readBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                inFlight++;
+                connection.restoreAllAsync(batch, replace).whenCompleteAsync((results, ex) -> {
+                    inFlight--;
+                    if (ex != null) {
+                        finish(ex);
+                        return;
+                    }
+                    for (Throwable result : results) {
+                        if (result == null) {
+                            importedKeys++;
+                        } else {
+                            failedKeys++;
+                            if (firstError == null) {
+                                firstError = result;
+                            }
+                        }
+                    }
+                    listener.onProgress(importedKeys, failedKeys);
+                    pump();
+                }, worker);
+            }
+        } catch (IOException e) {
+            finish(e);
+            return;
+        }
+        if ((cancelled || endOfFile) && inFlight == 0) {
+            finish(null);
+        }
+    }
+
+    private List<KeyDump> readBatch() throws IOException {
+        List<KeyDump> batch = new ArrayList<>(batchSize);
+        long bytes = 0;
+        while (batch.size() < batchSize && bytes < MAX_BATCH_BYTES) {
+            KeyDump dump = reader.next();
+            if (dump == null) {
+                endOfFile = true;
+                break;
+            }
+            batch.add(dump);
+            bytes += dump.getPayload().length;
+        }
+        return batch;
+    }
+
+    private void finish(Throwable error) {
+        if (done.isDone()) {
+            return;
+        }
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } catch (IOException ignored) {
+            // 只读文件, 关闭失败不影响结果
+        }
+        worker.shutdown();
+        listener.onFinished(cancelled, error, firstError);
+        if (error != null) {
+            done.completeExceptionally(error);
+        } else {
+            done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.config.ServerConfig;
+import com.caven.redistool.utils.RateLimiter;
+import com.caven.redistool.utils.RedisDataSource;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanCursor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台全量 Key 遍历器
+ * 通过 RedisDataSource.scanAsync 逐页遍历整个 keyspace，每页交给 PageHandler 处理完成后才发起下一页，
+ * 同一时刻最多只有一页在途。
+ * <p>
+ * SCAN 的 COUNT 根据回复延迟自动调整: 以观测到的最小延迟作为网络往返基线，
+ * 超出基线的部分 (近似为服务端耗时) 低于目标值时 COUNT 翻倍，高于目标值时减半。
+ * 同时按 ops/sec 上限限速，每页计 1 个 SCAN 加上本页 key 数 (后续每个 key 至少一条命令)。
+ */
+public class KeyspaceCrawler {
+
+    /**
+     * 每页 key 的处理逻辑，返回的 CompletionStage 完成后才会扫描下一页
+     */
+    public interface PageHandler {
+        CompletionStage<?> handle(List<String> keys);
+    }
+
+    /**
+     * 进度回调，在 Redis I/O 线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        /**
+         * @param matchedKeys 已返回的 key 数
+         * @param examinedKeys 已遍历的 key 数估计 (各页 COUNT 之和)
+         * @param totalKeys 扫描开始时的 DBSIZE, 未知时为 -1
+         * @param count 下一页使用的 COUNT
+         */
+        default void onProgress(long matchedKeys, long examinedKeys, long totalKeys, int count) {
+        }
+
+        default void onFinished(boolean cancelled, Throwable error) {
+        }
+    }
+
+    public static final int DEFAULT_OPS_PER_SECOND = ServerConfig.DEFAULT_SCAN_OPS_PER_SECOND;
+
+    private final RedisDataSource connection;
+    private final String pattern;
+    private final PageHandler handler;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private Listener listener = new Listener() {};
+    private RateLimiter rateLimiter = new RateLimiter(DEFAULT_OPS_PER_SECOND);
+    private int minCount = 20;
+    private int maxCount = 5000;
+    private long targetExcessNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private volatile boolean cancelled;
+    private volatile ScanCursor cursor = ScanCursor.INITIAL;
+    private int count;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long matchedKeys;
+    private long examinedKeys;
+    private long totalKeys = -1;
+
+    public KeyspaceCrawler(RedisDataSource connection, String pattern, PageHandler handler) {
+        this.connection = connection;
+        this.pattern = pattern;
+        this.handler = handler;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param opsPerSecond 每秒命令数上限, 小于等于 0 表示不限速
+     */
+    public void setOpsPerSecond(int opsPerSecond) {
+        this.rateLimiter = new RateLimiter(opsPerSecond);
+    }
+
+    public void setCountRange(int minCount, int maxCount) {
+        this.minCount = Math.max(1, minCount);
+        this.maxCount = Math.max(this.minCount, maxCount);
+    }
+
+    /**
+     * @param millis 单页允许的服务端耗时 (超出网络基线的部分)
+     */
+    public void setTargetLatencyMillis(long millis) {
+        this.targetExcessNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * 从已有游标继续遍历，例如接着用户手动 "加载更多" 的位置
+     */
+    public void setStartCursor(ScanCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * 当前游标，取消后可以用来继续分页
+     */
+    public ScanCursor getCursor() {
+        return cursor;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return done;
+    }
+
+    public CompletableFuture<Void> start() {
+        count = minCount;
+        if (cursor.isFinished()) {
+            finish(null);
+            return done;
+        }
+        connection.dbsizeAsync().whenComplete((size, ex) -> {
+            totalKeys = ex == null ? size : -1;
+            step();
+        });
+        return done;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void step() {
+        if (cancelled) {
+            finish(null);
+            return;
+        }
+        int pageCount = count;
+        long startNanos = System.nanoTime();
+        connection.scanAsync(cursor, pattern, pageCount).thenCompose(page -> {
+            adaptCount(System.nanoTime() - startNanos);
+            return handler.handle(page.getKeys()).thenApply(v -> page);
+        }).whenComplete((page, ex) -> {
+            if (ex != null) {
+                finish(ex);
+                return;
+            }
+            onPage(page, pageCount);
+        });
+    }
+
+    private void onPage(KeyScanCursor<String> page, int pageCount) {
+        cursor = page;
+        matchedKeys += page.getKeys().size();
+        examinedKeys += pageCount;
+        listener.onProgress(matchedKeys, examinedKeys, totalKeys, count);
+
+        if (page.isFinished() || cancelled) {
+            finish(null);
+            return;
+        }
+        long delay = rateLimiter.reserve(1 + page.getKeys().size());
+        if (delay <= 0) {
+            step();
+        } else {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(this::step);
+        }
+    }
+
+    /**
+     * 根据本页回复延迟调整下一页的 COUNT
+     */
+    private void adaptCount(long latencyNanos) {
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+        long excess = latencyNanos - baselineNanos;
+        if (excess > targetExcessNanos) {
+            count = Math.max(minCount, count / 2);
+        } else if (excess < targetExcessNanos / 2) {
+            count = Math.min(maxCount, count * 2);
+        }
+    }
+
+    private void finish(Throwable error) {
+        if (done.isDone()) {
+            return;
+        }
+        listener.onFinished(cancelled, error);
+        if (error != null) {
+            done.completeExceptionally(error);
+        } else {
+            done.complete(null);
+        }
+    }
+}
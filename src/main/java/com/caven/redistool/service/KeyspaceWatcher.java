@@ -0,0 +1,167 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.utils.GlobMatcher;
+import com.caven.redistool.utils.RedisConnection;
+import io.lettuce.core.api.StatefulConnection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 通过 keyspace 通知实时跟踪 key 的增删
+ * 在独立的 pub/sub 连接上订阅 __keyspace@0__:*，收到的 key 先按当前搜索模式在本地过滤，
+ * 再放入去重集合；每隔 FLUSH_INTERVAL_MILLIS 取出一批，流水线发送 TYPE 确认最新状态：
+ * 类型为 none 的 key 视为已删除 (del、expired、evicted、rename_from 等)，其余视为新增或仍然存在。
+ * 同一时刻只有一批 TYPE 在途，事件风暴时积压超过上限会清空整个积压并提示刷新，
+ * 之后的通知照常处理，不会继续为已经过时的旧 key 发送 TYPE。
+ */
+public class KeyspaceWatcher {
+
+    /**
+     * 回调在 Redis I/O 线程或调度线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        /**
+         * @param keys 仍然存在的 key
+         * @param types 与 keys 顺序一致的类型
+         * @param removedKeys 已经不存在的 key
+         */
+        void onChanges(List<String> keys, List<String> types, List<String> removedKeys);
+
+        /**
+         * 通知过多，积压的变化已丢弃，Key 树可能不完整
+         */
+        default void onOverflow() {
+        }
+
+        /**
+         * 订阅失败
+         */
+        default void onError(Throwable error) {
+        }
+    }
+
+    public static final long FLUSH_INTERVAL_MILLIS = 200;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_PENDING_KEYS = 100_000;
+
+    private final RedisConnection connection;
+    private final String pattern;
+    private final Listener listener;
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "keyspace-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CompletableFuture<StatefulConnection<String, String>> subscription;
+    private volatile boolean stopped;
+
+    /**
+     * @param pattern 只关心匹配该模式的 key, 与 SCAN 的 MATCH 语义相同
+     */
+    public KeyspaceWatcher(RedisConnection connection, String pattern, Listener listener) {
+        this.connection = connection;
+        this.pattern = pattern;
+        this.listener = listener;
+    }
+
+    /**
+     * @return 订阅成功后完成
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (subscription == null) {
+            subscription = connection.subscribeKeyspace((key, event) -> onEvent(key));
+            scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            subscription.whenComplete((conn, ex) -> {
+                if (ex != null) {
+                    stop();
+                    listener.onError(ex);
+                } else if (stopped) {
+                    conn.close(); // 订阅完成前已被停止
+                }
+            });
+        }
+        return subscription.thenApply(conn -> null);
+    }
+
+    public synchronized void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        scheduler.shutdownNow();
+        pendingKeys.clear();
+        if (subscription != null) {
+            subscription.thenAccept(StatefulConnection::close);
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    private void onEvent(String key) {
+        if (stopped || !GlobMatcher.matches(pattern, key)) {
+            return;
+        }
+        if (pendingKeys.size() >= MAX_PENDING_KEYS) {
+            // 积压的变化已经不完整, 只能靠刷新恢复, 保留它们只会让 Key 树继续追赶旧状态
+            pendingKeys.clear();
+            overflowed.set(true);
+        }
+        pendingKeys.add(key);
+    }
+
+    private void flush() {
+        if (overflowed.compareAndSet(true, false)) {
+            listener.onOverflow();
+        }
+        if (stopped || pendingKeys.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        List<String> batch = new ArrayList<>(Math.min(pendingKeys.size(), MAX_BATCH_SIZE));
+        Iterator<String> it = pendingKeys.iterator();
+        while (it.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+            batch.add(it.next());
+            it.remove();
+        }
+        connection.typesAsync(batch).whenComplete((types, ex) -> {
+            flushing.set(false);
+            if (stopped) {
+                return;
+            }
+            if (ex != null) {
+                pendingKeys.addAll(batch); // 连接暂时不可用, 下一轮重试
+                return;
+            }
+            List<String> keys = new ArrayList<>(batch.size());
+            List<String> keyTypes = new ArrayList<>(batch.size());
+            List<String> removedKeys = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                if ("none".equals(types.get(i))) {
+                    removedKeys.add(batch.get(i));
+                } else {
+                    keys.add(batch.get(i));
+                    keyTypes.add(types.get(i));
+                }
+            }
+            listener.onChanges(keys, keyTypes, removedKeys);
+        });
+    }
+}
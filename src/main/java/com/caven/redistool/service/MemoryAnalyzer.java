@@ -0,0 +1,236 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.entity.KeyNamespace;
+import com.caven.redistool.utils.RedisDataSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按前缀汇总内存占用
+ * 用 KeyspaceCrawler 遍历 keyspace，每页流水线发送 TYPE 和 MEMORY USAGE，
+ * 结果按分隔符逐级累加到前缀树的文件夹节点上 (树里只保存文件夹，不保存每个 key)，
+ * 同时用一个有界的小顶堆保留最大的 N 个 key。扫描过程中随时可以读取部分结果。
+ * <p>
+ * 抽样比例小于 1 时每个 key 按该概率参与统计，读取结果时按比例放大为估算值。
+ */
+public class MemoryAnalyzer {
+
+    /**
+     * 进度回调，在 Redis I/O 线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        /**
+         * @param analyzedKeys 已统计的 key 数 (抽样后)
+         * @param examinedKeys 已遍历的 key 数估计
+         * @param totalKeys 开始时的 DBSIZE, 未知时为 -1
+         */
+        default void onProgress(long analyzedKeys, long examinedKeys, long totalKeys) {
+        }
+
+        default void onFinished(boolean cancelled, Throwable error) {
+        }
+    }
+
+    /**
+     * 一个前缀下的 key 数与内存汇总
+     */
+    public static final class PrefixStats {
+        private long keys;
+        private long bytes;
+
+        private PrefixStats() {
+        }
+
+        private PrefixStats(long keys, long bytes) {
+            this.keys = keys;
+            this.bytes = bytes;
+        }
+
+        public long getKeys() {
+            return keys;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * 单个 key 的内存占用
+     */
+    public static final class KeySize {
+        private final String key;
+        private final String type;
+        private final long bytes;
+
+        public KeySize(String key, String type, long bytes) {
+            this.key = key;
+            this.type = type;
+            this.bytes = bytes;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    public static final int DEFAULT_TOP_N = 100;
+    private static final PrefixStats EMPTY = new PrefixStats();
+
+    private final RedisDataSource connection;
+    private final String pattern;
+    private final KeyNamespace namespace;
+    private final Map<KeyNamespace.Node, PrefixStats> stats = new IdentityHashMap<>();
+    private final PriorityQueue<KeySize> topKeys = new PriorityQueue<>(Comparator.comparingLong(KeySize::getBytes));
+
+    private Listener listener = new Listener() {};
+    private double sampleRate = 1.0;
+    private int topN = DEFAULT_TOP_N;
+    private int opsPerSecond = KeyspaceCrawler.DEFAULT_OPS_PER_SECOND;
+    private KeyspaceCrawler crawler;
+    private long analyzedKeys;
+
+    public MemoryAnalyzer(RedisDataSource connection, String pattern, String delimiter) {
+        this.connection = connection.uncached();
+        this.pattern = pattern;
+        this.namespace = new KeyNamespace(delimiter);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param sampleRate 每个 key 参与统计的概率, (0, 1]
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = Math.min(1.0, Math.max(0.0001, sampleRate));
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setTopN(int topN) {
+        this.topN = Math.max(1, topN);
+    }
+
+    /**
+     * @param opsPerSecond 每秒命令数上限, 小于等于 0 表示不限速
+     */
+    public void setOpsPerSecond(int opsPerSecond) {
+        this.opsPerSecond = opsPerSecond;
+    }
+
+    /**
+     * 只包含文件夹节点的前缀树，根节点的汇总即为总计
+     */
+    public KeyNamespace getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * 某个前缀的汇总快照，已按抽样比例放大
+     */
+    public synchronized PrefixStats statsOf(KeyNamespace.Node node) {
+        PrefixStats s = stats.getOrDefault(node, EMPTY);
+        return new PrefixStats(Math.round(s.keys / sampleRate), Math.round(s.bytes / sampleRate));
+    }
+
+    /**
+     * 当前最大的 key，按内存从大到小排列
+     */
+    public synchronized List<KeySize> topKeys() {
+        List<KeySize> result = new ArrayList<>(topKeys);
+        result.sort(Comparator.comparingLong(KeySize::getBytes).reversed());
+        return result;
+    }
+
+    public synchronized CompletableFuture<Void> start() {
+        if (crawler != null) {
+            return crawler.getCompletion();
+        }
+        crawler = new KeyspaceCrawler(connection, pattern, this::analyzePage);
+        crawler.setOpsPerSecond(opsPerSecond);
+        crawler.setListener(new KeyspaceCrawler.Listener() {
+            @Override
+            public void onProgress(long matchedKeys, long examinedKeys, long totalKeys, int count) {
+                listener.onProgress(getAnalyzedKeys(), examinedKeys, totalKeys);
+            }
+
+            @Override
+            public void onFinished(boolean cancelled, Throwable error) {
+                listener.onFinished(cancelled, error);
+            }
+        });
+        return crawler.start();
+    }
+
+    public synchronized void cancel() {
+        if (crawler != null) {
+            crawler.cancel();
+        }
+    }
+
+    public synchronized long getAnalyzedKeys() {
+        return analyzedKeys;
+    }
+
+    private CompletableFuture<Void> analyzePage(List<String> page) {
+        List<String> keys = page;
+        if (sampleRate < 1.0) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            keys = new ArrayList<>();
+            for (String key : page) {
+                if (random.nextDouble() < sampleRate) {
+                    keys.add(key);
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<String> sampled = keys;
+        CompletableFuture<List<String>> types = connection.typesAsync(sampled);
+        CompletableFuture<List<Long>> sizes = connection.memoryUsagesAsync(sampled);
+        return types.thenAcceptBoth(sizes, (typeList, sizeList) -> aggregate(sampled, typeList, sizeList));
+    }
+
+    private synchronized void aggregate(List<String> keys, List<String> types, List<Long> sizes) {
+        for (int i = 0; i < keys.size(); i++) {
+            Long bytes = sizes.get(i);
+            String type = types.get(i);
+            if (bytes == null || "none".equals(type)) {
+                continue; // 扫描期间已被删除或过期
+            }
+            analyzedKeys++;
+            // 从直接父文件夹一直累加到根节点
+            for (KeyNamespace.Node node = namespace.addFolders(keys.get(i), type); node != null; node = node.getParent()) {
+                PrefixStats s = stats.computeIfAbsent(node, k -> new PrefixStats());
+                s.keys++;
+                s.bytes += bytes;
+            }
+            if (topKeys.size() < topN) {
+                topKeys.add(new KeySize(keys.get(i), type, bytes));
+            } else if (bytes > topKeys.peek().getBytes()) {
+                topKeys.poll();
+                topKeys.add(new KeySize(keys.get(i), type, bytes));
+            }
+        }
+    }
+}
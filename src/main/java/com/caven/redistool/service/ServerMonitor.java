@@ -0,0 +1,491 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.utils.InfoParser;
+import com.caven.redistool.utils.MetricRing;
+import com.caven.redistool.utils.RedisConnection;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 服务器指标采样
+ * 在独立连接上按固定间隔流水线发送 INFO、INFO commandstats、LATENCY LATEST 和 SLOWLOG GET，
+ * 解析出的指标写入固定容量的 {@link MetricRing}。上一轮还没有返回时跳过本轮，
+ * 服务器卡顿时监控本身不会堆积请求。
+ */
+public class ServerMonitor {
+
+    /**
+     * 回调在采样线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        default void onSample() {
+        }
+
+        default void onError(Throwable error) {
+        }
+    }
+
+    /**
+     * 单个命令的调用统计，由 INFO commandstats 相邻两次采样的差值计算
+     */
+    public static final class CommandStats {
+        private final String name;
+        private final MetricRing latencyMicros;
+        private long lastCalls = -1;
+        private long lastUsec;
+        private volatile double callsPerSecond;
+        private volatile double avgMicros = Double.NaN;
+        private volatile long totalCalls;
+
+        private CommandStats(String name, int history) {
+            this.name = name;
+            this.latencyMicros = new MetricRing(history);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 每个采样区间内的平均耗时 (微秒)
+         */
+        public MetricRing getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public double getCallsPerSecond() {
+            return callsPerSecond;
+        }
+
+        public double getAvgMicros() {
+            return avgMicros;
+        }
+
+        public long getTotalCalls() {
+            return totalCalls;
+        }
+    }
+
+    /**
+     * 一条慢查询记录
+     */
+    public static final class SlowEntry {
+        private final long id;
+        private final long timestamp;
+        private final long durationMicros;
+        private final String command;
+        private final String client;
+
+        private SlowEntry(long id, long timestamp, long durationMicros, String command, String client) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.durationMicros = durationMicros;
+            this.command = command;
+            this.client = client;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * 发生时间, Unix 秒
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getDurationMicros() {
+            return durationMicros;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getClient() {
+            return client;
+        }
+    }
+
+    /**
+     * LATENCY LATEST 中的一个事件
+     */
+    public static final class LatencyEvent {
+        private final String event;
+        private final long timestamp;
+        private final long latestMillis;
+        private final long maxMillis;
+
+        private LatencyEvent(String event, long timestamp, long latestMillis, long maxMillis) {
+            this.event = event;
+            this.timestamp = timestamp;
+            this.latestMillis = latestMillis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getLatestMillis() {
+            return latestMillis;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis;
+        }
+    }
+
+    public static final int HISTORY_SIZE = 300;
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    private static final int SLOWLOG_FETCH = 16;
+    private static final int SLOWLOG_KEEP = 128;
+    private static final int ARGUMENT_PREVIEW_CHARS = 200;
+
+    private static final ProtocolKeyword LATENCY = new ProtocolKeyword() {
+        private final byte[] bytes = "LATENCY".getBytes(StandardCharsets.US_ASCII);
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String name() {
+            return "LATENCY";
+        }
+    };
+
+    private final RedisConnection connection;
+    private final MetricRing opsPerSecond = new MetricRing(HISTORY_SIZE);
+    private final MetricRing usedMemory = new MetricRing(HISTORY_SIZE);
+    private final MetricRing hitRatio = new MetricRing(HISTORY_SIZE);
+    private final MetricRing connectedClients = new MetricRing(HISTORY_SIZE);
+    private final MetricRing networkKbps = new MetricRing(HISTORY_SIZE);
+    private final Map<String, CommandStats> commands = new LinkedHashMap<>();
+    private final Deque<SlowEntry> slowLog = new ArrayDeque<>();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "server-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Listener listener = new Listener() {};
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private volatile List<LatencyEvent> latencyEvents = List.of();
+    private StatefulRedisConnection<String, String> monitorConnection;
+    private ScheduledFuture<?> task;
+    private volatile boolean stopped;
+
+    // 以下字段只在采样线程上访问
+    private long lastSampleNanos;
+    private long lastHits = -1;
+    private long lastMisses;
+    private long lastSlowLogId = -1;
+
+    public ServerMonitor(RedisConnection connection) {
+        this.connection = connection;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public CompletableFuture<Void> start() {
+        return connection.connectDedicatedAsync().thenAcceptAsync(conn -> {
+            if (stopped) {
+                conn.close();
+                return;
+            }
+            monitorConnection = conn;
+            schedule();
+        }, scheduler).whenComplete((v, ex) -> {
+            if (ex != null) {
+                listener.onError(ex);
+            }
+        });
+    }
+
+    /**
+     * 修改采样间隔，立即生效
+     */
+    public void setIntervalMillis(long intervalMillis) {
+        scheduler.execute(() -> {
+            this.intervalMillis = Math.max(100, intervalMillis);
+            if (task != null) {
+                schedule();
+            }
+        });
+    }
+
+    public void stop() {
+        stopped = true;
+        scheduler.execute(() -> {
+            if (task != null) {
+                task.cancel(false);
+            }
+            if (monitorConnection != null) {
+                monitorConnection.closeAsync();
+            }
+            scheduler.shutdown();
+        });
+    }
+
+    public MetricRing getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    public MetricRing getUsedMemory() {
+        return usedMemory;
+    }
+
+    /**
+     * 采样区间内的 keyspace 命中率 (0~1)，区间内没有查找时为 NaN
+     */
+    public MetricRing getHitRatio() {
+        return hitRatio;
+    }
+
+    public MetricRing getConnectedClients() {
+        return connectedClients;
+    }
+
+    /**
+     * 网络流入与流出之和 (KB/s)
+     */
+    public MetricRing getNetworkKbps() {
+        return networkKbps;
+    }
+
+    public synchronized List<CommandStats> commands() {
+        return new ArrayList<>(commands.values());
+    }
+
+    /**
+     * 最近的慢查询，从新到旧
+     */
+    public synchronized List<SlowEntry> slowLog() {
+        return new ArrayList<>(slowLog);
+    }
+
+    public List<LatencyEvent> latencyEvents() {
+        return latencyEvents;
+    }
+
+    private void schedule() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        task = scheduler.scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        if (stopped || !polling.compareAndSet(false, true)) {
+            return; // 上一轮还没有返回, 跳过
+        }
+        RedisAsyncCommands<String, String> cmd = monitorConnection.async();
+        RedisFuture<String> info;
+        RedisFuture<String> commandStats;
+        RedisFuture<List<Object>> latency;
+        RedisFuture<List<Object>> slow;
+        monitorConnection.setAutoFlushCommands(false);
+        try {
+            info = cmd.info();
+            commandStats = cmd.info("commandstats");
+            latency = cmd.dispatch(LATENCY, new NestedMultiOutput<>(StringCodec.UTF8),
+                    new CommandArgs<>(StringCodec.UTF8).add("LATEST"));
+            slow = cmd.slowlogGet(SLOWLOG_FETCH);
+        } finally {
+            monitorConnection.setAutoFlushCommands(true);
+            monitorConnection.flushCommands();
+        }
+
+        // LATENCY 和 SLOWLOG 可能被禁用或重命名, 失败时忽略
+        CompletableFuture<List<Object>> latencyOrNull = latency.toCompletableFuture().exceptionally(ex -> null);
+        CompletableFuture<List<Object>> slowOrNull = slow.toCompletableFuture().exceptionally(ex -> null);
+        CompletableFuture.allOf(info.toCompletableFuture(), commandStats.toCompletableFuture(), latencyOrNull, slowOrNull)
+                .whenCompleteAsync((v, ex) -> {
+                    polling.set(false);
+                    if (stopped) {
+                        return;
+                    }
+                    if (ex != null) {
+                        listener.onError(ex);
+                        return;
+                    }
+                    long now = System.nanoTime();
+                    double elapsedSeconds = lastSampleNanos == 0 ? 0 : (now - lastSampleNanos) / 1e9;
+                    lastSampleNanos = now;
+                    parseInfo(info.toCompletableFuture().join());
+                    parseCommandStats(commandStats.toCompletableFuture().join(), elapsedSeconds);
+                    parseLatency(latencyOrNull.join());
+                    parseSlowLog(slowOrNull.join());
+                    listener.onSample();
+                }, scheduler);
+    }
+
+    private void parseInfo(String info) {
+        opsPerSecond.add(InfoParser.longField(info, "instantaneous_ops_per_sec", 0));
+        usedMemory.add(InfoParser.longField(info, "used_memory", 0));
+        connectedClients.add(InfoParser.longField(info, "connected_clients", 0));
+        networkKbps.add(InfoParser.doubleField(info, "instantaneous_input_kbps", 0)
+                + InfoParser.doubleField(info, "instantaneous_output_kbps", 0));
+
+        long hits = InfoParser.longField(info, "keyspace_hits", 0);
+        long misses = InfoParser.longField(info, "keyspace_misses", 0);
+        long lookups = (hits - lastHits) + (misses - lastMisses);
+        // 第一次采样、没有查找或者统计被 CONFIG RESETSTAT 清零时没有数据
+        hitRatio.add(lastHits < 0 || lookups <= 0 || hits < lastHits ? Double.NaN : (double) (hits - lastHits) / lookups);
+        lastHits = hits;
+        lastMisses = misses;
+    }
+
+    /**
+     * 逐行解析 cmdstat_<name>:calls=..,usec=..,usec_per_call=..
+     */
+    private void parseCommandStats(String info, double elapsedSeconds) {
+        int lineStart = 0;
+        while (lineStart < info.length()) {
+            int lineEnd = info.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = info.length();
+            }
+            if (info.startsWith("cmdstat_", lineStart)) {
+                int colon = info.indexOf(':', lineStart);
+                if (colon > 0 && colon < lineEnd) {
+                    long calls = InfoParser.inlineLong(info, colon + 1, lineEnd, "calls", -1);
+                    long usec = InfoParser.inlineLong(info, colon + 1, lineEnd, "usec", -1);
+                    if (calls >= 0 && usec >= 0) {
+                        update(info.substring(lineStart + 8, colon), calls, usec, elapsedSeconds);
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private synchronized void update(String name, long calls, long usec, double elapsedSeconds) {
+        CommandStats stats = commands.computeIfAbsent(name, k -> new CommandStats(k, HISTORY_SIZE));
+        long deltaCalls = calls - stats.lastCalls;
+        if (stats.lastCalls < 0 || deltaCalls < 0 || elapsedSeconds <= 0) {
+            stats.latencyMicros.add(Double.NaN);
+            stats.callsPerSecond = 0;
+            stats.avgMicros = Double.NaN;
+        } else {
+            double avg = deltaCalls == 0 ? Double.NaN : (double) (usec - stats.lastUsec) / deltaCalls;
+            stats.latencyMicros.add(avg);
+            stats.callsPerSecond = deltaCalls / elapsedSeconds;
+            stats.avgMicros = avg;
+        }
+        stats.lastCalls = calls;
+        stats.lastUsec = usec;
+        stats.totalCalls = calls;
+    }
+
+    private void parseLatency(List<Object> reply) {
+        if (reply == null) {
+            return;
+        }
+        List<LatencyEvent> events = new ArrayList<>(reply.size());
+        for (Object item : reply) {
+            if (item instanceof List && ((List<?>) item).size() >= 4) {
+                List<?> fields = (List<?>) item;
+                events.add(new LatencyEvent(String.valueOf(fields.get(0)), asLong(fields.get(1)), asLong(fields.get(2)), asLong(fields.get(3))));
+            }
+        }
+        latencyEvents = events;
+    }
+
+    private synchronized void parseSlowLog(List<Object> reply) {
+        if (reply == null) {
+            return;
+        }
+        // SLOWLOG RESET 或服务器重启后 id 从 0 重新开始, 最大 id 比已见过的小时重置游标
+        long replyMaxId = -1;
+        for (Object entry : reply) {
+            if (entry instanceof List && !((List<?>) entry).isEmpty()) {
+                replyMaxId = Math.max(replyMaxId, asLong(((List<?>) entry).get(0)));
+            }
+        }
+        if (replyMaxId < lastSlowLogId) {
+            lastSlowLogId = -1;
+        }
+        long maxId = lastSlowLogId;
+        // SLOWLOG GET 按从新到旧返回, 倒序处理保证新记录排在最前
+        for (int i = reply.size() - 1; i >= 0; i--) {
+            if (!(reply.get(i) instanceof List)) {
+                continue;
+            }
+            List<?> fields = (List<?>) reply.get(i);
+            if (fields.size() < 4) {
+                continue;
+            }
+            long id = asLong(fields.get(0));
+            if (id <= lastSlowLogId) {
+                continue;
+            }
+            maxId = Math.max(maxId, id);
+            String client = fields.size() > 4 ? String.valueOf(fields.get(4)) : "";
+            slowLog.addFirst(new SlowEntry(id, asLong(fields.get(1)), asLong(fields.get(2)), joinArguments(fields.get(3)), client));
+        }
+        lastSlowLogId = maxId;
+        while (slowLog.size() > SLOWLOG_KEEP) {
+            slowLog.removeLast();
+        }
+    }
+
+    private static String joinArguments(Object arguments) {
+        if (!(arguments instanceof List)) {
+            return String.valueOf(arguments);
+        }
+        StringBuilder text = new StringBuilder();
+        for (Object argument : (List<?>) arguments) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(argument);
+            if (text.length() > ARGUMENT_PREVIEW_CHARS) {
+                text.setLength(ARGUMENT_PREVIEW_CHARS);
+                text.append("...");
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static long asLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return Long.parseLong(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.caven.redistool.service;
+
+import com.caven.redistool.utils.RedisConnection;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.api.StatefulConnection;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 实时跟踪 Stream 的新条目
+ * 在独立的连接上循环执行 XREAD BLOCK，每次从上一批最后一个 ID 之后读取。
+ * 上一批交给监听器处理完之前不会发出下一次读取，界面跟不上时新条目留在服务器上，
+ * 本地最多只有一批在途，内存不会随写入速度增长。
+ */
+public class StreamTailer {
+
+    /**
+     * 回调在 Redis I/O 线程上调用，实现方需要自行切换线程
+     */
+    public interface Listener {
+        /**
+         * @param messages 按 ID 从小到大的新条目, 不为空
+         * @return 处理完成后完成, 之后才会读取下一批
+         */
+        CompletionStage<?> onMessages(List<StreamMessage<byte[], byte[]>> messages);
+
+        /**
+         * 读取失败，跟踪已停止
+         */
+        default void onError(Throwable error) {
+        }
+    }
+
+    public static final long BLOCK_MILLIS = 5000;
+    private static final int READ_COUNT = 500;
+
+    private final RedisConnection connection;
+    private final String key;
+    private final Listener listener;
+
+    private CompletableFuture<StatefulConnection<byte[], byte[]>> dedicated;
+    private volatile String lastId;
+    private volatile boolean stopped;
+
+    /**
+     * @param afterId 只读取 ID 大于它的条目，从当前末尾开始时传最后一个条目的 ID (空 Stream 传 0-0)
+     */
+    public StreamTailer(RedisConnection connection, String key, String afterId, Listener listener) {
+        this.connection = connection;
+        this.key = key;
+        this.lastId = afterId;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (dedicated != null || stopped) {
+            return;
+        }
+        dedicated = connection.connectDedicatedBinaryAsync();
+        dedicated.whenComplete((conn, ex) -> {
+            if (ex != null) {
+                stop();
+                listener.onError(ex);
+            } else if (stopped) {
+                conn.close(); // 连接建立前已被停止
+            } else {
+                readNext(conn);
+            }
+        });
+    }
+
+    public synchronized void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        if (dedicated != null) {
+            // 关闭连接同时中断正在阻塞的 XREAD
+            dedicated.thenAccept(StatefulConnection::close);
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 已读到的最后一个条目的 ID
+     */
+    public String getLastId() {
+        return lastId;
+    }
+
+    private void readNext(StatefulConnection<byte[], byte[]> conn) {
+        if (stopped) {
+            return;
+        }
+        connection.xreadBlockingAsync(conn, key, lastId, BLOCK_MILLIS, READ_COUNT).whenComplete((messages, ex) -> {
+            if (stopped) {
+                return;
+            }
+            if (ex != null) {
+                stop();
+                listener.onError(ex);
+                return;
+            }
+            if (messages == null || messages.isEmpty()) {
+                readNext(conn); // 阻塞超时, 没有新条目
+                return;
+            }
+            lastId = messages.get(messages.size() - 1).getId();
+            listener.onMessages(messages).whenComplete((v, error) -> readNext(conn));
+        });
+    }
+}
@@ -0,0 +1,244 @@
+package com.caven.redistool.utils;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.Range;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 带本地缓存的在线数据源
+ * 内容视图用到的 TYPE、STRLEN、GET、GETRANGE、LRANGE、HSCAN、SSCAN、ZRANGE 结果保存在 {@link ContentCache} 中，
+ * 再次打开最近看过的 key 时直接从本地返回，不再产生网络往返。
+ * <p>
+ * 缓存依赖 RESP3 连接上的 CLIENT TRACKING：服务器在 key 被修改、删除或过期时推送 invalidate，
+ * 收到后立即移除对应条目，因此缓存内容不会过期。未命中的读取都发到 RedisConnection 中专门开启了跟踪的连接上，
+ * 服务器只跟踪进入缓存的 key；后台爬取、内存分析通过 {@link #uncached()} 直接读 RedisConnection，不会被跟踪也不写缓存。
+ * 集群模式、不支持 RESP3 的服务器以及连接断开期间不开启跟踪，这时所有请求直接透传给服务器。
+ * SCAN、DBSIZE、MEMORY USAGE 以及查找用的 ZCOUNT、ZSCAN、ZRANK 不缓存。
+ */
+public class CachingDataSource implements RedisDataSource {
+    private static final Logger log = LoggerFactory.getLogger(CachingDataSource.class);
+
+    public static final int DEFAULT_MAX_MEGABYTES = 64;
+
+    private final RedisConnection connection;
+    private final ContentCache cache;
+
+    public CachingDataSource(RedisConnection connection, long maxBytes) {
+        this.connection = connection;
+        this.cache = new ContentCache(maxBytes);
+        connection.enableTracking(new RedisConnection.InvalidationListener() {
+            @Override
+            public void onInvalidate(List<String> keys) {
+                cache.invalidate(keys);
+            }
+
+            @Override
+            public void onInvalidateAll() {
+                cache.invalidateAll();
+            }
+        }).whenComplete((enabled, ex) -> {
+            if (ex != null) {
+                log.warn("开启 CLIENT TRACKING 失败, 本地缓存不可用: {}", ex.getMessage());
+            } else if (!enabled) {
+                log.info("服务器不支持 RESP3 客户端缓存或处于集群模式, 本地缓存不可用");
+            }
+        });
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    public ContentCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public RedisDataSource uncached() {
+        return connection;
+    }
+
+    @Override
+    public CompletableFuture<KeyScanCursor<String>> scanAsync(ScanCursor cursor, String pattern, long count) {
+        return connection.scanAsync(cursor, pattern, count);
+    }
+
+    /**
+     * 命中的 key 直接返回，只对未命中的 key 发送 TYPE
+     */
+    @Override
+    public CompletableFuture<List<String>> typesAsync(List<String> keys) {
+        if (!connection.isTracking()) {
+            return connection.typesAsync(keys);
+        }
+        long epoch = cache.epoch();
+        List<String> types = new ArrayList<>(keys.size());
+        List<String> misses = new ArrayList<>();
+        for (String key : keys) {
+            String type = (String) cache.get(key, "type");
+            types.add(type);
+            if (type == null) {
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(types);
+        }
+        return connection.trackedTypesAsync(misses).thenApply(loaded -> {
+            for (int i = 0, m = 0; i < types.size(); i++) {
+                if (types.get(i) == null) {
+                    String type = loaded.get(m++);
+                    types.set(i, type);
+                    cache.put(keys.get(i), "type", type, type.length(), epoch);
+                }
+            }
+            return types;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> dbsizeAsync() {
+        return connection.dbsizeAsync();
+    }
+
+    @Override
+    public CompletableFuture<Long> strlenAsync(String key) {
+        return cached(key, "strlen", cmd -> cmd.strlen(bytes(key)), () -> connection.strlenAsync(key), length -> 8);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        return cached(key, "get", cmd -> cmd.get(bytes(key)), () -> connection.getBytesAsync(key), value -> value.length);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getrangeBytesAsync(String key, long start, long end) {
+        return cached(key, "getrange:" + start + ":" + end, cmd -> cmd.getrange(bytes(key), start, end),
+                () -> connection.getrangeBytesAsync(key, start, end), value -> value.length);
+    }
+
+    @Override
+    public CompletableFuture<Long> llenAsync(String key) {
+        return cached(key, "llen", cmd -> cmd.llen(bytes(key)), () -> connection.llenAsync(key), length -> 8);
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> lrangeBytesAsync(String key, long start, long stop) {
+        return cached(key, "lrange:" + start + ":" + stop, cmd -> cmd.lrange(bytes(key), start, stop),
+                () -> connection.lrangeBytesAsync(key, start, stop), values -> {
+            long size = 0;
+            for (byte[] value : values) {
+                size += value.length + 16;
+            }
+            return size;
+        });
+    }
+
+    @Override
+    public CompletableFuture<MapScanCursor<byte[], byte[]>> hscanBytesAsync(String key, ScanCursor cursor, long count) {
+        // 同一个未修改的 hash, 相同游标和 COUNT 得到的是同一页
+        return cached(key, "hscan:" + cursor.getCursor() + ":" + count, cmd -> cmd.hscan(bytes(key), cursor, ScanArgs.Builder.limit(count)),
+                () -> connection.hscanBytesAsync(key, cursor, count), page -> {
+            long size = 0;
+            for (Map.Entry<byte[], byte[]> entry : page.getMap().entrySet()) {
+                size += entry.getKey().length + entry.getValue().length + 32;
+            }
+            return size;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ValueScanCursor<byte[]>> sscanBytesAsync(String key, ScanCursor cursor, long count) {
+        return cached(key, "sscan:" + cursor.getCursor() + ":" + count, cmd -> cmd.sscan(bytes(key), cursor, ScanArgs.Builder.limit(count)),
+                () -> connection.sscanBytesAsync(key, cursor, count), page -> {
+            long size = 0;
+            for (byte[] value : page.getValues()) {
+                size += value.length + 16;
+            }
+            return size;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> zcardAsync(String key) {
+        return cached(key, "zcard", cmd -> cmd.zcard(bytes(key)), () -> connection.zcardAsync(key), length -> 8);
+    }
+
+    @Override
+    public CompletableFuture<List<ScoredValue<byte[]>>> zrangeWithScoresBytesAsync(String key, long start, long stop) {
+        return cached(key, "zrange:" + start + ":" + stop, cmd -> cmd.zrangeWithScores(bytes(key), start, stop),
+                () -> connection.zrangeWithScoresBytesAsync(key, start, stop), values -> {
+            long size = 0;
+            for (ScoredValue<byte[]> value : values) {
+                size += value.getValue().length + 32;
+            }
+            return size;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> zcountAsync(String key, Range<Double> range) {
+        return connection.zcountAsync(key, range);
+    }
+
+    @Override
+    public CompletableFuture<ScoredValueScanCursor<byte[]>> zscanBytesAsync(String key, ScanCursor cursor, String pattern, long count) {
+        return connection.zscanBytesAsync(key, cursor, pattern, count);
+    }
+
+    @Override
+    public CompletableFuture<Long> zrankBytesAsync(String key, byte[] member) {
+        return connection.zrankBytesAsync(key, member);
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> memoryUsagesAsync(List<String> keys) {
+        return connection.memoryUsagesAsync(keys);
+    }
+
+    /**
+     * @param command 未命中时在跟踪连接上执行的读取
+     * @param untracked 没有开启跟踪时直接透传的读取
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> cached(String key, String op,
+                                            Function<RedisAsyncCommands<byte[], byte[]>, RedisFuture<T>> command,
+                                            Supplier<CompletableFuture<T>> untracked, ToLongFunction<T> sizer) {
+        if (!connection.isTracking()) {
+            return untracked.get();
+        }
+        long epoch = cache.epoch();
+        Object hit = cache.get(key, op);
+        if (hit != null) {
+            return CompletableFuture.completedFuture((T) hit);
+        }
+        return connection.trackedRead(command).thenApply(value -> {
+            if (value != null) {
+                cache.put(key, op, value, sizer.applyAsLong(value), epoch);
+            }
+            return value;
+        });
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.caven.redistool.utils;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanCursor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 集群扫描的组合游标
+ * 记录每个主节点各自的 SCAN 游标，所有节点都扫描完毕时才算结束。
+ * 对调用方来说它仍然是一个普通的 KeyScanCursor，可以原样传回 RedisConnection.scanAsync 继续扫描。
+ */
+public class ClusterScanCursor extends KeyScanCursor<String> {
+    private final Map<String, ScanCursor> nodeCursors;
+
+    ClusterScanCursor(Map<String, ScanCursor> nodeCursors) {
+        this.nodeCursors = new LinkedHashMap<>(nodeCursors);
+        refreshState();
+    }
+
+    /**
+     * 合并某个节点返回的一页结果
+     */
+    void update(String nodeId, KeyScanCursor<String> page) {
+        nodeCursors.put(nodeId, new ScanCursor(page.getCursor(), page.isFinished()));
+        getKeys().addAll(page.getKeys());
+        refreshState();
+    }
+
+    public Map<String, ScanCursor> getNodeCursors() {
+        return Collections.unmodifiableMap(nodeCursors);
+    }
+
+    private void refreshState() {
+        boolean finished = true;
+        StringBuilder cursor = new StringBuilder();
+        for (Map.Entry<String, ScanCursor> entry : nodeCursors.entrySet()) {
+            finished &= entry.getValue().isFinished();
+            if (cursor.length() > 0) {
+                cursor.append(',');
+            }
+            cursor.append(entry.getKey()).append('=').append(entry.getValue().getCursor());
+        }
+        setCursor(cursor.toString());
+        setFinished(finished);
+    }
+}
@@ -0,0 +1,59 @@
+package com.caven.redistool.utils;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 按提交顺序执行的任务队列，带 key 的任务会合并
+ * 普通任务和带 key 的任务排在同一个 FIFO 中。同一个 key 再次提交时，之前还没执行的那一次作废，
+ * 新任务排到队尾，因此合并后的值不会越过在它之前提交的普通任务，也不会被较早的值覆盖。
+ * 可以在任意线程提交，执行只在一个线程上进行。
+ */
+public class CoalescingQueue {
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Keyed> latest = new ConcurrentHashMap<>();
+
+    public void add(Runnable task) {
+        tasks.add(task);
+    }
+
+    public void add(Object key, Runnable task) {
+        Keyed keyed = new Keyed(key, task);
+        latest.put(key, keyed);
+        tasks.add(keyed);
+    }
+
+    /**
+     * 依次执行排队的任务，直到队列为空或超过 deadline (System.nanoTime)
+     */
+    public void runUntil(long deadlineNanos) {
+        Runnable task;
+        while (System.nanoTime() < deadlineNanos && (task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    public boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    private final class Keyed implements Runnable {
+        private final Object key;
+        private final Runnable task;
+
+        Keyed(Object key, Runnable task) {
+            this.key = key;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            // 已被同 key 的新任务替换时跳过
+            if (latest.remove(key, this)) {
+                task.run();
+            }
+        }
+    }
+}
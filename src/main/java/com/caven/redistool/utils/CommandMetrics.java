@@ -0,0 +1,180 @@
+package com.caven.redistool.utils;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.event.command.CommandBaseEvent;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.output.CommandOutput;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按命令统计客户端侧的延迟、在途数量和返回数据大小
+ * 作为 Lettuce 的 CommandListener 注册到客户端上，所有连接 (字符串、byte[]、pub/sub) 的每条命令都会经过，
+ * 以后新增的命令不需要额外埋点。延迟从命令写入连接开始计到收到回复为止，包含网络往返和服务器处理时间
+ * (事件自带的耗时只精确到毫秒，这里在事件上下文中记录 nanoTime 自己计算)；
+ * 与服务器状态面板中 commandstats 的服务器耗时对比，就能区分慢在网络还是服务器。
+ */
+public class CommandMetrics implements CommandListener {
+    private static final int MAX_SIZED_ELEMENTS = 1000; // 集合结果只抽查前面的元素估算大小
+    private static final String STARTED_NANOS = "rct.startedNanos";
+
+    /**
+     * 单个命令的统计
+     */
+    public static final class Stats {
+        private final String command;
+        private final LogHistogram latencyMicros = new LogHistogram();
+        private final LogHistogram payloadBytes = new LogHistogram();
+        private final AtomicLong inFlight = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        private Stats(String command) {
+            this.command = command;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public LogHistogram getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        /**
+         * 回复数据的估算大小
+         */
+        public LogHistogram getPayloadBytes() {
+            return payloadBytes;
+        }
+
+        public long getInFlight() {
+            return inFlight.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        private void reset() {
+            latencyMicros.reset();
+            payloadBytes.reset();
+            failures.set(0);
+        }
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 所有出现过的命令，按名称排序
+     */
+    public List<Stats> snapshot() {
+        List<Stats> result = new ArrayList<>(stats.values());
+        result.sort((a, b) -> a.command.compareTo(b.command));
+        return result;
+    }
+
+    /**
+     * 清空统计，在途数量保留
+     */
+    public void reset() {
+        stats.values().forEach(Stats::reset);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // 开始事件和完成事件共用同一个上下文
+        event.getContext().put(STARTED_NANOS, System.nanoTime());
+        statsOf(event).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Stats s = statsOf(event);
+        s.inFlight.decrementAndGet();
+        s.latencyMicros.record(elapsedMicros(event));
+        CommandOutput<?, ?, ?> output = event.getCommand().getOutput();
+        s.payloadBytes.record(output == null ? 0 : sizeOf(output.get()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Stats s = statsOf(event);
+        s.inFlight.decrementAndGet();
+        s.failures.incrementAndGet(); // 失败 (包括超时、取消) 只计数, 不混入延迟分布
+    }
+
+    private static long elapsedMicros(CommandBaseEvent event) {
+        Object started = event.getContext().get(STARTED_NANOS);
+        if (started == null) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - (Long) started);
+    }
+
+    private Stats statsOf(CommandBaseEvent event) {
+        return stats.computeIfAbsent(event.getCommand().getType().name(), Stats::new);
+    }
+
+    /**
+     * 估算回复的大小: 字符串和字节数组按长度，集合按元素累加 (元素很多时按前 1000 个外推)
+     */
+    static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        if (value instanceof KeyScanCursor) {
+            return sizeOf(((KeyScanCursor<?>) value).getKeys());
+        }
+        if (value instanceof ValueScanCursor) {
+            return sizeOf(((ValueScanCursor<?>) value).getValues());
+        }
+        if (value instanceof MapScanCursor) {
+            return sizeOf(((MapScanCursor<?, ?>) value).getMap());
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = 0;
+            int sampled = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (sampled++ == MAX_SIZED_ELEMENTS) {
+                    return size * map.size() / MAX_SIZED_ELEMENTS;
+                }
+                size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = 0;
+            int sampled = 0;
+            for (Object element : collection) {
+                if (sampled++ == MAX_SIZED_ELEMENTS) {
+                    return size * collection.size() / MAX_SIZED_ELEMENTS;
+                }
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        return 0;
+    }
+}
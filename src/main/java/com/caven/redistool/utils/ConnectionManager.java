@@ -0,0 +1,165 @@
+package com.caven.redistool.utils;
+
+import com.caven.redistool.config.ServerConfig;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接管理器
+ * 所有 RedisConnection 共享同一个 ClientResources (Netty 线程池、定时器等)，
+ * 切换服务器时旧连接不会立即关闭，而是保温一段时间，再次切回时直接复用，省去 TCP/TLS 握手和 AUTH。
+ * 空闲连接数量和空闲时长都有上限，超出后按最近最少使用的顺序关闭。
+ */
+public class ConnectionManager {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionManager.class);
+    private static final ConnectionManager INSTANCE = new ConnectionManager();
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ClientResources resources = DefaultClientResources.create();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "redis-connection-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 按最近使用排序的空闲连接, key 见 cacheKey
+    private final LinkedHashMap<String, IdleEntry> idleConnections = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<RedisConnection, String> activeConnections = new LinkedHashMap<>();
+    private boolean shutdown;
+
+    private ConnectionManager() {
+        evictor.scheduleAtFixedRate(this::evictExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public static ConnectionManager getInstance() {
+        return INSTANCE;
+    }
+
+    public ClientResources getResources() {
+        return resources;
+    }
+
+    /**
+     * 获取到指定服务器的连接，优先复用保温中的连接
+     * @param config 服务器配置
+     * @param password 解密后的密码
+     */
+    public RedisConnection acquire(ServerConfig config, String password) {
+        String key = cacheKey(config);
+        synchronized (this) {
+            if (shutdown) {
+                throw new IllegalStateException("ConnectionManager has been shut down.");
+            }
+            IdleEntry idle = idleConnections.remove(key);
+            if (idle != null) {
+                if (idle.connection.isOpen()) {
+                    activeConnections.put(idle.connection, key);
+                    log.info("复用保温连接 {}", config);
+                    return idle.connection;
+                }
+                close(idle.connection);
+            }
+        }
+
+        // 建立新连接比较耗时，不在锁内进行
+        RedisConnection connection = new RedisConnection(resources);
+        connection.connect(config.getHost(), config.getPort(), password, config.isCluster());
+        synchronized (this) {
+            activeConnections.put(connection, key);
+        }
+        return connection;
+    }
+
+    /**
+     * 归还连接，连接保持打开直到空闲超时或被更新的连接挤出
+     */
+    public void release(RedisConnection connection) {
+        List<RedisConnection> evicted = new ArrayList<>();
+        synchronized (this) {
+            String key = activeConnections.remove(connection);
+            if (key == null) {
+                return;
+            }
+            IdleEntry previous = idleConnections.put(key, new IdleEntry(connection, System.currentTimeMillis()));
+            if (previous != null && previous.connection != connection) {
+                evicted.add(previous.connection);
+            }
+            Iterator<IdleEntry> it = idleConnections.values().iterator();
+            while (idleConnections.size() > MAX_IDLE_CONNECTIONS && it.hasNext()) {
+                evicted.add(it.next().connection);
+                it.remove();
+            }
+        }
+        evicted.forEach(this::close);
+    }
+
+    private void evictExpired() {
+        List<RedisConnection> evicted = new ArrayList<>();
+        long deadline = System.currentTimeMillis() - IDLE_TIMEOUT_MILLIS;
+        synchronized (this) {
+            Iterator<IdleEntry> it = idleConnections.values().iterator();
+            while (it.hasNext()) {
+                IdleEntry entry = it.next();
+                if (entry.idleSince < deadline || !entry.connection.isOpen()) {
+                    evicted.add(entry.connection);
+                    it.remove();
+                }
+            }
+        }
+        evicted.forEach(this::close);
+    }
+
+    /**
+     * 关闭所有连接和共享资源，应用退出时调用
+     */
+    public void shutdown() {
+        List<RedisConnection> all = new ArrayList<>();
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            idleConnections.values().forEach(entry -> all.add(entry.connection));
+            all.addAll(activeConnections.keySet());
+            idleConnections.clear();
+            activeConnections.clear();
+        }
+        evictor.shutdownNow();
+        all.forEach(this::close);
+        resources.shutdown();
+    }
+
+    private void close(RedisConnection connection) {
+        try {
+            connection.disconnect();
+        } catch (Exception e) {
+            log.warn("关闭连接失败: ", e);
+        }
+    }
+
+    private static String cacheKey(ServerConfig config) {
+        return config.getHost() + ":" + config.getPort() + "/" + config.isCluster() + "/" + config.getEncryptedPassword();
+    }
+
+    private static final class IdleEntry {
+        private final RedisConnection connection;
+        private final long idleSince;
+
+        private IdleEntry(RedisConnection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+}
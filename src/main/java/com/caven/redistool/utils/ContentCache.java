@@ -0,0 +1,124 @@
+package com.caven.redistool.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按字节数限制大小的本地内容缓存
+ * 以 Redis key 为单位做 LRU 淘汰，同一个 key 下按操作 (GET、某一页 LRANGE/HSCAN 等) 分别保存结果。
+ * 失效以 key 为单位整体移除，由 CLIENT TRACKING 的 invalidate 推送触发。
+ * <p>
+ * 读取前先取 {@link #epoch()}，结果返回后带着这个值写入；期间发生过任何失效时丢弃写入，
+ * 避免 "先收到失效推送、后收到旧值" 时把旧值放回缓存。
+ */
+public class ContentCache {
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, KeyEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+    private long epoch;
+    private long hits;
+    private long misses;
+
+    public ContentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * 当前失效序号，发起读取前获取
+     */
+    public synchronized long epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return 缓存的结果, 未命中时为 null
+     */
+    public synchronized Object get(String key, String op) {
+        KeyEntry entry = entries.get(key);
+        Object value = entry != null ? entry.values.get(op) : null;
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * 写入一次读取的结果
+     * @param readEpoch 发起读取前的 {@link #epoch()}
+     * @param size 结果大约占用的字节数
+     */
+    public synchronized void put(String key, String op, Object value, long size, long readEpoch) {
+        long cost = size + ENTRY_OVERHEAD + 2L * op.length();
+        if (readEpoch != epoch || value == null || cost > maxBytes / 4) {
+            return; // 读取期间有失效，或者单个结果太大不值得占用缓存
+        }
+        KeyEntry entry = entries.computeIfAbsent(key, k -> {
+            usedBytes += ENTRY_OVERHEAD + 2L * k.length();
+            return new KeyEntry(ENTRY_OVERHEAD + 2L * k.length());
+        });
+        Long previous = entry.sizes.put(op, cost);
+        entry.values.put(op, value);
+        long delta = cost - (previous != null ? previous : 0);
+        entry.bytes += delta;
+        usedBytes += delta;
+        evict();
+    }
+
+    public synchronized void invalidate(List<String> keys) {
+        epoch++;
+        for (String key : keys) {
+            KeyEntry entry = entries.remove(key);
+            if (entry != null) {
+                usedBytes -= entry.bytes;
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        epoch++;
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private void evict() {
+        Iterator<KeyEntry> it = entries.values().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    private static final class KeyEntry {
+        private final Map<String, Object> values = new HashMap<>(4);
+        private final Map<String, Long> sizes = new HashMap<>(4);
+        private long bytes;
+
+        private KeyEntry(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.caven.redistool.utils;
+
+import com.caven.redistool.entity.KeyDump;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 导出文件的读取器，逐块解压，任何时候只在内存中保留一个数据块
+ * 文件格式见 DumpArchiveWriter。
+ */
+public class DumpArchiveReader implements Closeable {
+    private final DataInputStream in;
+    private final boolean compressed;
+    private final Inflater inflater = new Inflater();
+    private DataInputStream chunk;
+    private boolean finished;
+
+    public DumpArchiveReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        byte[] magic = new byte[DumpArchiveWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, DumpArchiveWriter.MAGIC)) {
+            in.close();
+            throw new IOException("不是导出文件: " + file);
+        }
+        this.compressed = (in.readUnsignedByte() & DumpArchiveWriter.FLAG_DEFLATE) != 0;
+    }
+
+    /**
+     * @return 下一条记录，读完时返回 null
+     */
+    public KeyDump next() throws IOException {
+        while (chunk == null || chunk.available() == 0) {
+            if (finished || !nextChunk()) {
+                return null;
+            }
+        }
+        byte[] key = new byte[chunk.readInt()];
+        chunk.readFully(key);
+        long ttl = chunk.readLong();
+        byte[] payload = new byte[chunk.readInt()];
+        chunk.readFully(payload);
+        return new KeyDump(new String(key, StandardCharsets.UTF_8), ttl, payload);
+    }
+
+    private boolean nextChunk() throws IOException {
+        int rawLength = in.readInt();
+        int storedLength = in.readInt();
+        if (rawLength == 0) {
+            finished = true;
+            return false;
+        }
+        byte[] stored = new byte[storedLength];
+        in.readFully(stored);
+        byte[] raw = stored;
+        if (compressed) {
+            raw = new byte[rawLength];
+            inflater.reset();
+            inflater.setInput(stored);
+            try {
+                int n = 0;
+                while (n < rawLength && !inflater.finished()) {
+                    int count = inflater.inflate(raw, n, rawLength - n);
+                    if (count == 0 && inflater.needsInput()) {
+                        throw new IOException("导出文件已损坏: 数据块不完整");
+                    }
+                    n += count;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("导出文件已损坏", e);
+            }
+        }
+        chunk = new DataInputStream(new ByteArrayInputStream(raw));
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+}
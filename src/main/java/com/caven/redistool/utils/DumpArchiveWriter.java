@@ -0,0 +1,97 @@
+package com.caven.redistool.utils;
+
+import com.caven.redistool.entity.KeyDump;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+/**
+ * 导出文件的写入器
+ * 文件格式: 8 字节魔数 + 1 字节标志 (是否压缩)，之后是若干数据块，
+ * 每块为 [原始长度 int][存储长度 int][数据]，原始长度为 0 的块表示结束。
+ * 块内依次存放记录 [key 长度 int][key][剩余存活毫秒 long][payload 长度 int][payload]。
+ * 记录先攒进约 1MB 的块缓冲再整体 (可选 Deflate 压缩) 写出，内存占用与导出总量无关。
+ */
+public class DumpArchiveWriter implements Closeable {
+    static final byte[] MAGIC = "RCTDUMP1".getBytes(StandardCharsets.US_ASCII);
+    static final int FLAG_DEFLATE = 1;
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final DataOutputStream out;
+    private final boolean compress;
+    private final ByteArrayOutputStream chunkBuffer = new ByteArrayOutputStream(CHUNK_SIZE + 64 * 1024);
+    private final DataOutputStream chunk = new DataOutputStream(chunkBuffer);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private long records;
+
+    public DumpArchiveWriter(Path file, boolean compress) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        this.compress = compress;
+        out.write(MAGIC);
+        out.writeByte(compress ? FLAG_DEFLATE : 0);
+    }
+
+    public void write(KeyDump dump) throws IOException {
+        byte[] key = dump.getKey().getBytes(StandardCharsets.UTF_8);
+        chunk.writeInt(key.length);
+        chunk.write(key);
+        chunk.writeLong(dump.getTtlMillis());
+        chunk.writeInt(dump.getPayload().length);
+        chunk.write(dump.getPayload());
+        records++;
+        if (chunkBuffer.size() >= CHUNK_SIZE) {
+            flushChunk();
+        }
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    private void flushChunk() throws IOException {
+        if (chunkBuffer.size() == 0) {
+            return;
+        }
+        byte[] raw = chunkBuffer.toByteArray();
+        chunkBuffer.reset();
+        out.writeInt(raw.length);
+        if (!compress) {
+            out.writeInt(raw.length);
+            out.write(raw);
+            return;
+        }
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] buffer = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            compressed.write(buffer, 0, n);
+        }
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+    }
+
+    /**
+     * 写出剩余记录和结束标记
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushChunk();
+            out.writeInt(0);
+            out.writeInt(0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.caven.redistool.utils;
+
+/**
+ * 本地实现的 Redis glob 匹配，语义与服务端的 stringmatchlen 一致
+ * 支持 * ? [abc] [^abc] [a-z] 以及反斜杠转义，用于不经过服务器的场景 (如离线 RDB 浏览)。
+ */
+public final class GlobMatcher {
+
+    private GlobMatcher() {
+    }
+
+    public static boolean matches(String pattern, String text) {
+        int p = 0;
+        int t = 0;
+        int starP = -1; // 最近一个 * 之后的模式位置
+        int starT = -1; // 该 * 目前吞到的文本位置
+        while (t < text.length()) {
+            if (p < pattern.length()) {
+                if (pattern.charAt(p) == '*') {
+                    starP = ++p;
+                    starT = t;
+                    continue;
+                }
+                int next = matchOne(pattern, p, text.charAt(t));
+                if (next >= 0) {
+                    p = next;
+                    t++;
+                    continue;
+                }
+            }
+            // 当前位置失配，回到上一个 * 让它多吞一个字符
+            if (starP < 0) {
+                return false;
+            }
+            p = starP;
+            t = ++starT;
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * 转义 Redis glob 的特殊字符 * ? [ ] \，得到只匹配 text 本身的模式
+     */
+    public static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 模式开头不含通配符的部分，可以用来缩小有序 key 的查找范围
+     */
+    public static String literalPrefix(String pattern) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[') {
+                break;
+            }
+            if (c == '\\' && i + 1 < pattern.length()) {
+                c = pattern.charAt(++i);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 用模式中 p 处的一个元素匹配字符 c
+     * @return 匹配时返回下一个元素的位置，否则返回 -1
+     */
+    private static int matchOne(String pattern, int p, char c) {
+        char pc = pattern.charAt(p);
+        if (pc == '?') {
+            return p + 1;
+        }
+        if (pc == '\\' && p + 1 < pattern.length()) {
+            return pattern.charAt(p + 1) == c ? p + 2 : -1;
+        }
+        if (pc != '[') {
+            return pc == c ? p + 1 : -1;
+        }
+
+        int i = p + 1;
+        boolean not = i < pattern.length() && pattern.charAt(i) == '^';
+        if (not) {
+            i++;
+        }
+        boolean match = false;
+        // 缺少 ] 时字符集一直延续到模式末尾，与服务端一致
+        while (i < pattern.length() && pattern.charAt(i) != ']') {
+            char cc = pattern.charAt(i);
+            if (cc == '\\' && i + 1 < pattern.length()) {
+                i++;
+                if (pattern.charAt(i) == c) {
+                    match = true;
+                }
+            } else if (i + 2 < pattern.length() && pattern.charAt(i + 1) == '-') {
+                char start = cc;
+                char end = pattern.charAt(i + 2);
+                if (start > end) {
+                    char tmp = start;
+                    start = end;
+                    end = tmp;
+                }
+                if (c >= start && c <= end) {
+                    match = true;
+                }
+                i += 2;
+            } else if (cc == c) {
+                match = true;
+            }
+            i++;
+        }
+        return match != not ? i + 1 : -1;
+    }
+}
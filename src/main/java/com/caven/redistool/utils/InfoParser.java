@@ -0,0 +1,92 @@
+package com.caven.redistool.utils;
+
+/**
+ * 在 INFO 的原始文本上直接读取数值字段
+ * 只查找需要的字段并原地解析数字，不把整段文本拆成行或 Map，周期性采样时几乎不产生垃圾。
+ */
+public final class InfoParser {
+
+    private InfoParser() {
+    }
+
+    /**
+     * 读取 "name:123" 形式的整数字段
+     * @return 字段值, 不存在时为 defaultValue
+     */
+    public static long longField(String info, String name, long defaultValue) {
+        int start = valueStart(info, name);
+        if (start < 0) {
+            return defaultValue;
+        }
+        return parseLong(info, start, defaultValue);
+    }
+
+    /**
+     * 读取 "name:1.5" 形式的小数字段
+     */
+    public static double doubleField(String info, String name, double defaultValue) {
+        int start = valueStart(info, name);
+        if (start < 0) {
+            return defaultValue;
+        }
+        int end = start;
+        while (end < info.length() && info.charAt(end) != '\r' && info.charAt(end) != '\n') {
+            end++;
+        }
+        try {
+            return Double.parseDouble(info.substring(start, end));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 在 [from, to) 区间内读取 "key=123" 形式的整数 (commandstats、keyspace 等行内字段)
+     */
+    public static long inlineLong(String info, int from, int to, String key, long defaultValue) {
+        int index = from;
+        while ((index = info.indexOf(key, index)) >= 0 && index < to) {
+            boolean boundary = index == from || info.charAt(index - 1) == ',' || info.charAt(index - 1) == ':';
+            int valueStart = index + key.length();
+            if (boundary && valueStart < to && info.charAt(valueStart) == '=') {
+                return parseLong(info, valueStart + 1, defaultValue);
+            }
+            index = valueStart;
+        }
+        return defaultValue;
+    }
+
+    private static int valueStart(String info, String name) {
+        int index = 0;
+        while ((index = info.indexOf(name, index)) >= 0) {
+            boolean lineStart = index == 0 || info.charAt(index - 1) == '\n';
+            int colon = index + name.length();
+            if (lineStart && colon < info.length() && info.charAt(colon) == ':') {
+                return colon + 1;
+            }
+            index = colon;
+        }
+        return -1;
+    }
+
+    private static long parseLong(String text, int start, long defaultValue) {
+        int i = start;
+        boolean negative = i < text.length() && text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < text.length(); i++, digits++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (digits == 0) {
+            return defaultValue;
+        }
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,965 @@
+package com.caven.redistool.utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * 本地 key 索引，由已经发生过的扫描 (加载、后台扫描、实时更新) 顺带填充，搜索时不必再遍历服务器
+ * <p>
+ * key 以 UTF-8 字节连续存放在 1MB 的块中，每个 key 只额外占用位置、长度、类型和一个 64 位的二元组签名，
+ * 没有 String 对象；同一个 key 重复加入时按哈希表去重。删除只把类型置为 0，重新出现时复用原来的编号。
+ * <p>
+ * 搜索把编号区间切成若干段并行求值: 包含匹配先用二元组签名排除不可能的 key 再比较字节，
+ * 通配符先用模式中最长的一段字面量做同样的预筛，正则和模糊匹配逐个求值。
+ * <p>
+ * 每个 key 记录最后一次出现在哪一轮遍历 (epoch)，完整遍历一次 keyspace 后，
+ * 本轮没有出现的 key 可以认为已经不在服务器上了，用于核对从文件恢复的旧索引。
+ */
+public class KeyIndex {
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int SEGMENT_SIZE = 1 << 16; // 并行搜索时每段的 key 数
+    private static final byte[] FILE_MAGIC = {'R', 'C', 'T', 'K', 'I', 'D', 'X', 1};
+    private static final int MAP_WINDOW = 64 << 20; // 读写文件时每次映射的字节数
+
+    /**
+     * 搜索方式
+     */
+    public enum Mode {
+        GLOB("通配符"),
+        SUBSTRING("包含"),
+        REGEX("正则"),
+        FUZZY("模糊");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label; // ComboBox 显示
+        }
+    }
+
+    /**
+     * 编译好的搜索条件，可以在多个线程上同时使用
+     */
+    public static final class Query {
+        private final Mode mode;
+        private final String text;
+        private final boolean caseSensitive;
+        private final byte[] literal;   // 字节级预筛用的字面量, 不区分大小写时为小写
+        private final long signature;   // literal 的二元组签名, 模糊匹配为 0 (不预筛)
+        private final Pattern regex;
+        private final String glob;
+
+        private Query(Mode mode, String text, boolean caseSensitive) {
+            this.mode = mode;
+            this.text = text;
+            this.caseSensitive = caseSensitive;
+            String literalText;
+            switch (mode) {
+                case GLOB:
+                    glob = caseSensitive ? text : text.toLowerCase();
+                    literalText = longestLiteral(text);
+                    regex = null;
+                    break;
+                case REGEX:
+                    regex = Pattern.compile(text, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+                    literalText = "";
+                    glob = null;
+                    break;
+                default:
+                    literalText = text;
+                    regex = null;
+                    glob = null;
+                    break;
+            }
+            byte[] bytes = literalText.getBytes(StandardCharsets.UTF_8);
+            literal = caseSensitive && mode != Mode.FUZZY ? bytes : toLowerAscii(bytes);
+            // 模糊匹配的字符在 key 中不必相邻, 二元组预筛会漏掉 "usr" 这样的子序列
+            signature = mode == Mode.FUZZY ? 0 : signatureOf(literal, 0, literal.length);
+        }
+
+        /**
+         * @throws java.util.regex.PatternSyntaxException 正则表达式不合法
+         */
+        public static Query of(Mode mode, String text, boolean caseSensitive) {
+            return new Query(mode, text, caseSensitive && mode != Mode.FUZZY);
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public boolean isCaseSensitive() {
+            return caseSensitive;
+        }
+
+        /**
+         * 对应的服务端 SCAN MATCH 模式，用来在服务器上查找尚未索引的 key
+         * @return 正则和模糊匹配无法在服务端表达，返回 null
+         */
+        public String serverPattern() {
+            switch (mode) {
+                case GLOB:
+                    return caseSensitive ? text : caseInsensitiveGlob(text);
+                case SUBSTRING:
+                    String escaped = GlobMatcher.escape(text);
+                    return "*" + (caseSensitive ? escaped : caseInsensitiveGlob(escaped)) + "*";
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * 单个 key 是否匹配，用于过滤实时更新等零散的 key
+         */
+        public boolean matches(String key) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            return score(bytes, 0, bytes.length, signatureOf(bytes, 0, bytes.length)) >= 0;
+        }
+
+        /**
+         * @return 不匹配时为 -1; 模糊匹配返回得分, 其他方式返回 0
+         */
+        private int score(byte[] data, int offset, int length, long keySignature) {
+            if (literal.length > 1 && (keySignature & signature) != signature) {
+                return -1; // 字面量中有 key 里不存在的二元组
+            }
+            switch (mode) {
+                case SUBSTRING:
+                    return indexOf(data, offset, length, literal, !caseSensitive) >= 0 ? 0 : -1;
+                case GLOB:
+                    if (literal.length > 0 && indexOf(data, offset, length, literal, !caseSensitive) < 0) {
+                        return -1;
+                    }
+                    String key = new String(data, offset, length, StandardCharsets.UTF_8);
+                    return GlobMatcher.matches(glob, caseSensitive ? key : key.toLowerCase()) ? 0 : -1;
+                case REGEX:
+                    Matcher matcher = regex.matcher(new String(data, offset, length, StandardCharsets.UTF_8));
+                    return matcher.find() ? 0 : -1;
+                default:
+                    return fuzzyScore(data, offset, length, literal);
+            }
+        }
+    }
+
+    /**
+     * 搜索结果，keys 与 types 一一对应
+     */
+    public static final class Result {
+        private final List<String> keys;
+        private final List<String> types;
+        private final long totalMatches;
+        private final long searchedKeys;
+
+        private Result(List<String> keys, List<String> types, long totalMatches, long searchedKeys) {
+            this.keys = keys;
+            this.types = types;
+            this.totalMatches = totalMatches;
+            this.searchedKeys = searchedKeys;
+        }
+
+        public List<String> getKeys() {
+            return keys;
+        }
+
+        public List<String> getTypes() {
+            return types;
+        }
+
+        /**
+         * 匹配的总数，超过 limit 时大于 keys 的数量
+         */
+        public long getTotalMatches() {
+            return totalMatches;
+        }
+
+        /**
+         * 参与搜索的 key 数 (索引中现存的 key)
+         */
+        public long getSearchedKeys() {
+            return searchedKeys;
+        }
+
+        public boolean isTruncated() {
+            return totalMatches > keys.size();
+        }
+    }
+
+    /**
+     * 搜索开始时的只读视图: 数组只会追加, 取到引用和数量后就可以不加锁读取
+     */
+    private static final class Snapshot {
+        final byte[][] chunks;
+        final long[] locations;
+        final int[] lengths;
+        final byte[] types;
+        final long[] signatures;
+        final String[] typeNames;
+        final int size;
+
+        Snapshot(byte[][] chunks, long[] locations, int[] lengths, byte[] types, long[] signatures, String[] typeNames, int size) {
+            this.chunks = chunks;
+            this.locations = locations;
+            this.lengths = lengths;
+            this.types = types;
+            this.signatures = signatures;
+            this.typeNames = typeNames;
+            this.size = size;
+        }
+
+        String key(int id) {
+            long location = locations[id];
+            return new String(chunks[(int) (location >>> 32)], (int) location, lengths[id], StandardCharsets.UTF_8);
+        }
+    }
+
+    private byte[][] chunks = new byte[16][];
+    private int chunkCount;
+    private int chunkUsed = CHUNK_SIZE; // 当前块已用字节, 初始为满, 第一次写入时分配
+    private long[] locations = new long[1024]; // 块号 << 32 | 块内偏移
+    private int[] lengths = new int[1024];
+    private byte[] types = new byte[1024];     // typeNames 的下标, 0 表示已删除
+    private long[] signatures = new long[1024];
+    private int size;
+    private int liveCount;
+    private int[] table = new int[2048];       // 开放寻址哈希表, 存编号 + 1
+    private String[] typeNames = {null};
+    private int[] epochs = new int[1024];      // key 最后一次出现的轮次
+    private int epoch;
+    private long modCount;
+
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * 索引占用的大致字节数
+     */
+    public synchronized long memoryBytes() {
+        return (long) chunkCount * CHUNK_SIZE + (long) locations.length * (8 + 4 + 1 + 8) + (long) table.length * 4;
+    }
+
+    public synchronized void clear() {
+        chunks = new byte[16][];
+        chunkCount = 0;
+        chunkUsed = CHUNK_SIZE;
+        locations = new long[1024];
+        lengths = new int[1024];
+        types = new byte[1024];
+        signatures = new long[1024];
+        size = 0;
+        liveCount = 0;
+        table = new int[2048];
+        typeNames = new String[]{null};
+        epochs = new int[1024];
+        modCount++;
+    }
+
+    /**
+     * 每次增删或类型变化都会递增，用来判断索引是否需要重新保存
+     */
+    public synchronized long getModCount() {
+        return modCount;
+    }
+
+    /**
+     * 开始新一轮完整遍历，之后加入或再次出现的 key 都标记为本轮
+     */
+    public synchronized void beginEpoch() {
+        epoch++;
+    }
+
+    /**
+     * 完整遍历结束后调用: 删除本轮没有出现过的 key
+     * @return 被删除的 key
+     */
+    public synchronized List<String> sweep() {
+        Snapshot snapshot = new Snapshot(chunks, locations, lengths, types, signatures, typeNames, size);
+        List<String> removed = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            if (types[id] != 0 && epochs[id] != epoch) {
+                removed.add(snapshot.key(id));
+                types[id] = 0;
+                liveCount--;
+            }
+        }
+        if (!removed.isEmpty()) {
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * 按加入顺序分批遍历现存的 key，不会一次性生成全部 String
+     */
+    public void forEachBatch(int batchSize, BiConsumer<List<String>, List<String>> consumer) {
+        Snapshot snapshot;
+        synchronized (this) {
+            snapshot = new Snapshot(chunks, locations, lengths, types, signatures, typeNames, size);
+        }
+        List<String> keys = new ArrayList<>(batchSize);
+        List<String> keyTypes = new ArrayList<>(batchSize);
+        for (int id = 0; id < snapshot.size; id++) {
+            byte type = snapshot.types[id];
+            if (type == 0) {
+                continue;
+            }
+            keys.add(snapshot.key(id));
+            keyTypes.add(snapshot.typeNames[type]);
+            if (keys.size() == batchSize) {
+                consumer.accept(keys, keyTypes);
+                keys = new ArrayList<>(batchSize);
+                keyTypes = new ArrayList<>(batchSize);
+            }
+        }
+        if (!keys.isEmpty()) {
+            consumer.accept(keys, keyTypes);
+        }
+    }
+
+    /**
+     * 把现存的 key 写入一个新文件 (内存映射，按窗口分段写入)
+     * 格式: 标识 | 类型数 | 类型名... | key 数 | (类型, 长度, UTF-8 字节)...
+     * 标识最后写入，写到一半中断的文件在读取时会被拒绝。
+     * @param file 必须不存在
+     */
+    public void writeTo(Path file) throws IOException {
+        Snapshot snapshot;
+        byte[] keyTypes;
+        synchronized (this) {
+            snapshot = new Snapshot(chunks, locations, lengths, types, signatures, typeNames, size);
+            keyTypes = Arrays.copyOf(types, size); // 类型会被原地修改, 复制一份保证算出的长度与写入的内容一致
+        }
+        byte[][] names = new byte[snapshot.typeNames.length][];
+        long length = FILE_MAGIC.length + 4 + 8;
+        for (int i = 1; i < names.length; i++) {
+            names[i] = snapshot.typeNames[i].getBytes(StandardCharsets.UTF_8);
+            length += 2 + names[i].length;
+        }
+        long keyCount = 0;
+        for (int id = 0; id < snapshot.size; id++) {
+            if (keyTypes[id] != 0) {
+                length += 1 + varintSize(snapshot.lengths[id]) + snapshot.lengths[id];
+                keyCount++;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedOutput out = new MappedOutput(channel, length);
+            out.put(new byte[FILE_MAGIC.length], 0, FILE_MAGIC.length);
+            out.putInt(names.length - 1);
+            for (int i = 1; i < names.length; i++) {
+                out.putShort(names[i].length);
+                out.put(names[i], 0, names[i].length);
+            }
+            out.putLong(keyCount);
+            for (int id = 0; id < snapshot.size; id++) {
+                if (keyTypes[id] == 0) {
+                    continue;
+                }
+                long location = snapshot.locations[id];
+                out.put(keyTypes[id]);
+                out.putVarint(snapshot.lengths[id]);
+                out.put(snapshot.chunks[(int) (location >>> 32)], (int) location, snapshot.lengths[id]);
+            }
+            out.force();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_MAGIC.length);
+            header.put(FILE_MAGIC);
+            header.force();
+        }
+    }
+
+    /**
+     * 从 {@link #writeTo} 写出的文件恢复索引，恢复的 key 属于第 0 轮
+     * @throws IOException 文件不完整或格式不对
+     */
+    public static KeyIndex readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedInput in = new MappedInput(channel, channel.size());
+            if (!Arrays.equals(in.bytes(FILE_MAGIC.length), FILE_MAGIC)) {
+                throw new IOException("not a complete key index file: " + file);
+            }
+            KeyIndex index = new KeyIndex();
+            int typeCount = in.getInt();
+            if (typeCount < 0 || typeCount >= Byte.MAX_VALUE) {
+                throw new IOException("corrupt key index file: " + file);
+            }
+            byte[] typeCodes = new byte[typeCount + 1];
+            for (int i = 1; i <= typeCount; i++) {
+                typeCodes[i] = index.typeCode(new String(in.bytes(in.getShort()), StandardCharsets.UTF_8));
+            }
+            long keyCount = in.getLong();
+            if (keyCount < 0 || keyCount > Integer.MAX_VALUE - 8) {
+                throw new IOException("corrupt key index file: " + file);
+            }
+            index.ensureCapacity((int) keyCount);
+            for (long i = 0; i < keyCount; i++) {
+                int type = in.get();
+                if (type <= 0 || type > typeCount) {
+                    throw new IOException("corrupt key index file: " + file);
+                }
+                index.add(in.bytes(in.getVarint()), typeCodes[type]);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 加入一页 key，已存在的只更新类型；类型为 "none" 的视为已删除
+     */
+    public synchronized void addAll(List<String> keys, List<String> keyTypes) {
+        for (int i = 0; i < keys.size(); i++) {
+            String type = keyTypes.get(i);
+            if ("none".equals(type)) {
+                remove(keys.get(i));
+            } else {
+                add(keys.get(i).getBytes(StandardCharsets.UTF_8), typeCode(type));
+            }
+        }
+    }
+
+    public synchronized void removeAll(Collection<String> keys) {
+        keys.forEach(this::remove);
+    }
+
+    public CompletableFuture<Result> searchAsync(Query query, int limit) {
+        return CompletableFuture.supplyAsync(() -> search(query, limit));
+    }
+
+    /**
+     * 在公共 ForkJoinPool 上并行搜索
+     * @param query null 表示列出全部 key
+     * @param limit 最多返回的 key 数; 模糊匹配返回得分最高的 limit 个, 其他方式按加入顺序返回前 limit 个
+     */
+    public Result search(Query query, int limit) {
+        Snapshot snapshot;
+        synchronized (this) {
+            snapshot = new Snapshot(chunks, locations, lengths, types, signatures, typeNames, size);
+        }
+        int segments = (snapshot.size + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        boolean fuzzy = query != null && query.mode == Mode.FUZZY;
+        long[][] hits = IntStream.range(0, segments).parallel()
+                .mapToObj(segment -> searchSegment(snapshot, query, segment, limit, fuzzy))
+                .toArray(long[][]::new);
+
+        long total = 0;
+        long searched = 0;
+        for (long[] segmentHits : hits) {
+            total += segmentHits[0];
+            searched += segmentHits[1];
+        }
+        // 每段的结果已按段内顺序 (模糊匹配按得分) 排好, 合并后取前 limit 个
+        long[] merged = new long[(int) Math.min(total, (long) limit * Math.max(1, segments))];
+        int count = 0;
+        for (long[] segmentHits : hits) {
+            int n = Math.min(segmentHits.length - 2, merged.length - count);
+            System.arraycopy(segmentHits, 2, merged, count, n);
+            count += n;
+        }
+        if (fuzzy) {
+            Arrays.sort(merged, 0, count);
+        }
+        int resultSize = (int) Math.min(count, limit);
+        List<String> keys = new ArrayList<>(resultSize);
+        List<String> keyTypes = new ArrayList<>(resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            int id = (int) merged[i];
+            keys.add(snapshot.key(id));
+            keyTypes.add(snapshot.typeNames[snapshot.types[id]]);
+        }
+        return new Result(keys, keyTypes, total, searched);
+    }
+
+    /**
+     * 搜索一段编号
+     * @return [匹配数, 现存 key 数, 命中...]; 命中为编号, 模糊匹配时高 32 位是取反的得分, 排序后得分高的在前
+     */
+    private static long[] searchSegment(Snapshot s, Query query, int segment, int limit, boolean fuzzy) {
+        int from = segment * SEGMENT_SIZE;
+        int to = Math.min(s.size, from + SEGMENT_SIZE);
+        long[] hits = new long[2 + Math.min(limit, 256)];
+        int count = 0;
+        long matches = 0;
+        long live = 0;
+        for (int id = from; id < to; id++) {
+            if (s.types[id] == 0) {
+                continue;
+            }
+            live++;
+            int score = 0;
+            if (query != null) {
+                long location = s.locations[id];
+                score = query.score(s.chunks[(int) (location >>> 32)], (int) location, s.lengths[id], s.signatures[id]);
+                if (score < 0) {
+                    continue;
+                }
+            }
+            matches++;
+            if (!fuzzy && count >= limit) {
+                continue; // 只计数
+            }
+            if (2 + count == hits.length) {
+                // 模糊匹配最多暂存 2 * limit 个, 其他方式最多 limit 个
+                hits = Arrays.copyOf(hits, (int) Math.min(2 + 2L * limit, hits.length * 2L));
+            }
+            hits[2 + count++] = fuzzy ? ((long) (Integer.MAX_VALUE - score) << 32) | id : id;
+            if (fuzzy && count >= limit * 2) {
+                // 只保留得分最高的 limit 个, 摊还后排序开销与 limit 成正比
+                Arrays.sort(hits, 2, 2 + count);
+                count = limit;
+            }
+        }
+        if (fuzzy) {
+            Arrays.sort(hits, 2, 2 + count);
+            count = Math.min(count, limit);
+        }
+        long[] result = Arrays.copyOf(hits, 2 + count);
+        result[0] = matches;
+        result[1] = live;
+        return result;
+    }
+
+    private void add(byte[] bytes, byte typeCode) {
+        int slot = findSlot(bytes);
+        if (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (types[id] == 0) {
+                liveCount++;
+            }
+            if (types[id] != typeCode) {
+                types[id] = typeCode;
+                modCount++;
+            }
+            epochs[id] = epoch;
+            return;
+        }
+
+        if (size == locations.length) {
+            int capacity = size + (size >> 1);
+            locations = Arrays.copyOf(locations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            types = Arrays.copyOf(types, capacity);
+            signatures = Arrays.copyOf(signatures, capacity);
+            epochs = Arrays.copyOf(epochs, capacity);
+        }
+        int id = size;
+        locations[id] = store(bytes);
+        lengths[id] = bytes.length;
+        types[id] = typeCode;
+        signatures[id] = signatureOf(bytes, 0, bytes.length);
+        epochs[id] = epoch;
+        table[slot] = id + 1;
+        size++;
+        liveCount++;
+        modCount++;
+        if (size * 4L > table.length * 3L) {
+            rehash(table.length * 2);
+        }
+    }
+
+    private void remove(String key) {
+        int slot = findSlot(key.getBytes(StandardCharsets.UTF_8));
+        if (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (types[id] != 0) {
+                types[id] = 0;
+                liveCount--;
+                modCount++;
+            }
+        }
+    }
+
+    /**
+     * 预先分配数组和哈希表，避免批量恢复时反复扩容
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > locations.length) {
+            locations = Arrays.copyOf(locations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            types = Arrays.copyOf(types, capacity);
+            signatures = Arrays.copyOf(signatures, capacity);
+            epochs = Arrays.copyOf(epochs, capacity);
+        }
+        int tableSize = table.length;
+        while (capacity * 4L > tableSize * 3L) {
+            tableSize *= 2;
+        }
+        if (tableSize > table.length) {
+            rehash(tableSize);
+        }
+    }
+
+    /**
+     * 把 key 的字节追加到块中，超过一个块的长 key 单独占用一个块
+     * 第一个 key 为空串时也要先分配块，否则块号为 -1
+     */
+    private long store(byte[] bytes) {
+        if (chunkCount == 0 || bytes.length > CHUNK_SIZE - chunkUsed) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = new byte[Math.max(CHUNK_SIZE, bytes.length)];
+            chunkUsed = 0;
+        }
+        int chunk = chunkCount - 1;
+        System.arraycopy(bytes, 0, chunks[chunk], chunkUsed, bytes.length);
+        long location = ((long) chunk << 32) | chunkUsed;
+        chunkUsed = bytes.length > CHUNK_SIZE ? CHUNK_SIZE : chunkUsed + bytes.length;
+        return location;
+    }
+
+    /**
+     * @return key 所在的槽位, 不存在时为应当插入的空槽位
+     */
+    private int findSlot(byte[] bytes) {
+        int mask = table.length - 1;
+        int slot = hash(bytes, 0, bytes.length) & mask;
+        while (table[slot] != 0 && !keyEquals(table[slot] - 1, bytes)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(int id, byte[] bytes) {
+        if (lengths[id] != bytes.length) {
+            return false;
+        }
+        long location = locations[id];
+        int offset = (int) location;
+        return Arrays.equals(chunks[(int) (location >>> 32)], offset, offset + bytes.length, bytes, 0, bytes.length);
+    }
+
+    private void rehash(int tableSize) {
+        int[] newTable = new int[tableSize];
+        int mask = newTable.length - 1;
+        for (int id = 0; id < size; id++) {
+            long location = locations[id];
+            int slot = hash(chunks[(int) (location >>> 32)], (int) location, lengths[id]) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    private byte typeCode(String type) {
+        for (int i = 1; i < typeNames.length; i++) {
+            if (typeNames[i].equals(type)) {
+                return (byte) i;
+            }
+        }
+        if (typeNames.length == Byte.MAX_VALUE) {
+            throw new IllegalStateException("too many key types");
+        }
+        // 替换数组而不是原地修改, 正在进行的搜索仍然使用旧数组
+        typeNames = Arrays.copyOf(typeNames, typeNames.length + 1);
+        typeNames[typeNames.length - 1] = type;
+        return (byte) (typeNames.length - 1);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * 按窗口顺序映射文件写入，单个映射不超过 {@link #MAP_WINDOW}，文件可以超过 2GB
+     */
+    private static final class MappedOutput {
+        private final FileChannel channel;
+        private final long length;
+        private MappedByteBuffer buffer;
+        private long base;
+
+        MappedOutput(FileChannel channel, long length) throws IOException {
+            this.channel = channel;
+            this.length = length;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(MAP_WINDOW, length));
+        }
+
+        private void ensureRemaining() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.force();
+                base += buffer.capacity();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, base, Math.min(MAP_WINDOW, length - base));
+            }
+        }
+
+        void put(byte b) throws IOException {
+            ensureRemaining();
+            buffer.put(b);
+        }
+
+        void put(byte[] data, int offset, int count) throws IOException {
+            while (count > 0) {
+                ensureRemaining();
+                int n = Math.min(count, buffer.remaining());
+                buffer.put(data, offset, n);
+                offset += n;
+                count -= n;
+            }
+        }
+
+        void putShort(int value) throws IOException {
+            put((byte) (value >>> 8));
+            put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            putShort(value >>> 16);
+            putShort(value);
+        }
+
+        void putLong(long value) throws IOException {
+            putInt((int) (value >>> 32));
+            putInt((int) value);
+        }
+
+        void putVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        void force() {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 按窗口顺序映射文件读取，与 {@link MappedOutput} 对应
+     */
+    private static final class MappedInput {
+        private final FileChannel channel;
+        private final long length;
+        private MappedByteBuffer buffer;
+        private long base;
+
+        MappedInput(FileChannel channel, long length) throws IOException {
+            this.channel = channel;
+            this.length = length;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(MAP_WINDOW, length));
+        }
+
+        private void ensureRemaining() throws IOException {
+            if (!buffer.hasRemaining()) {
+                base += buffer.capacity();
+                if (base >= length) {
+                    throw new IOException("unexpected end of key index file");
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(MAP_WINDOW, length - base));
+            }
+        }
+
+        byte get() throws IOException {
+            ensureRemaining();
+            return buffer.get();
+        }
+
+        byte[] bytes(int count) throws IOException {
+            byte[] data = new byte[count];
+            int offset = 0;
+            while (offset < count) {
+                ensureRemaining();
+                int n = Math.min(count - offset, buffer.remaining());
+                buffer.get(data, offset, n);
+                offset += n;
+            }
+            return data;
+        }
+
+        int getShort() throws IOException {
+            return (get() & 0xFF) << 8 | get() & 0xFF;
+        }
+
+        int getInt() throws IOException {
+            return getShort() << 16 | getShort();
+        }
+
+        long getLong() throws IOException {
+            return (long) getInt() << 32 | getInt() & 0xFFFFFFFFL;
+        }
+
+        int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("corrupt key index file");
+        }
+    }
+
+    private static int hash(byte[] data, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ data[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 相邻两个字节 (小写后) 各映射到 64 位中的一位
+     */
+    private static long signatureOf(byte[] data, int offset, int length) {
+        long signature = 0;
+        for (int i = offset + 1; i < offset + length; i++) {
+            int bigram = (lower(data[i - 1]) << 8) | lower(data[i]);
+            signature |= 1L << ((bigram * 0x9E3779B1) >>> 26);
+        }
+        return signature;
+    }
+
+    private static int lower(byte b) {
+        int c = b & 0xFF;
+        return c >= 'A' && c <= 'Z' ? c + 32 : c;
+    }
+
+    private static byte[] toLowerAscii(byte[] bytes) {
+        byte[] lower = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            lower[i] = (byte) lower(bytes[i]);
+        }
+        return lower;
+    }
+
+    /**
+     * @param ignoreCase 为 true 时 needle 必须已经是小写
+     */
+    private static int indexOf(byte[] data, int offset, int length, byte[] needle, boolean ignoreCase) {
+        int last = offset + length - needle.length;
+        outer:
+        for (int i = offset; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                int c = ignoreCase ? lower(data[i + j]) : data[i + j];
+                if (c != (ignoreCase ? needle[j] & 0xFF : needle[j])) {
+                    continue outer;
+                }
+            }
+            return i - offset;
+        }
+        return -1;
+    }
+
+    /**
+     * 子序列匹配: query 的字符按顺序出现在 key 中即算匹配
+     * 连续命中、命中在开头或分隔符之后加分，key 越长略微减分
+     * @return 不匹配时为 -1
+     */
+    private static int fuzzyScore(byte[] data, int offset, int length, byte[] query) {
+        if (query.length == 0) {
+            return 0;
+        }
+        int score = 0;
+        int q = 0;
+        int previous = -2;
+        for (int i = 0; i < length && q < query.length; i++) {
+            if (lower(data[offset + i]) != (query[q] & 0xFF)) {
+                continue;
+            }
+            score += 1;
+            if (previous == i - 1) {
+                score += 3;
+            }
+            if (i == 0 || isBoundary(data[offset + i - 1])) {
+                score += 2;
+            }
+            previous = i;
+            q++;
+        }
+        if (q < query.length) {
+            return -1;
+        }
+        return Math.max(0, score * 16 - length / 4);
+    }
+
+    private static boolean isBoundary(byte b) {
+        return b == ':' || b == '_' || b == '-' || b == '.' || b == '/' || b == '|' || b == ' ';
+    }
+
+    /**
+     * 通配符模式中最长的一段字面量 (不含 * ? [...])，用于字节级预筛
+     */
+    private static String longestLiteral(String glob) {
+        String best = "";
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?' || c == '[') {
+                if (current.length() > best.length()) {
+                    best = current.toString();
+                }
+                current.setLength(0);
+                if (c == '[') {
+                    while (i < glob.length() && glob.charAt(i) != ']') {
+                        i++;
+                    }
+                }
+                continue;
+            }
+            if (c == '\\' && i + 1 < glob.length()) {
+                c = glob.charAt(++i);
+            }
+            current.append(c);
+        }
+        return current.length() > best.length() ? current.toString() : best;
+    }
+
+    /**
+     * 把模式中的字面字母改写成 [aA] 形式，转义和字符集保持原样
+     */
+    private static String caseInsensitiveGlob(String glob) {
+        StringBuilder sb = new StringBuilder(glob.length() * 2);
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\' && i + 1 < glob.length()) {
+                char next = glob.charAt(++i);
+                if (Character.isLetter(next) && Character.toLowerCase(next) != Character.toUpperCase(next)) {
+                    sb.append('[').append(Character.toLowerCase(next)).append(Character.toUpperCase(next)).append(']');
+                } else {
+                    sb.append(c).append(next);
+                }
+            } else if (c == '[') {
+                int end = glob.indexOf(']', i + 1);
+                end = end < 0 ? glob.length() - 1 : end;
+                sb.append(glob, i, end + 1);
+                i = end;
+            } else if (Character.isLetter(c) && Character.toLowerCase(c) != Character.toUpperCase(c)) {
+                sb.append('[').append(Character.toLowerCase(c)).append(Character.toUpperCase(c)).append(']');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
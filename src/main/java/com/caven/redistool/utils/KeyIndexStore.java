@@ -0,0 +1,146 @@
+package com.caven.redistool.utils;
+
+import com.caven.redistool.config.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个服务器的 key 索引快照 (data/keyindex/)，重新连接时先显示上次的 Key 树，再在后台与服务器核对
+ * <p>
+ * 每次保存都写一个以保存时间命名的新文件，成功后再删除旧文件。
+ * 不覆盖也不重命名正在被映射的文件 (Windows 上映射在 GC 之前不会释放)，删不掉的旧文件留到下次保存时再删。
+ * 读取时从最新的文件开始，跳过不完整的。
+ */
+public class KeyIndexStore {
+    private static final Logger log = LoggerFactory.getLogger(KeyIndexStore.class);
+    public static final Path DEFAULT_DIR = Paths.get("data", "keyindex");
+    private static final String SUFFIX = ".idx";
+
+    private static final KeyIndexStore instance = new KeyIndexStore(DEFAULT_DIR);
+
+    private final Path dir;
+    // 保存按提交顺序逐个执行, 退出前可以等待全部完成
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "key-index-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public KeyIndexStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public static KeyIndexStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return 该服务器有保存过的索引
+     */
+    public boolean exists(ServerConfig config) {
+        try {
+            return !listFiles(config).isEmpty();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 读取该服务器最新的一份完整索引
+     * @return 没有可用的文件时结果为 null
+     */
+    public CompletableFuture<KeyIndex> loadAsync(ServerConfig config) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                for (Path file : listFiles(config)) {
+                    try {
+                        KeyIndex index = KeyIndex.readFrom(file);
+                        log.info("已读取 key 索引 {}, 共 {} 个 key", file, index.size());
+                        return index;
+                    } catch (IOException e) {
+                        log.warn("跳过无法读取的 key 索引 {}: {}", file, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("列出 key 索引失败: {}", e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 在后台写入新的快照并清理旧文件，失败只记录日志
+     */
+    public CompletableFuture<Void> saveAsync(ServerConfig config, KeyIndex index) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Files.createDirectories(dir);
+                Path file = dir.resolve(fileName(config) + "." + System.currentTimeMillis() + SUFFIX);
+                index.writeTo(file);
+                log.info("已保存 key 索引 {}, 共 {} 个 key", file, index.size());
+                for (Path old : listFiles(config)) {
+                    if (!old.equals(file)) {
+                        deleteQuietly(old);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("保存 key 索引失败: {}", e.getMessage());
+            }
+        }, saver);
+    }
+
+    /**
+     * 等待已提交的保存完成，程序退出时调用
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        saver.shutdown();
+        try {
+            saver.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return 该服务器的索引文件，最新的在前
+     */
+    private List<Path> listFiles(ServerConfig config) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        String prefix = fileName(config) + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // 文件名中的保存时间是定长的毫秒数, 按名字倒序即最新的在前
+        files.sort(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed());
+        return files;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("暂时无法删除旧的 key 索引 {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String fileName(ServerConfig config) {
+        String name = config.getHost() + "_" + config.getPort() + (config.isCluster() ? "_cluster" : "");
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,63 @@
+package com.caven.redistool.utils;
+
+import java.util.Arrays;
+
+/**
+ * 固定容量的 double 环形缓冲区，保存一条指标的最近 N 个采样
+ * 采样直接写入预先分配的数组，不装箱、不产生新对象；写满后覆盖最旧的采样。
+ * 采样线程写入、FX 线程读取，方法都加锁；读取方把数据复制到自己复用的数组里再绘制。
+ */
+public final class MetricRing {
+    private final double[] values;
+    private int next;
+    private int size;
+
+    public MetricRing(int capacity) {
+        this.values = new double[capacity];
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @param value 采样值, NaN 表示该时刻没有数据 (绘制时断开)
+     */
+    public synchronized void add(double value) {
+        values[next] = value;
+        next = (next + 1) % values.length;
+        if (size < values.length) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 最新的采样, 没有采样时为 NaN
+     */
+    public synchronized double last() {
+        return size == 0 ? Double.NaN : values[(next - 1 + values.length) % values.length];
+    }
+
+    /**
+     * 按从旧到新的顺序复制到 dst
+     * @return 复制的采样数
+     */
+    public synchronized int copyTo(double[] dst) {
+        int count = Math.min(size, dst.length);
+        int start = (next - count + values.length) % values.length;
+        int firstPart = Math.min(count, values.length - start);
+        System.arraycopy(values, start, dst, 0, firstPart);
+        System.arraycopy(values, 0, dst, firstPart, count - firstPart);
+        return count;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(values, 0);
+        next = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.caven.redistool.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 按下标读取的大集合 (List 的 LRANGE、Sorted Set 的按排名 ZRANGE) 的窗口化读取器
+ * 把行号按 WINDOW_SIZE 分成窗口，每个窗口一次区间读取。最近请求的窗口视为视口所在位置:
+ * 同时预取它前后的窗口，离视口超过 KEEP_WINDOWS 的窗口被丢弃，内存只与视口附近的元素数有关。
+ * 拖动滚动条时会经过大量窗口，请求按后进先出排队并限制并发，已经离开视口的窗口出队时直接放弃，
+ * 因此服务器只为最终停留的位置执行读取。
+ * <p>
+ * 从尾部查看时第 0 行是最后一个元素，窗口用负下标请求，List 在头部被弹出时视口内容不会整体移位。
+ */
+public class RangeWindowSource<T> {
+
+    /**
+     * 读取下标 [start, stop] 的元素，语义与 LRANGE/ZRANGE 相同: 包含 stop，负数下标从尾部算起
+     */
+    public interface RangeReader<T> {
+        CompletableFuture<List<T>> read(long start, long stop);
+    }
+
+    public static final int WINDOW_SIZE = 256;
+    private static final int KEEP_WINDOWS = 4;   // 视口前后各保留的窗口数
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final String key;
+    private final RangeReader<T> reader;
+    private final long length;
+    private final boolean fromTail;
+    private final Map<Long, List<T>> windows = new HashMap<>();
+    private final Map<Long, CompletableFuture<Void>> pendingWindows = new HashMap<>();
+    private final Deque<Long> queue = new ArrayDeque<>();
+    private long center;
+    private int inFlight;
+    private boolean closed;
+
+    /**
+     * @param length 打开时 LLEN/ZCARD 的结果，决定行数
+     * @param fromTail 为 true 时第 0 行是最后一个元素
+     */
+    public RangeWindowSource(String key, long length, boolean fromTail, RangeReader<T> reader) {
+        this.key = key;
+        this.reader = reader;
+        this.length = length;
+        this.fromTail = fromTail;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isFromTail() {
+        return fromTail;
+    }
+
+    /**
+     * 行号对应的元素下标 (打开时的位置)
+     */
+    public long elementIndex(long row) {
+        return fromTail ? length - 1 - row : row;
+    }
+
+    /**
+     * 元素下标对应的行号，负数下标从尾部算起
+     */
+    public long rowOf(long elementIndex) {
+        long index = elementIndex < 0 ? length + elementIndex : elementIndex;
+        return fromTail ? length - 1 - index : index;
+    }
+
+    public synchronized boolean isLoaded(long row) {
+        return windows.containsKey(row / WINDOW_SIZE);
+    }
+
+    /**
+     * 读取已加载的行，调用前应先确认 isLoaded
+     * @return 行已不存在 (集合在查看期间变小) 时为 null
+     */
+    public synchronized T get(long row) {
+        List<T> window = windows.get(row / WINDOW_SIZE);
+        int offset = (int) (row % WINDOW_SIZE);
+        return window == null || offset >= window.size() ? null : window.get(offset);
+    }
+
+    /**
+     * 确保行所在的窗口已加载，并把视口移到这里: 预取相邻窗口，丢弃远处的窗口
+     */
+    public CompletableFuture<Void> ensureLoaded(long row) {
+        long window = row / WINDOW_SIZE;
+        CompletableFuture<Void> result;
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("source is closed"));
+            }
+            center = window;
+            windows.keySet().removeIf(w -> Math.abs(w - center) > KEEP_WINDOWS);
+            result = request(window, true);
+            request(window + 1, false);
+            request(window - 1, false);
+        }
+        drain();
+        return result;
+    }
+
+    /**
+     * 关闭后丢弃全部窗口，进行中的请求结果被忽略
+     */
+    public synchronized void close() {
+        closed = true;
+        windows.clear();
+        queue.clear();
+        pendingWindows.values().forEach(future -> future.cancel(false));
+        pendingWindows.clear();
+    }
+
+    private CompletableFuture<Void> request(long window, boolean urgent) {
+        if (window < 0 || window * WINDOW_SIZE >= length) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (windows.containsKey(window)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> pending = pendingWindows.get(window);
+        if (pending == null) {
+            pending = new CompletableFuture<>();
+            pendingWindows.put(window, pending);
+            if (urgent) {
+                queue.addFirst(window);
+            } else {
+                queue.addLast(window);
+            }
+        } else if (urgent && queue.remove(window)) {
+            queue.addFirst(window); // 预取过的窗口进入视口, 提到队首
+        }
+        return pending;
+    }
+
+    /**
+     * 在并发上限内发出排队的请求，已经离开视口的窗口直接放弃
+     */
+    private void drain() {
+        List<Long> toFetch = new ArrayList<>();
+        List<CompletableFuture<Void>> abandoned = new ArrayList<>();
+        synchronized (this) {
+            while (inFlight < MAX_IN_FLIGHT && !queue.isEmpty()) {
+                long window = queue.pollFirst();
+                if (Math.abs(window - center) > KEEP_WINDOWS) {
+                    abandoned.add(pendingWindows.remove(window));
+                    continue;
+                }
+                inFlight++;
+                toFetch.add(window);
+            }
+        }
+        // 在锁外完成回调和发起请求, 避免同步执行的回调重入
+        abandoned.forEach(future -> future.completeExceptionally(new CancellationException("window left the viewport")));
+        toFetch.forEach(this::fetchWindow);
+    }
+
+    private void fetchWindow(long window) {
+        long firstRow = window * WINDOW_SIZE;
+        long lastRow = Math.min(length, firstRow + WINDOW_SIZE) - 1;
+        // 从尾部查看时用负下标: 第 r 行是倒数第 r + 1 个元素
+        long start = fromTail ? -(lastRow + 1) : firstRow;
+        long stop = fromTail ? -(firstRow + 1) : lastRow;
+        reader.read(start, stop).whenComplete((values, ex) -> {
+            CompletableFuture<Void> target;
+            synchronized (this) {
+                inFlight--;
+                target = pendingWindows.remove(window);
+                if (ex == null && !closed && Math.abs(window - center) <= KEEP_WINDOWS) {
+                    List<T> rows = new ArrayList<>(values);
+                    if (fromTail) {
+                        Collections.reverse(rows);
+                    }
+                    windows.put(window, rows);
+                }
+            }
+            if (target != null) {
+                if (ex != null) {
+                    target.completeExceptionally(ex);
+                } else {
+                    target.complete(null);
+                }
+            }
+            drain();
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package com.caven.redistool.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 大 String value 的分块读取器
+ * 按 BLOCK_SIZE 分块用 GETRANGE 按需拉取，拉到的数据按偏移写入一个临时文件，
+ * 因此无论 value 多大都不占用 Java 堆，来回滚动也不会重复请求同一块。
+ * 临时文件通过 FileChannel 按位置读写而不做内存映射: 映射区域要等 GC 回收才释放，
+ * Windows 上映射中的文件无法删除，每打开一个大 value 都会留下一个同样大小的文件直到进程退出。
+ */
+public class RangedValueSource implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RangedValueSource.class);
+    public static final int BLOCK_SIZE = 64 * 1024;
+
+    private final RedisDataSource connection;
+    private final String key;
+    private final long length;
+    private final Path spillFile;
+    private final FileChannel channel;
+    private final BitSet loadedBlocks = new BitSet();
+    private final Map<Integer, CompletableFuture<Void>> pendingBlocks = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * @param length STRLEN 的结果, Redis String 最大 512MB
+     */
+    public RangedValueSource(RedisDataSource connection, String key, long length) throws IOException {
+        this.connection = connection;
+        this.key = key;
+        this.length = length;
+        this.spillFile = Files.createTempFile("redis-value-", ".bin");
+        // 关闭通道时由操作系统删除文件, close() 中的删除只是兜底
+        this.channel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * 区间内的数据是否都已拉取到本地
+     */
+    public synchronized boolean isLoaded(long offset, int len) {
+        if (len <= 0) {
+            return true;
+        }
+        int first = (int) (offset / BLOCK_SIZE);
+        int last = (int) ((offset + len - 1) / BLOCK_SIZE);
+        return loadedBlocks.nextClearBit(first) > last;
+    }
+
+    /**
+     * 确保区间内的数据已拉取，缺失的块并发请求，同一块不会重复请求
+     */
+    public CompletableFuture<Void> ensureLoaded(long offset, int len) {
+        if (len <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long end = Math.min(length, offset + len);
+        int first = (int) (offset / BLOCK_SIZE);
+        int last = (int) ((end - 1) / BLOCK_SIZE);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        Map<Integer, CompletableFuture<Void>> toFetch = new HashMap<>();
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("source is closed"));
+            }
+            for (int block = loadedBlocks.nextClearBit(first); block <= last; block = loadedBlocks.nextClearBit(block + 1)) {
+                CompletableFuture<Void> pending = pendingBlocks.get(block);
+                if (pending == null) {
+                    pending = new CompletableFuture<>();
+                    pendingBlocks.put(block, pending);
+                    toFetch.put(block, pending);
+                }
+                futures.add(pending);
+            }
+        }
+        // 在锁外发起请求，避免回调在当前线程同步执行时重入修改 pendingBlocks
+        toFetch.forEach(this::fetchBlock);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    private void fetchBlock(int block, CompletableFuture<Void> target) {
+        long start = (long) block * BLOCK_SIZE;
+        long end = Math.min(length, start + BLOCK_SIZE) - 1;
+        connection.getrangeBytesAsync(key, start, end).whenComplete((data, ex) -> {
+            Throwable error = ex;
+            synchronized (this) {
+                pendingBlocks.remove(block);
+                if (error == null && !closed) {
+                    try {
+                        // value 可能在查看期间被改短，只写入实际拿到的部分
+                        write(start, ByteBuffer.wrap(data, 0, (int) Math.min(data.length, end - start + 1)));
+                        loadedBlocks.set(block);
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+            }
+            if (error != null) {
+                target.completeExceptionally(error);
+            } else {
+                target.complete(null);
+            }
+        });
+    }
+
+    private void write(long position, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    /**
+     * 读取已拉取的数据，调用前应先确认 isLoaded
+     * @return 实际读取的字节数
+     */
+    public synchronized int read(long offset, byte[] dst, int dstOffset, int len) {
+        if (closed || offset >= length) {
+            return 0;
+        }
+        int n = (int) Math.min(len, length - offset);
+        ByteBuffer target = ByteBuffer.wrap(dst, dstOffset, n);
+        try {
+            while (target.hasRemaining()) {
+                if (channel.read(target, offset + target.position() - dstOffset) < 0) {
+                    // value 被改短时文件末尾之后没有写入过, 与未写入的区域一样按 0 处理
+                    Arrays.fill(dst, target.position(), dstOffset + n, (byte) 0);
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("读取临时文件失败: {}", e.getMessage());
+            return target.position() - dstOffset;
+        }
+        return n;
+    }
+
+    /**
+     * 从 from 开始查找字节序列，逐块拉取并查找，跨块的匹配也能找到
+     * @return 匹配的起始偏移，找不到时为 -1
+     */
+    public CompletableFuture<Long> find(byte[] needle, long from) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        if (needle.length == 0) {
+            result.complete(from);
+        } else {
+            findFrom(needle, Math.max(0, from), result);
+        }
+        return result;
+    }
+
+    private void findFrom(byte[] needle, long from, CompletableFuture<Long> result) {
+        long position = from;
+        byte[] data = new byte[BLOCK_SIZE + needle.length - 1];
+        while (!result.isDone()) { // 调用方取消后停止
+            if (position + needle.length > length) {
+                result.complete(-1L);
+                return;
+            }
+            // 每次检查一个块，额外多读 needle.length - 1 字节以覆盖跨块的匹配
+            int window = (int) Math.min(length - position, data.length);
+            if (!isLoaded(position, window)) {
+                long next = position;
+                ensureLoaded(position, window).whenCompleteAsync((v, ex) -> {
+                    if (ex != null) {
+                        result.completeExceptionally(ex);
+                    } else {
+                        findFrom(needle, next, result);
+                    }
+                });
+                return;
+            }
+            int n = read(position, data, 0, window);
+            for (int i = 0; i + needle.length <= n; i++) {
+                if (matches(data, i, needle)) {
+                    result.complete(position + i);
+                    return;
+                }
+            }
+            position += BLOCK_SIZE;
+        }
+    }
+
+    private static boolean matches(byte[] data, int offset, byte[] needle) {
+        for (int j = 0; j < needle.length; j++) {
+            if (data[offset + j] != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 关闭并删除临时文件
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            log.debug("删除临时文件失败, 退出时再删除: {}", spillFile);
+            spillFile.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.caven.redistool.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞的匀速限流器
+ * 调用方预约若干许可，得到需要延迟的时间后自行调度，不占用任何线程等待。
+ */
+public class RateLimiter {
+    private final double permitsPerSecond;
+    private long nextFreeNanos = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond 每秒许可数, 小于等于 0 表示不限速
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * 预约许可
+     * @param permits 本次消耗的许可数
+     * @return 调用方在执行本次操作前应等待的纳秒数
+     */
+    public synchronized long reserve(int permits) {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long start = Math.max(now, nextFreeNanos);
+        nextFreeNanos = start + (long) (permits * TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        return start - now;
+    }
+}
@@ -0,0 +1,711 @@
+package com.caven.redistool.utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RDB 文件的底层读取游标
+ * 文件按 1GB 分段内存映射，超过 2GB 的快照也能随机访问；
+ * 负责长度编码、整数/LZF 字符串、ziplist、listpack、intset 等 RDB 格式细节。
+ * 非线程安全，由 RdbSnapshot 保证只在一个线程上使用。
+ */
+final class RdbReader {
+    static final int TYPE_STRING = 0;
+    static final int TYPE_LIST = 1;
+    static final int TYPE_SET = 2;
+    static final int TYPE_ZSET = 3;
+    static final int TYPE_HASH = 4;
+    static final int TYPE_ZSET_2 = 5;
+    static final int TYPE_MODULE = 6;
+    static final int TYPE_MODULE_2 = 7;
+    static final int TYPE_HASH_ZIPMAP = 9;
+    static final int TYPE_LIST_ZIPLIST = 10;
+    static final int TYPE_SET_INTSET = 11;
+    static final int TYPE_ZSET_ZIPLIST = 12;
+    static final int TYPE_HASH_ZIPLIST = 13;
+    static final int TYPE_LIST_QUICKLIST = 14;
+    static final int TYPE_STREAM_LISTPACKS = 15;
+    static final int TYPE_HASH_LISTPACK = 16;
+    static final int TYPE_ZSET_LISTPACK = 17;
+    static final int TYPE_LIST_QUICKLIST_2 = 18;
+    static final int TYPE_STREAM_LISTPACKS_2 = 19;
+    static final int TYPE_SET_LISTPACK = 20;
+    static final int TYPE_STREAM_LISTPACKS_3 = 21;
+    static final int TYPE_HASH_METADATA_PRE_GA = 22;
+    static final int TYPE_HASH_LISTPACK_EX_PRE_GA = 23;
+    static final int TYPE_HASH_METADATA = 24;
+    static final int TYPE_HASH_LISTPACK_EX = 25;
+
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int ENC_INT8 = 0;
+    private static final int ENC_INT16 = 1;
+    private static final int ENC_INT32 = 2;
+    private static final int ENC_LZF = 3;
+    private static final int MODULE_OPCODE_EOF = 0;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private long position;
+    private boolean encoded; // 最近一次 readLength 读到的是特殊编码而不是长度
+
+    RdbReader(FileChannel channel) throws IOException {
+        this.size = channel.size();
+        int count = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        this.segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    long position() {
+        return position;
+    }
+
+    void seek(long position) {
+        this.position = position;
+    }
+
+    void skip(long n) throws IOException {
+        if (position + n > size) {
+            throw new IOException("RDB 文件意外结束");
+        }
+        position += n;
+    }
+
+    int readUnsignedByte() throws IOException {
+        if (position >= size) {
+            throw new IOException("RDB 文件意外结束");
+        }
+        byte b = segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE));
+        position++;
+        return b & 0xFF;
+    }
+
+    byte[] readBytes(long n) throws IOException {
+        if (n > Integer.MAX_VALUE - 8 || position + n > size) {
+            throw new IOException("RDB 文件意外结束");
+        }
+        byte[] dst = new byte[(int) n];
+        int copied = 0;
+        // 跨分段时分多次拷贝
+        while (copied < n) {
+            int segment = (int) (position / SEGMENT_SIZE);
+            int offset = (int) (position % SEGMENT_SIZE);
+            int len = (int) Math.min(n - copied, SEGMENT_SIZE - offset);
+            segments[segment].get(offset, dst, copied, len);
+            copied += len;
+            position += len;
+        }
+        return dst;
+    }
+
+    long readLittleEndian(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value |= (long) readUnsignedByte() << (8 * i);
+        }
+        return value;
+    }
+
+    private long readBigEndian(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | readUnsignedByte();
+        }
+        return value;
+    }
+
+    /**
+     * 读取 RDB 长度编码，特殊编码时返回编码类型并设置 encoded 标记
+     */
+    long readLength() throws IOException {
+        encoded = false;
+        int first = readUnsignedByte();
+        switch ((first & 0xC0) >> 6) {
+            case 0:
+                return first & 0x3F;
+            case 1:
+                return ((first & 0x3F) << 8) | readUnsignedByte();
+            case 2:
+                if (first == 0x80) {
+                    return readBigEndian(4);
+                }
+                if (first == 0x81) {
+                    return readBigEndian(8);
+                }
+                throw new IOException("未知的长度编码: " + first);
+            default:
+                encoded = true;
+                return first & 0x3F;
+        }
+    }
+
+    byte[] readString() throws IOException {
+        long len = readLength();
+        if (!encoded) {
+            return readBytes(len);
+        }
+        switch ((int) len) {
+            case ENC_INT8:
+                return ascii((byte) readUnsignedByte());
+            case ENC_INT16:
+                return ascii((short) readLittleEndian(2));
+            case ENC_INT32:
+                return ascii((int) readLittleEndian(4));
+            case ENC_LZF:
+                long compressedLength = readLength();
+                long rawLength = readLength();
+                return lzfDecompress(readBytes(compressedLength), (int) rawLength);
+            default:
+                throw new IOException("未知的字符串编码: " + len);
+        }
+    }
+
+    void skipString() throws IOException {
+        long len = readLength();
+        if (!encoded) {
+            skip(len);
+            return;
+        }
+        switch ((int) len) {
+            case ENC_INT8:
+                skip(1);
+                break;
+            case ENC_INT16:
+                skip(2);
+                break;
+            case ENC_INT32:
+                skip(4);
+                break;
+            case ENC_LZF:
+                long compressedLength = readLength();
+                readLength();
+                skip(compressedLength);
+                break;
+            default:
+                throw new IOException("未知的字符串编码: " + len);
+        }
+    }
+
+    /**
+     * 旧版 zset 的分数: 1 字节长度 + ASCII, 253/254/255 表示 nan/inf/-inf
+     */
+    private byte[] readDoubleString() throws IOException {
+        int len = readUnsignedByte();
+        switch (len) {
+            case 253:
+                return ascii("nan");
+            case 254:
+                return ascii("inf");
+            case 255:
+                return ascii("-inf");
+            default:
+                return readBytes(len);
+        }
+    }
+
+    private void skipDoubleString() throws IOException {
+        int len = readUnsignedByte();
+        if (len < 253) {
+            skip(len);
+        }
+    }
+
+    /**
+     * 跳过一个 value，用于建立 key 索引时不解码 value
+     */
+    void skipValue(int type) throws IOException {
+        switch (type) {
+            case TYPE_STRING:
+            case TYPE_HASH_ZIPMAP:
+            case TYPE_LIST_ZIPLIST:
+            case TYPE_SET_INTSET:
+            case TYPE_ZSET_ZIPLIST:
+            case TYPE_HASH_ZIPLIST:
+            case TYPE_HASH_LISTPACK:
+            case TYPE_ZSET_LISTPACK:
+            case TYPE_SET_LISTPACK:
+            case TYPE_HASH_LISTPACK_EX_PRE_GA:
+                skipString();
+                break;
+            case TYPE_LIST:
+            case TYPE_SET:
+            case TYPE_LIST_QUICKLIST:
+                for (long n = readLength(); n > 0; n--) {
+                    skipString();
+                }
+                break;
+            case TYPE_ZSET:
+                for (long n = readLength(); n > 0; n--) {
+                    skipString();
+                    skipDoubleString();
+                }
+                break;
+            case TYPE_ZSET_2:
+                for (long n = readLength(); n > 0; n--) {
+                    skipString();
+                    skip(8);
+                }
+                break;
+            case TYPE_HASH:
+                for (long n = readLength() * 2; n > 0; n--) {
+                    skipString();
+                }
+                break;
+            case TYPE_LIST_QUICKLIST_2:
+                for (long n = readLength(); n > 0; n--) {
+                    readLength(); // 节点容器类型
+                    skipString();
+                }
+                break;
+            case TYPE_HASH_METADATA_PRE_GA:
+                for (long n = readLength(); n > 0; n--) {
+                    skip(8); // 字段过期时间
+                    skipString();
+                    skipString();
+                }
+                break;
+            case TYPE_HASH_METADATA:
+                skip(8); // 最小过期时间
+                for (long n = readLength(); n > 0; n--) {
+                    readLength();
+                    skipString();
+                    skipString();
+                }
+                break;
+            case TYPE_HASH_LISTPACK_EX:
+                skip(8);
+                skipString();
+                break;
+            case TYPE_STREAM_LISTPACKS:
+            case TYPE_STREAM_LISTPACKS_2:
+            case TYPE_STREAM_LISTPACKS_3:
+                skipStream(type);
+                break;
+            case TYPE_MODULE_2:
+                readLength(); // module id
+                skipModuleValue();
+                break;
+            default:
+                throw new IOException("不支持的 RDB 值类型: " + type);
+        }
+    }
+
+    private void skipStream(int type) throws IOException {
+        for (long n = readLength(); n > 0; n--) {
+            skipString(); // 节点的起始 ID
+            skipString(); // listpack
+        }
+        readLength(); // 元素个数
+        readLength(); // last id
+        readLength();
+        if (type >= TYPE_STREAM_LISTPACKS_2) {
+            readLength(); // first id
+            readLength();
+            readLength(); // max deleted id
+            readLength();
+            readLength(); // entries added
+        }
+        for (long groups = readLength(); groups > 0; groups--) {
+            skipString(); // 消费组名
+            readLength(); // last id
+            readLength();
+            if (type >= TYPE_STREAM_LISTPACKS_2) {
+                readLength(); // entries read
+            }
+            for (long pel = readLength(); pel > 0; pel--) {
+                skip(16 + 8); // 消息 ID + 投递时间
+                readLength(); // 投递次数
+            }
+            for (long consumers = readLength(); consumers > 0; consumers--) {
+                skipString(); // 消费者名
+                skip(8); // seen time
+                if (type >= TYPE_STREAM_LISTPACKS_3) {
+                    skip(8); // active time
+                }
+                for (long pel = readLength(); pel > 0; pel--) {
+                    skip(16);
+                }
+            }
+        }
+    }
+
+    /**
+     * 跳过模块序列化的数据，直到 EOF 操作码
+     */
+    void skipModuleValue() throws IOException {
+        for (long opcode = readLength(); opcode != MODULE_OPCODE_EOF; opcode = readLength()) {
+            switch ((int) opcode) {
+                case 1: // signed int
+                case 2: // unsigned int
+                    readLength();
+                    break;
+                case 3: // float
+                    skip(4);
+                    break;
+                case 4: // double
+                    skip(8);
+                    break;
+                case 5: // string
+                    skipString();
+                    break;
+                default:
+                    throw new IOException("未知的模块数据操作码: " + opcode);
+            }
+        }
+    }
+
+    /**
+     * 解码集合类型的全部元素
+     * list/set 为元素序列；hash 为 field、value 交替；zset 为 member、score 交替。
+     */
+    List<byte[]> readElements(int type) throws IOException {
+        List<byte[]> elements = new ArrayList<>();
+        switch (type) {
+            case TYPE_LIST:
+            case TYPE_SET:
+                for (long n = readLength(); n > 0; n--) {
+                    elements.add(readString());
+                }
+                break;
+            case TYPE_HASH:
+                for (long n = readLength() * 2; n > 0; n--) {
+                    elements.add(readString());
+                }
+                break;
+            case TYPE_ZSET:
+                for (long n = readLength(); n > 0; n--) {
+                    elements.add(readString());
+                    elements.add(readDoubleString());
+                }
+                break;
+            case TYPE_ZSET_2:
+                for (long n = readLength(); n > 0; n--) {
+                    elements.add(readString());
+                    elements.add(ascii(ScoreFormatter.format(Double.longBitsToDouble(readLittleEndian(8)))));
+                }
+                break;
+            case TYPE_HASH_ZIPMAP:
+                readZipmap(readString(), elements);
+                break;
+            case TYPE_LIST_ZIPLIST:
+            case TYPE_ZSET_ZIPLIST:
+            case TYPE_HASH_ZIPLIST:
+                readZiplist(readString(), elements);
+                break;
+            case TYPE_SET_INTSET:
+                readIntset(readString(), elements);
+                break;
+            case TYPE_HASH_LISTPACK:
+            case TYPE_ZSET_LISTPACK:
+            case TYPE_SET_LISTPACK:
+                readListpack(readString(), elements);
+                break;
+            case TYPE_LIST_QUICKLIST:
+                for (long n = readLength(); n > 0; n--) {
+                    readZiplist(readString(), elements);
+                }
+                break;
+            case TYPE_LIST_QUICKLIST_2:
+                for (long n = readLength(); n > 0; n--) {
+                    long container = readLength();
+                    if (container == 1) {
+                        elements.add(readString()); // PLAIN 节点只有一个大元素
+                    } else {
+                        readListpack(readString(), elements);
+                    }
+                }
+                break;
+            case TYPE_HASH_METADATA_PRE_GA:
+                for (long n = readLength(); n > 0; n--) {
+                    skip(8);
+                    elements.add(readString());
+                    elements.add(readString());
+                }
+                break;
+            case TYPE_HASH_METADATA:
+                skip(8);
+                for (long n = readLength(); n > 0; n--) {
+                    readLength();
+                    elements.add(readString());
+                    elements.add(readString());
+                }
+                break;
+            case TYPE_HASH_LISTPACK_EX_PRE_GA:
+            case TYPE_HASH_LISTPACK_EX:
+                if (type == TYPE_HASH_LISTPACK_EX) {
+                    skip(8);
+                }
+                // listpack 中按 field、value、ttl 三个一组存放，丢弃 ttl
+                List<byte[]> triples = new ArrayList<>();
+                readListpack(readString(), triples);
+                for (int i = 0; i + 1 < triples.size(); i += 3) {
+                    elements.add(triples.get(i));
+                    elements.add(triples.get(i + 1));
+                }
+                break;
+            default:
+                throw new IOException("不支持查看的 RDB 值类型: " + type);
+        }
+        return elements;
+    }
+
+    /**
+     * RDB 值类型对应的 TYPE 命令结果
+     */
+    static String typeName(int type) {
+        switch (type) {
+            case TYPE_STRING:
+                return "string";
+            case TYPE_LIST:
+            case TYPE_LIST_ZIPLIST:
+            case TYPE_LIST_QUICKLIST:
+            case TYPE_LIST_QUICKLIST_2:
+                return "list";
+            case TYPE_SET:
+            case TYPE_SET_INTSET:
+            case TYPE_SET_LISTPACK:
+                return "set";
+            case TYPE_ZSET:
+            case TYPE_ZSET_2:
+            case TYPE_ZSET_ZIPLIST:
+            case TYPE_ZSET_LISTPACK:
+                return "zset";
+            case TYPE_STREAM_LISTPACKS:
+            case TYPE_STREAM_LISTPACKS_2:
+            case TYPE_STREAM_LISTPACKS_3:
+                return "stream";
+            case TYPE_MODULE:
+            case TYPE_MODULE_2:
+                return "module";
+            default:
+                return "hash";
+        }
+    }
+
+    private static void readZipmap(byte[] data, List<byte[]> out) {
+        int pos = 1; // zmlen
+        while (pos < data.length && (data[pos] & 0xFF) != 0xFF) {
+            int[] len = zipmapLength(data, pos);
+            pos = len[1];
+            out.add(copy(data, pos, len[0]));
+            pos += len[0];
+            len = zipmapLength(data, pos);
+            pos = len[1];
+            int free = data[pos++] & 0xFF;
+            out.add(copy(data, pos, len[0]));
+            pos += len[0] + free;
+        }
+    }
+
+    private static int[] zipmapLength(byte[] data, int pos) {
+        int first = data[pos] & 0xFF;
+        if (first < 254) {
+            return new int[]{first, pos + 1};
+        }
+        return new int[]{(int) littleEndian(data, pos + 1, 4), pos + 5};
+    }
+
+    private static void readZiplist(byte[] data, List<byte[]> out) throws IOException {
+        int pos = 10; // zlbytes + zltail + zllen
+        while (pos < data.length && (data[pos] & 0xFF) != 0xFF) {
+            pos += (data[pos] & 0xFF) == 0xFE ? 5 : 1; // prevlen
+            int enc = data[pos] & 0xFF;
+            switch (enc >> 6) {
+                case 0: {
+                    int len = enc & 0x3F;
+                    out.add(copy(data, pos + 1, len));
+                    pos += 1 + len;
+                    continue;
+                }
+                case 1: {
+                    int len = ((enc & 0x3F) << 8) | (data[pos + 1] & 0xFF);
+                    out.add(copy(data, pos + 2, len));
+                    pos += 2 + len;
+                    continue;
+                }
+                case 2: {
+                    int len = (int) bigEndian(data, pos + 1, 4);
+                    out.add(copy(data, pos + 5, len));
+                    pos += 5 + len;
+                    continue;
+                }
+                default:
+                    break;
+            }
+            pos++;
+            switch (enc) {
+                case 0xC0:
+                    out.add(ascii((short) littleEndian(data, pos, 2)));
+                    pos += 2;
+                    break;
+                case 0xD0:
+                    out.add(ascii((int) littleEndian(data, pos, 4)));
+                    pos += 4;
+                    break;
+                case 0xE0:
+                    out.add(ascii(littleEndian(data, pos, 8)));
+                    pos += 8;
+                    break;
+                case 0xF0:
+                    out.add(ascii((littleEndian(data, pos, 3) << 40) >> 40));
+                    pos += 3;
+                    break;
+                case 0xFE:
+                    out.add(ascii(data[pos]));
+                    pos += 1;
+                    break;
+                default:
+                    if (enc >= 0xF1 && enc <= 0xFD) {
+                        out.add(ascii((enc & 0x0F) - 1));
+                        break;
+                    }
+                    throw new IOException("未知的 ziplist 编码: " + enc);
+            }
+        }
+    }
+
+    private static void readListpack(byte[] data, List<byte[]> out) throws IOException {
+        int pos = 6; // total bytes + num elements
+        while (pos < data.length && (data[pos] & 0xFF) != 0xFF) {
+            int enc = data[pos] & 0xFF;
+            int start = pos;
+            if ((enc & 0x80) == 0) {
+                out.add(ascii(enc & 0x7F));
+                pos += 1;
+            } else if ((enc & 0xC0) == 0x80) {
+                int len = enc & 0x3F;
+                out.add(copy(data, pos + 1, len));
+                pos += 1 + len;
+            } else if ((enc & 0xE0) == 0xC0) {
+                int value = ((enc & 0x1F) << 8) | (data[pos + 1] & 0xFF);
+                out.add(ascii(value >= 1 << 12 ? value - (1 << 13) : value));
+                pos += 2;
+            } else if ((enc & 0xF0) == 0xE0) {
+                int len = ((enc & 0x0F) << 8) | (data[pos + 1] & 0xFF);
+                out.add(copy(data, pos + 2, len));
+                pos += 2 + len;
+            } else {
+                switch (enc) {
+                    case 0xF0: {
+                        int len = (int) littleEndian(data, pos + 1, 4);
+                        out.add(copy(data, pos + 5, len));
+                        pos += 5 + len;
+                        break;
+                    }
+                    case 0xF1:
+                        out.add(ascii((short) littleEndian(data, pos + 1, 2)));
+                        pos += 3;
+                        break;
+                    case 0xF2:
+                        out.add(ascii((littleEndian(data, pos + 1, 3) << 40) >> 40));
+                        pos += 4;
+                        break;
+                    case 0xF3:
+                        out.add(ascii((int) littleEndian(data, pos + 1, 4)));
+                        pos += 5;
+                        break;
+                    case 0xF4:
+                        out.add(ascii(littleEndian(data, pos + 1, 8)));
+                        pos += 9;
+                        break;
+                    default:
+                        throw new IOException("未知的 listpack 编码: " + enc);
+                }
+            }
+            pos += backlenSize(pos - start);
+        }
+    }
+
+    private static int backlenSize(int entryLength) {
+        if (entryLength < 128) {
+            return 1;
+        } else if (entryLength < 16384) {
+            return 2;
+        } else if (entryLength < 2097152) {
+            return 3;
+        } else if (entryLength < 268435456) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private static void readIntset(byte[] data, List<byte[]> out) {
+        int width = (int) littleEndian(data, 0, 4);
+        int length = (int) littleEndian(data, 4, 4);
+        for (int i = 0; i < length; i++) {
+            long value = littleEndian(data, 8 + i * width, width);
+            // 按宽度做符号扩展
+            int shift = 64 - width * 8;
+            out.add(ascii((value << shift) >> shift));
+        }
+    }
+
+    static byte[] lzfDecompress(byte[] in, int rawLength) throws IOException {
+        byte[] out = new byte[rawLength];
+        int ip = 0;
+        int op = 0;
+        try {
+            while (ip < in.length) {
+                int ctrl = in[ip++] & 0xFF;
+                if (ctrl < 32) {
+                    // 字面量
+                    ctrl++;
+                    System.arraycopy(in, ip, out, op, ctrl);
+                    ip += ctrl;
+                    op += ctrl;
+                } else {
+                    // 回引用，可能与输出重叠，只能逐字节拷贝
+                    int len = ctrl >> 5;
+                    int ref = op - ((ctrl & 0x1F) << 8) - 1;
+                    if (len == 7) {
+                        len += in[ip++] & 0xFF;
+                    }
+                    ref -= in[ip++] & 0xFF;
+                    len += 2;
+                    for (int i = 0; i < len; i++) {
+                        out[op++] = out[ref++];
+                    }
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("LZF 数据损坏", e);
+        }
+        return out;
+    }
+
+    private static long littleEndian(byte[] data, int pos, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value |= (long) (data[pos + i] & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    private static long bigEndian(byte[] data, int pos, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (data[pos + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static byte[] copy(byte[] data, int pos, int len) {
+        byte[] result = new byte[len];
+        System.arraycopy(data, pos, result, 0, len);
+        return result;
+    }
+
+    private static byte[] ascii(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
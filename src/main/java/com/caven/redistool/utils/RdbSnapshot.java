@@ -0,0 +1,536 @@
+package com.caven.redistool.utils;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.Range;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+
+/**
+ * 离线 RDB 快照，不需要运行中的 Redis 即可浏览
+ * 加载时顺序扫描一遍内存映射的文件，只解码 key，value 直接跳过并记下文件偏移，
+ * 建成按 key 排序的索引；查看某个 value 时直接定位到偏移处解码。
+ * 所有读取都在一个专用线程上执行，因此返回的 future 不会阻塞 FX 线程。
+ * <p>
+ * 只索引文件中的第一个数据库 (通常是 db0)；MEMORY USAGE 用 value 在文件中的序列化长度近似。
+ */
+public class RdbSnapshot implements RedisDataSource, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RdbSnapshot.class);
+
+    private static final int OPCODE_SLOT_INFO = 0xF4;
+    private static final int OPCODE_FUNCTION2 = 0xF5;
+    private static final int OPCODE_FUNCTION_PRE_GA = 0xF6;
+    private static final int OPCODE_FREQ = 0xF7;
+    private static final int OPCODE_IDLE = 0xF8;
+    private static final int OPCODE_MODULE_AUX = 0xF9;
+    private static final int OPCODE_AUX = 0xFA;
+    private static final int OPCODE_RESIZEDB = 0xFB;
+    private static final int OPCODE_EXPIRETIME_MS = 0xFC;
+    private static final int OPCODE_EXPIRETIME = 0xFD;
+    private static final int OPCODE_SELECTDB = 0xFE;
+    private static final int OPCODE_EOF = 0xFF;
+    private static final long PROGRESS_STEP = 16L * 1024 * 1024;
+
+    /**
+     * 一个 key 的索引项
+     */
+    private static final class Entry {
+        private final String key;
+        private final byte type;
+        private final long offset; // value 在文件中的起始偏移
+        private final long length; // value 的序列化长度
+
+        private Entry(String key, int type, long offset, long length) {
+            this.key = key;
+            this.type = (byte) type;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final RdbReader reader;
+    private final ExecutorService executor;
+    private Entry[] entries = new Entry[0];
+    private volatile boolean cancelled;
+    private int version;
+
+    // 最近一次解码的 value，翻页时不必重复解码整个集合
+    private String cachedKey;
+    private Object cachedValue;
+    // 最近一次排好序的 zset
+    private String sortedKey;
+    private List<ScoredValue<byte[]>> sortedMembers;
+
+    public RdbSnapshot(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.reader = new RdbReader(channel);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "rdb-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * 在后台建立 key 索引
+     * @param progress 已扫描的字节数，约每 16MB 回调一次
+     */
+    public CompletableFuture<Void> load(LongConsumer progress) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                buildIndex(progress);
+            } catch (IOException e) {
+                throw new IllegalStateException("解析 RDB 失败 (偏移 " + reader.position() + "): " + e.getMessage(), e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 取消正在进行的加载
+     */
+    public void cancelLoad() {
+        cancelled = true;
+    }
+
+    public long getFileSize() {
+        return reader.size();
+    }
+
+    private void buildIndex(LongConsumer progress) throws IOException {
+        reader.seek(0);
+        byte[] magic = reader.readBytes(9);
+        String header = new String(magic, StandardCharsets.US_ASCII);
+        if (!header.startsWith("REDIS")) {
+            throw new IOException("不是 RDB 文件");
+        }
+        version = Integer.parseInt(header.substring(5));
+
+        List<Entry> list = new ArrayList<>();
+        int selectedDb = -1;
+        boolean inSelectedDb = true;
+        long nextProgress = PROGRESS_STEP;
+        while (true) {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (reader.position() >= nextProgress) {
+                progress.accept(reader.position());
+                nextProgress = reader.position() + PROGRESS_STEP;
+            }
+
+            int opcode = reader.readUnsignedByte();
+            switch (opcode) {
+                case OPCODE_EOF:
+                    entries = list.toArray(new Entry[0]);
+                    Arrays.sort(entries, Comparator.comparing((Entry e) -> e.key));
+                    progress.accept(reader.size());
+                    log.info("RDB {} 加载完成, 版本 {}, 共 {} 个 key", file, version, entries.length);
+                    return;
+                case OPCODE_SELECTDB:
+                    int db = (int) reader.readLength();
+                    if (selectedDb < 0) {
+                        selectedDb = db;
+                    }
+                    inSelectedDb = db == selectedDb;
+                    continue;
+                case OPCODE_AUX:
+                    reader.skipString();
+                    reader.skipString();
+                    continue;
+                case OPCODE_RESIZEDB:
+                    reader.readLength();
+                    reader.readLength();
+                    continue;
+                case OPCODE_SLOT_INFO:
+                    reader.readLength();
+                    reader.readLength();
+                    reader.readLength();
+                    continue;
+                case OPCODE_EXPIRETIME_MS:
+                    reader.skip(8); // 过期时间不影响浏览
+                    continue;
+                case OPCODE_EXPIRETIME:
+                    reader.skip(4);
+                    continue;
+                case OPCODE_IDLE:
+                    reader.readLength();
+                    continue;
+                case OPCODE_FREQ:
+                    reader.skip(1);
+                    continue;
+                case OPCODE_FUNCTION2:
+                    reader.skipString();
+                    continue;
+                case OPCODE_MODULE_AUX:
+                    reader.readLength(); // module id
+                    reader.readLength(); // when opcode
+                    reader.readLength(); // when
+                    reader.skipModuleValue();
+                    continue;
+                case OPCODE_FUNCTION_PRE_GA:
+                    throw new IOException("不支持 Redis 7.0 RC 版本的函数数据");
+                default:
+                    break;
+            }
+
+            // 其余的字节都是 value 类型，后面紧跟 key 和 value
+            String key = new String(reader.readString(), StandardCharsets.UTF_8);
+            long offset = reader.position();
+            reader.skipValue(opcode);
+            if (inSelectedDb) {
+                list.add(new Entry(key, opcode, offset, reader.position() - offset));
+            }
+        }
+    }
+
+    private Entry find(String key) {
+        int lo = 0;
+        int hi = entries.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = entries[mid].key.compareTo(key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return entries[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 第一个不小于 key 的索引位置
+     */
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = entries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries[mid].key.compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private Object decode(Entry entry) throws IOException {
+        if (entry.key.equals(cachedKey)) {
+            return cachedValue;
+        }
+        reader.seek(entry.offset);
+        Object value = entry.type == RdbReader.TYPE_STRING ? reader.readString() : reader.readElements(entry.type);
+        cachedKey = entry.key;
+        cachedValue = value;
+        return value;
+    }
+
+    private byte[] decodeString(String key) throws IOException {
+        Entry entry = find(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.type != RdbReader.TYPE_STRING) {
+            throw new IOException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return (byte[]) decode(entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<byte[]> decodeElements(String key) throws IOException {
+        Entry entry = find(key);
+        if (entry == null) {
+            return new ArrayList<>();
+        }
+        if (entry.type == RdbReader.TYPE_STRING) {
+            throw new IOException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return (List<byte[]>) decode(entry);
+    }
+
+    /**
+     * zset 的成员按 (分数, 成员字节) 排序，与 ZRANGE 的顺序一致
+     * RDB 中 skiplist 编码是从高分到低分保存的，不能直接按解码顺序当作排名。
+     */
+    private List<ScoredValue<byte[]>> decodeSortedSet(String key) throws IOException {
+        if (key.equals(sortedKey)) {
+            return sortedMembers;
+        }
+        List<byte[]> elements = decodeElements(key);
+        List<ScoredValue<byte[]>> members = new ArrayList<>(elements.size() / 2);
+        for (int i = 0; i + 1 < elements.size(); i += 2) {
+            members.add(ScoredValue.just(parseScore(elements.get(i + 1)), elements.get(i)));
+        }
+        members.sort(Comparator.<ScoredValue<byte[]>>comparingDouble(ScoredValue::getScore)
+                .thenComparing(ScoredValue::getValue, Arrays::compareUnsigned));
+        sortedKey = key;
+        sortedMembers = members;
+        return members;
+    }
+
+    private static double parseScore(byte[] text) {
+        String score = new String(text, StandardCharsets.US_ASCII);
+        switch (score) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(score);
+        }
+    }
+
+    private static boolean inRange(Range<Double> range, double score) {
+        Range.Boundary<Double> lower = range.getLower();
+        Range.Boundary<Double> upper = range.getUpper();
+        if (lower.getValue() != null && (lower.isIncluding() ? score < lower.getValue() : score <= lower.getValue())) {
+            return false;
+        }
+        return upper.getValue() == null || (upper.isIncluding() ? score <= upper.getValue() : score < upper.getValue());
+    }
+
+    private interface Task<T> {
+        T run() throws IOException;
+    }
+
+    private <T> CompletableFuture<T> submit(Task<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 与服务端 SCAN 语义一致: 每次检查 count 个 key，返回其中匹配的部分，游标为索引位置
+     * 模式有字面量前缀时直接二分定位到前缀的范围。
+     */
+    @Override
+    public CompletableFuture<KeyScanCursor<String>> scanAsync(ScanCursor cursor, String pattern, long count) {
+        return submit(() -> {
+            String prefix = GlobMatcher.literalPrefix(pattern);
+            int position = Math.max(Integer.parseInt(cursor.getCursor()), lowerBound(prefix));
+            boolean matchAll = "*".equals(pattern);
+            KeyScanCursor<String> page = new KeyScanCursor<>();
+            int end = (int) Math.min(entries.length, position + Math.max(1, count));
+            for (; position < end; position++) {
+                String key = entries[position].key;
+                if (!key.startsWith(prefix)) {
+                    position = entries.length; // 有序索引中前缀范围已结束
+                    break;
+                }
+                if (matchAll || GlobMatcher.matches(pattern, key)) {
+                    page.getKeys().add(key);
+                }
+            }
+            page.setCursor(String.valueOf(position));
+            page.setFinished(position >= entries.length);
+            return page;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<String>> typesAsync(List<String> keys) {
+        return submit(() -> {
+            List<String> types = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                Entry entry = find(key);
+                types.add(entry == null ? "none" : RdbReader.typeName(entry.type));
+            }
+            return types;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> dbsizeAsync() {
+        return submit(() -> (long) entries.length);
+    }
+
+    @Override
+    public CompletableFuture<Long> strlenAsync(String key) {
+        return submit(() -> {
+            byte[] value = decodeString(key);
+            return value == null ? 0L : value.length;
+        });
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        return submit(() -> decodeString(key));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getrangeBytesAsync(String key, long start, long end) {
+        return submit(() -> {
+            byte[] value = decodeString(key);
+            if (value == null || start >= value.length || end < start) {
+                return new byte[0];
+            }
+            return Arrays.copyOfRange(value, (int) start, (int) Math.min(value.length, end + 1));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> llenAsync(String key) {
+        return submit(() -> (long) decodeElements(key).size());
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> lrangeBytesAsync(String key, long start, long stop) {
+        return submit(() -> {
+            List<byte[]> elements = decodeElements(key);
+            int size = elements.size();
+            int from = (int) Math.max(0, start < 0 ? size + start : start);
+            int to = (int) Math.min(size - 1, stop < 0 ? size + stop : stop);
+            return from > to ? new ArrayList<>() : new ArrayList<>(elements.subList(from, to + 1));
+        });
+    }
+
+    @Override
+    public CompletableFuture<MapScanCursor<byte[], byte[]>> hscanBytesAsync(String key, ScanCursor cursor, long count) {
+        return submit(() -> {
+            List<byte[]> elements = decodeElements(key);
+            int pairs = elements.size() / 2;
+            int position = Integer.parseInt(cursor.getCursor());
+            int end = (int) Math.min(pairs, position + Math.max(1, count));
+            MapScanCursor<byte[], byte[]> page = new MapScanCursor<>();
+            for (; position < end; position++) {
+                page.getMap().put(elements.get(position * 2), elements.get(position * 2 + 1));
+            }
+            page.setCursor(String.valueOf(position));
+            page.setFinished(position >= pairs);
+            return page;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ValueScanCursor<byte[]>> sscanBytesAsync(String key, ScanCursor cursor, long count) {
+        return submit(() -> {
+            List<byte[]> elements = decodeElements(key);
+            int position = Integer.parseInt(cursor.getCursor());
+            int end = (int) Math.min(elements.size(), position + Math.max(1, count));
+            ValueScanCursor<byte[]> page = new ValueScanCursor<>();
+            for (; position < end; position++) {
+                page.getValues().add(elements.get(position));
+            }
+            page.setCursor(String.valueOf(position));
+            page.setFinished(position >= elements.size());
+            return page;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> zcardAsync(String key) {
+        return submit(() -> (long) decodeSortedSet(key).size());
+    }
+
+    @Override
+    public CompletableFuture<List<ScoredValue<byte[]>>> zrangeWithScoresBytesAsync(String key, long start, long stop) {
+        return submit(() -> {
+            List<ScoredValue<byte[]>> members = decodeSortedSet(key);
+            int size = members.size();
+            int from = (int) Math.max(0, start < 0 ? size + start : start);
+            int to = (int) Math.min(size - 1, stop < 0 ? size + stop : stop);
+            return from > to ? new ArrayList<>() : new ArrayList<>(members.subList(from, to + 1));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> zcountAsync(String key, Range<Double> range) {
+        return submit(() -> decodeSortedSet(key).stream().filter(member -> inRange(range, member.getScore())).count());
+    }
+
+    @Override
+    public CompletableFuture<ScoredValueScanCursor<byte[]>> zscanBytesAsync(String key, ScanCursor cursor, String pattern, long count) {
+        return submit(() -> {
+            List<ScoredValue<byte[]>> members = decodeSortedSet(key);
+            int position = Integer.parseInt(cursor.getCursor());
+            int end = (int) Math.min(members.size(), position + Math.max(1, count));
+            ScoredValueScanCursor<byte[]> page = new ScoredValueScanCursor<>();
+            for (; position < end; position++) {
+                ScoredValue<byte[]> member = members.get(position);
+                if (GlobMatcher.matches(pattern, new String(member.getValue(), StandardCharsets.UTF_8))) {
+                    page.getValues().add(member);
+                }
+            }
+            page.setCursor(String.valueOf(position));
+            page.setFinished(position >= members.size());
+            return page;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> zrankBytesAsync(String key, byte[] member) {
+        return submit(() -> {
+            List<ScoredValue<byte[]>> members = decodeSortedSet(key);
+            for (int i = 0; i < members.size(); i++) {
+                if (Arrays.equals(members.get(i).getValue(), member)) {
+                    return (long) i;
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> memoryUsagesAsync(List<String> keys) {
+        return submit(() -> {
+            List<Long> sizes = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                Entry entry = find(key);
+                sizes.add(entry == null ? null : entry.length + key.length());
+            }
+            return sizes;
+        });
+    }
+
+    @Override
+    public void close() {
+        cancelled = true;
+        executor.shutdown();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("关闭 RDB 文件失败: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.caven.redistool.utils;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.Range;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.ValueScanCursor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 浏览 key 和 value 所需的只读操作
+ * 在线服务器 (RedisConnection) 和离线 RDB 快照 (RdbSnapshot) 都实现这个接口，
+ * Key 树、内容视图、后台扫描和内存分析只依赖它，因此两种来源共用同一套界面。
+ */
+public interface RedisDataSource {
+
+    /**
+     * 绕过本地缓存的同一数据源
+     * 后台爬取、内存分析这类遍历整个 keyspace 的读取使用它，既不占用缓存，也不让服务器跟踪这些 key。
+     */
+    default RedisDataSource uncached() {
+        return this;
+    }
+
+    CompletableFuture<KeyScanCursor<String>> scanAsync(ScanCursor cursor, String pattern, long count);
+
+    /**
+     * @return 与 keys 顺序一致的类型, key 不存在时为 "none"
+     */
+    CompletableFuture<List<String>> typesAsync(List<String> keys);
+
+    CompletableFuture<Long> dbsizeAsync();
+
+    CompletableFuture<Long> strlenAsync(String key);
+
+    CompletableFuture<byte[]> getBytesAsync(String key);
+
+    CompletableFuture<byte[]> getrangeBytesAsync(String key, long start, long end);
+
+    CompletableFuture<Long> llenAsync(String key);
+
+    CompletableFuture<List<byte[]>> lrangeBytesAsync(String key, long start, long stop);
+
+    CompletableFuture<MapScanCursor<byte[], byte[]>> hscanBytesAsync(String key, ScanCursor cursor, long count);
+
+    CompletableFuture<ValueScanCursor<byte[]>> sscanBytesAsync(String key, ScanCursor cursor, long count);
+
+    CompletableFuture<Long> zcardAsync(String key);
+
+    /**
+     * 按排名 [start, stop] 取成员和分数，分数从低到高，负数排名从最高分算起
+     */
+    CompletableFuture<List<ScoredValue<byte[]>>> zrangeWithScoresBytesAsync(String key, long start, long stop);
+
+    /**
+     * 分数落在 range 内的成员数 (ZCOUNT)，分数 (-inf, s) 的个数即第一个分数不小于 s 的成员的排名
+     */
+    CompletableFuture<Long> zcountAsync(String key, Range<Double> range);
+
+    /**
+     * @param pattern 成员的匹配模式, 与 ZSCAN 的 MATCH 语义相同
+     */
+    CompletableFuture<ScoredValueScanCursor<byte[]>> zscanBytesAsync(String key, ScanCursor cursor, String pattern, long count);
+
+    /**
+     * @return 成员的排名 (从低分算起), 成员不存在时为 null
+     */
+    CompletableFuture<Long> zrankBytesAsync(String key, byte[] member);
+
+    /**
+     * @return 与 keys 顺序一致的内存占用字节数, key 不存在时为 null
+     */
+    CompletableFuture<List<Long>> memoryUsagesAsync(List<String> keys);
+}
@@ -0,0 +1,98 @@
+package com.caven.redistool.utils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 一类异步加载 (Key 列表、右侧内容等) 的代数
+ * 每次开始新的加载时调用 next() 取得新的 Token，之前的 Token 随之作废:
+ * 作废的 Token 不再发出请求，已登记的在途请求被取消，回调里先检查 isCurrent()，过期的结果在更新界面之前就被丢弃。
+ * 同一代同时在途的请求数不超过 maxInFlight，调用方可以用 isBusy() 合并重复的加载 (如连续点击 "加载更多")。
+ * <p>
+ * 已经写到服务器的命令取消后仍会执行完，但结果被忽略，后续的链式请求也不会再发出。
+ */
+public class RequestGeneration {
+    private final int maxInFlight;
+    private final Set<CompletableFuture<?>> inFlight = new HashSet<>();
+    private long current;
+
+    public RequestGeneration(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 开始新的一代，取消上一代在途的请求
+     */
+    public Token next() {
+        Token token;
+        List<CompletableFuture<?>> superseded;
+        synchronized (this) {
+            current++;
+            token = new Token(current);
+            superseded = new ArrayList<>(inFlight);
+            inFlight.clear();
+        }
+        // 在锁外取消, 取消时同步执行的回调可能再次进入
+        superseded.forEach(future -> future.cancel(false));
+        return token;
+    }
+
+    /**
+     * 作废当前一代而不开始新的加载 (切换数据源、关闭视图时)
+     */
+    public void invalidate() {
+        next();
+    }
+
+    /**
+     * @return 当前一代还有请求在途
+     */
+    public synchronized boolean isBusy() {
+        return !inFlight.isEmpty();
+    }
+
+    public final class Token {
+        private final long generation;
+
+        private Token(long generation) {
+            this.generation = generation;
+        }
+
+        public boolean isCurrent() {
+            synchronized (RequestGeneration.this) {
+                return generation == current;
+            }
+        }
+
+        /**
+         * 以这一代的名义发出请求
+         * @return 已作废时不发出请求, 结果以 CancellationException 失败;
+         * 在途请求已达上限时以 RejectedExecutionException 失败
+         */
+        public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+            CompletableFuture<T> future;
+            synchronized (RequestGeneration.this) {
+                if (generation != current) {
+                    return CompletableFuture.failedFuture(new CancellationException("request superseded"));
+                }
+                if (inFlight.size() >= maxInFlight) {
+                    return CompletableFuture.failedFuture(new RejectedExecutionException("too many requests in flight"));
+                }
+                future = request.get();
+                inFlight.add(future);
+            }
+            // 返回的阶段在释放名额之后才完成, 调用方在回调里接着发请求不会超出上限
+            return future.whenComplete((value, ex) -> {
+                synchronized (RequestGeneration.this) {
+                    inFlight.remove(future);
+                }
+            });
+        }
+    }
+}
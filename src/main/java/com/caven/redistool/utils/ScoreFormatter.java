@@ -0,0 +1,51 @@
+package com.caven.redistool.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Sorted Set 分数的文本形式，与 Redis 7 回复 ZSCORE 时的格式一致
+ * 在线浏览和离线 RDB 解析共用，同一个分数在两种来源中显示相同。
+ */
+public final class ScoreFormatter {
+    private static final double MAX_INTEGRAL = Long.MAX_VALUE / 2; // 与 Redis double2ll 的范围一致
+
+    private ScoreFormatter() {
+    }
+
+    /**
+     * nan、inf、-inf 按 Redis 的写法；范围内的整数不带小数点；
+     * 其余取能精确还原的最短数字，1e-6 到 1e21 之间用普通小数，之外写成 1.5e+21 这样的科学计数法
+     */
+    public static String format(double score) {
+        if (Double.isNaN(score)) {
+            return "nan";
+        }
+        if (Double.isInfinite(score)) {
+            return score > 0 ? "inf" : "-inf";
+        }
+        if (score == 0) {
+            return 1 / score < 0 ? "-0" : "0";
+        }
+        if (score == Math.rint(score) && Math.abs(score) <= MAX_INTEGRAL) {
+            return Long.toString((long) score);
+        }
+        // Double.toString 给出最短的可还原数字，只需要改写成 Redis 的形式
+        BigDecimal value = new BigDecimal(Double.toString(score)).stripTrailingZeros();
+        double magnitude = Math.abs(score);
+        if (magnitude >= 1e-6 && magnitude < 1e21) {
+            return value.toPlainString();
+        }
+        String digits = value.unscaledValue().abs().toString();
+        int exponent = digits.length() - 1 - value.scale();
+        StringBuilder sb = new StringBuilder(digits.length() + 8);
+        if (score < 0) {
+            sb.append('-');
+        }
+        sb.append(digits.charAt(0));
+        if (digits.length() > 1) {
+            sb.append('.').append(digits, 1, digits.length());
+        }
+        sb.append('e').append(exponent < 0 ? '-' : '+').append(Math.abs(exponent));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package com.caven.redistool.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 把 value 的原始字节按需解码成可显示的文本
+ * 只解码调用方要显示的前 maxBytes 个字节，压缩数据也只解压出这么多。
+ */
+public class ValueDecoder {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int HEX_BYTES_PER_LINE = 16;
+
+    /**
+     * @param data 原始字节
+     * @param format 显示格式
+     * @param maxBytes 最多解码的字节数
+     * @return data 为 null (key 不存在) 时为空字符串
+     */
+    public static String decode(byte[] data, ValueFormat format, int maxBytes) {
+        if (data == null) {
+            return "";
+        }
+        return decode(data, 0, data.length, format, maxBytes);
+    }
+
+    /**
+     * 解码 data[offset, offset + length) 中的前 maxBytes 个字节
+     */
+    public static String decode(byte[] data, int offset, int length, ValueFormat format, int maxBytes) {
+        if (data == null) {
+            return "";
+        }
+        int visible = Math.min(length, maxBytes);
+        String text;
+        switch (format) {
+            case UTF8:
+                text = new String(data, offset, visible, StandardCharsets.UTF_8);
+                break;
+            case HEX:
+                text = hexDump(data, offset, visible, 0);
+                break;
+            default:
+                text = autoDecode(data, offset, length, maxBytes);
+                break;
+        }
+        if (length > visible && format != ValueFormat.AUTO) {
+            text += truncatedNote(length, visible);
+        }
+        return text;
+    }
+
+    private static String autoDecode(byte[] data, int offset, int length, int maxBytes) {
+        String compression = detectCompression(data, offset, length);
+        if (compression != null) {
+            try {
+                byte[] inflated = inflate(data, offset, length, compression, maxBytes);
+                int visible = Math.min(inflated.length, maxBytes);
+                String text = "[" + compression + " 压缩, 解压预览]\n" + autoDecode(inflated, 0, visible, maxBytes);
+                return inflated.length > visible ? text + String.format("%n... (仅显示解压后的前 %d 字节)", visible) : text;
+            } catch (IOException e) {
+                // 不是合法的压缩数据，按普通二进制处理
+            }
+        }
+        int visible = Math.min(length, maxBytes);
+        String text = isText(data, offset, visible)
+                ? new String(data, offset, visible, StandardCharsets.UTF_8)
+                : hexDump(data, offset, visible, 0);
+        return length > visible ? text + truncatedNote(length, visible) : text;
+    }
+
+    /**
+     * 识别常见的压缩格式
+     * @return "GZIP" / "ZLIB", 不是压缩数据时返回 null
+     */
+    public static String detectCompression(byte[] data, int offset, int length) {
+        if (length < 2) {
+            return null;
+        }
+        int b0 = data[offset] & 0xff;
+        int b1 = data[offset + 1] & 0xff;
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return "GZIP";
+        }
+        if (b0 == 0x78 && (b1 == 0x01 || b1 == 0x5e || b1 == 0x9c || b1 == 0xda) && ((b0 << 8) | b1) % 31 == 0) {
+            return "ZLIB";
+        }
+        return null;
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length, String compression, int maxBytes) throws IOException {
+        ByteArrayInputStream raw = new ByteArrayInputStream(data, offset, length);
+        try (InputStream in = "GZIP".equals(compression) ? new GZIPInputStream(raw) : new InflaterInputStream(raw)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            // 多解压一个字节，用来判断是否被截断
+            while (out.size() <= maxBytes && (n = in.read(buffer, 0, Math.min(buffer.length, maxBytes + 1 - out.size()))) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 判断字节是否是可读的 UTF-8 文本: 编码合法 (允许末尾被截断的半个字符)，且控制字符不超过 1%
+     */
+    public static boolean isText(byte[] data, int offset, int length) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(length);
+        CoderResult result = decoder.decode(ByteBuffer.wrap(data, offset, length), out, false);
+        if (result.isError()) {
+            return false;
+        }
+        out.flip();
+        int control = 0;
+        for (int i = 0; i < out.length(); i++) {
+            char c = out.charAt(i);
+            if (c < 0x20 && c != '\n' && c != '\r' && c != '\t') {
+                control++;
+            }
+        }
+        return control * 100 <= out.length();
+    }
+
+    /**
+     * 生成 hexdump -C 风格的十六进制视图
+     * @param baseOffset 第一行显示的起始偏移 (用于分段显示大 value)
+     */
+    public static String hexDump(byte[] data, int offset, int length, long baseOffset) {
+        StringBuilder sb = new StringBuilder((length / HEX_BYTES_PER_LINE + 1) * 78);
+        for (int line = 0; line < length; line += HEX_BYTES_PER_LINE) {
+            String address = Long.toHexString(baseOffset + line);
+            for (int i = address.length(); i < 8; i++) {
+                sb.append('0');
+            }
+            sb.append(address).append("  ");
+            int lineLength = Math.min(HEX_BYTES_PER_LINE, length - line);
+            for (int i = 0; i < HEX_BYTES_PER_LINE; i++) {
+                if (i < lineLength) {
+                    int b = data[offset + line + i] & 0xff;
+                    sb.append(HEX_DIGITS[b >>> 4]).append(HEX_DIGITS[b & 0x0f]).append(' ');
+                } else {
+                    sb.append("   ");
+                }
+                if (i == 7) {
+                    sb.append(' ');
+                }
+            }
+            sb.append(" |");
+            for (int i = 0; i < lineLength; i++) {
+                int b = data[offset + line + i] & 0xff;
+                sb.append(b >= 0x20 && b < 0x7f ? (char) b : '.');
+            }
+            sb.append("|\n");
+        }
+        return sb.toString();
+    }
+
+    private static String truncatedNote(int length, int visible) {
+        return String.format("%n... (共 %d 字节, 仅显示前 %d 字节)", length, visible);
+    }
+}
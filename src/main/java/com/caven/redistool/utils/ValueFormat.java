@@ -0,0 +1,21 @@
+package com.caven.redistool.utils;
+
+/**
+ * Value 的显示格式
+ */
+public enum ValueFormat {
+    AUTO("自动识别"),
+    UTF8("UTF-8"),
+    HEX("十六进制");
+
+    private final String label;
+
+    ValueFormat(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label; // ComboBox 显示格式
+    }
+}
@@ -0,0 +1,227 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.service.ServerMonitor;
+import com.caven.redistool.utils.RedisConnection;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.stage.Stage;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * 服务器状态面板
+ * 上方是 ops/s、内存、命中率、客户端数、网络流量的折线图，下方分页显示各命令的调用频率与平均耗时
+ * (选中一行后在折线图中查看该命令的耗时变化)、LATENCY LATEST 事件和慢查询。
+ * 采样在后台进行，每次采样后合并为一次界面刷新，关闭窗口即停止采样。
+ */
+public class DashboardWindow {
+    private static final String[] INTERVALS = {"1 秒", "2 秒", "5 秒", "10 秒"};
+    private static final long[] INTERVAL_MILLIS = {1000, 2000, 5000, 10000};
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final ServerMonitor monitor;
+    private final UiDispatcher ui = UiDispatcher.getInstance();
+    private final Stage stage = new Stage();
+    private final Label statusLabel = new Label("正在连接...");
+    private final Sparkline opsChart = new Sparkline("ops/s", value -> String.format("%,.0f", value));
+    private final Sparkline memoryChart = new Sparkline("内存", value -> MemoryAnalyzerWindow.formatBytes((long) value));
+    private final Sparkline hitRatioChart = new Sparkline("命中率", value -> String.format("%.1f%%", value * 100));
+    private final Sparkline clientsChart = new Sparkline("客户端", value -> String.format("%,.0f", value));
+    private final Sparkline networkChart = new Sparkline("网络 (KB/s)", value -> String.format("%,.1f", value));
+    private final Sparkline commandChart = new Sparkline("命令耗时 (μs)", value -> String.format("%,.1f", value));
+    private final Sparkline[] charts = {opsChart, memoryChart, hitRatioChart, clientsChart, networkChart, commandChart};
+    private final TableView<ServerMonitor.CommandStats> commandsView = new TableView<>();
+    private final TableView<ServerMonitor.LatencyEvent> latencyView = new TableView<>();
+    private final TableView<ServerMonitor.SlowEntry> slowLogView = new TableView<>();
+
+    public DashboardWindow(RedisConnection connection, String title) {
+        this.monitor = new ServerMonitor(connection);
+
+        ComboBox<String> intervalBox = new ComboBox<>();
+        intervalBox.getItems().addAll(INTERVALS);
+        intervalBox.getSelectionModel().selectFirst();
+        intervalBox.getSelectionModel().selectedIndexProperty().addListener((obs, oldIndex, newIndex) ->
+                monitor.setIntervalMillis(INTERVAL_MILLIS[newIndex.intValue()]));
+        HBox toolbar = new HBox(5.0, new Label("采样间隔:"), intervalBox, statusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(5));
+
+        opsChart.setRing(monitor.getOpsPerSecond());
+        memoryChart.setRing(monitor.getUsedMemory());
+        hitRatioChart.setRing(monitor.getHitRatio());
+        clientsChart.setRing(monitor.getConnectedClients());
+        networkChart.setRing(monitor.getNetworkKbps());
+        GridPane chartGrid = new GridPane();
+        chartGrid.setHgap(5);
+        chartGrid.setVgap(5);
+        chartGrid.setPadding(new Insets(5));
+        for (int i = 0; i < charts.length; i++) {
+            chartGrid.add(charts[i], i % 3, i / 3);
+            GridPane.setHgrow(charts[i], Priority.ALWAYS);
+        }
+
+        setupCommandsView();
+        setupLatencyView();
+        setupSlowLogView();
+        TabPane tabs = new TabPane(new Tab("命令统计", commandsView), new Tab("延迟事件", latencyView), new Tab("慢查询", slowLogView));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+
+        SplitPane splitPane = new SplitPane(chartGrid, tabs);
+        splitPane.setOrientation(Orientation.VERTICAL);
+        splitPane.setDividerPositions(0.4);
+
+        BorderPane root = new BorderPane(splitPane);
+        root.setTop(toolbar);
+        stage.setTitle("服务器状态 - " + title);
+        stage.setScene(new Scene(root, 900, 650));
+        stage.setOnHidden(event -> monitor.stop());
+
+        monitor.setListener(new ServerMonitor.Listener() {
+            @Override
+            public void onSample() {
+                ui.post(DashboardWindow.this, DashboardWindow.this::refresh);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                ui.post(statusLabel, () -> statusLabel.setText("采样失败: " + error.getMessage()));
+            }
+        });
+    }
+
+    public void show() {
+        stage.show();
+        monitor.start();
+    }
+
+    private void refresh() {
+        statusLabel.setText("最近采样 " + TIME_FORMAT.format(Instant.now()));
+        for (Sparkline chart : charts) {
+            chart.refresh();
+        }
+
+        List<ServerMonitor.CommandStats> commands = monitor.commands();
+        if (commands.size() != commandsView.getItems().size()) {
+            commandsView.getItems().setAll(commands); // 只有出现新命令时才替换列表
+        }
+        commandsView.refresh();
+        commandsView.sort();
+        latencyView.getItems().setAll(monitor.latencyEvents());
+        List<ServerMonitor.SlowEntry> slowLog = monitor.slowLog();
+        if (slowLog.isEmpty() || slowLogView.getItems().isEmpty() || slowLog.get(0) != slowLogView.getItems().get(0)) {
+            slowLogView.getItems().setAll(slowLog);
+        }
+    }
+
+    private void setupCommandsView() {
+        TableColumn<ServerMonitor.CommandStats, String> nameColumn = new TableColumn<>("命令");
+        nameColumn.setPrefWidth(200);
+        nameColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getName()));
+
+        TableColumn<ServerMonitor.CommandStats, Double> rateColumn = new TableColumn<>("调用/秒");
+        rateColumn.setPrefWidth(120);
+        rateColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue().getCallsPerSecond()));
+        rateColumn.setCellFactory(column -> new NumberCell<>(value -> String.format("%,.1f", value)));
+        rateColumn.setSortType(TableColumn.SortType.DESCENDING);
+
+        TableColumn<ServerMonitor.CommandStats, Double> latencyColumn = new TableColumn<>("平均耗时 (μs)");
+        latencyColumn.setPrefWidth(140);
+        latencyColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue().getAvgMicros()));
+        latencyColumn.setCellFactory(column -> new NumberCell<>(value -> String.format("%,.2f", value)));
+
+        TableColumn<ServerMonitor.CommandStats, Double> totalColumn = new TableColumn<>("累计调用");
+        totalColumn.setPrefWidth(140);
+        totalColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>((double) param.getValue().getTotalCalls()));
+        totalColumn.setCellFactory(column -> new NumberCell<>(value -> String.format("%,.0f", value)));
+
+        commandsView.getColumns().addAll(List.of(nameColumn, rateColumn, latencyColumn, totalColumn));
+        commandsView.getSortOrder().add(rateColumn);
+        commandsView.getSelectionModel().selectedItemProperty().addListener((obs, oldValue, selected) -> {
+            commandChart.setTitle(selected == null ? "命令耗时 (μs)" : selected.getName() + " 耗时 (μs)");
+            commandChart.setRing(selected == null ? null : selected.getLatencyMicros());
+        });
+    }
+
+    private void setupLatencyView() {
+        TableColumn<ServerMonitor.LatencyEvent, String> eventColumn = new TableColumn<>("事件");
+        eventColumn.setPrefWidth(240);
+        eventColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getEvent()));
+
+        TableColumn<ServerMonitor.LatencyEvent, String> timeColumn = new TableColumn<>("最近发生");
+        timeColumn.setPrefWidth(120);
+        timeColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(formatTime(param.getValue().getTimestamp())));
+
+        TableColumn<ServerMonitor.LatencyEvent, String> latestColumn = new TableColumn<>("最近耗时 (ms)");
+        latestColumn.setPrefWidth(120);
+        latestColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(String.valueOf(param.getValue().getLatestMillis())));
+
+        TableColumn<ServerMonitor.LatencyEvent, String> maxColumn = new TableColumn<>("最大耗时 (ms)");
+        maxColumn.setPrefWidth(120);
+        maxColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(String.valueOf(param.getValue().getMaxMillis())));
+
+        latencyView.getColumns().addAll(List.of(eventColumn, timeColumn, latestColumn, maxColumn));
+        latencyView.setPlaceholder(new Label("没有延迟事件 (需要设置 latency-monitor-threshold)"));
+    }
+
+    private void setupSlowLogView() {
+        TableColumn<ServerMonitor.SlowEntry, String> timeColumn = new TableColumn<>("时间");
+        timeColumn.setPrefWidth(90);
+        timeColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(formatTime(param.getValue().getTimestamp())));
+
+        TableColumn<ServerMonitor.SlowEntry, String> durationColumn = new TableColumn<>("耗时 (μs)");
+        durationColumn.setPrefWidth(100);
+        durationColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(String.format("%,d", param.getValue().getDurationMicros())));
+
+        TableColumn<ServerMonitor.SlowEntry, String> commandColumn = new TableColumn<>("命令");
+        commandColumn.setPrefWidth(480);
+        commandColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getCommand()));
+
+        TableColumn<ServerMonitor.SlowEntry, String> clientColumn = new TableColumn<>("客户端");
+        clientColumn.setPrefWidth(150);
+        clientColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getClient()));
+
+        slowLogView.getColumns().addAll(List.of(timeColumn, durationColumn, commandColumn, clientColumn));
+        slowLogView.setPlaceholder(new Label("没有慢查询"));
+    }
+
+    private static String formatTime(long epochSeconds) {
+        return TIME_FORMAT.format(Instant.ofEpochSecond(epochSeconds));
+    }
+
+    /**
+     * 数值列按原始数值排序，显示时再格式化，NaN 显示为 "-"
+     */
+    private static final class NumberCell<S> extends TableCell<S, Double> {
+        private final DoubleFunction<String> formatter;
+
+        private NumberCell(DoubleFunction<String> formatter) {
+            this.formatter = formatter;
+        }
+
+        @Override
+        protected void updateItem(Double item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : item.isNaN() ? "-" : formatter.apply(item));
+        }
+    }
+}
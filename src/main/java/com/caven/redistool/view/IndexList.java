@@ -0,0 +1,29 @@
+package com.caven.redistool.view;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * 只读的虚拟下标列表 [0, size)
+ * 不存储任何元素，get(i) 时才生成下标，用作 ListView 的数据源来虚拟化百万级的行，
+ * 每行的真实内容由单元格按下标自行加载。
+ */
+public class IndexList extends ObservableListBase<Long> {
+    private final int size;
+
+    public IndexList(long size) {
+        this.size = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, size));
+    }
+
+    @Override
+    public Long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (long) index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
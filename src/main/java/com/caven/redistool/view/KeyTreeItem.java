@@ -0,0 +1,171 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.entity.KeyNamespace;
+import com.caven.redistool.entity.RedisKey;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 懒加载的 Key 树节点
+ * 文件夹只有在展开时才从 KeyNamespace 构建子节点，折叠时立即丢弃，
+ * 因此内存中的 TreeItem 数量只与当前展开的部分有关，而不是与扫描到的 key 总数有关。
+ * 子节点始终保持有序: 文件夹在前，key 在后，同类按名称排序。
+ */
+public class KeyTreeItem extends TreeItem<RedisKey> {
+    private static final int MERGE_THRESHOLD = 32; // 超过该数量的新增节点改为整体归并
+
+    private final KeyTreeModel model;
+    private final KeyNamespace.Node node;
+    private final boolean folder;
+    private boolean childrenLoaded;
+
+    KeyTreeItem(KeyTreeModel model, KeyNamespace.Node node, boolean folder, RedisKey value) {
+        super(value);
+        this.model = model;
+        this.node = node;
+        this.folder = folder;
+        if (folder && value != null) {
+            expandedProperty().addListener((obs, wasExpanded, expanded) -> {
+                if (!expanded) {
+                    dropChildren();
+                }
+            });
+        }
+    }
+
+    KeyNamespace.Node getNode() {
+        return node;
+    }
+
+    boolean isFolder() {
+        return folder;
+    }
+
+    boolean isChildrenLoaded() {
+        return childrenLoaded;
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return !folder;
+    }
+
+    @Override
+    public ObservableList<TreeItem<RedisKey>> getChildren() {
+        if (folder && !childrenLoaded && isExpanded()) {
+            childrenLoaded = true;
+            model.register(this);
+            super.getChildren().setAll(model.buildChildren(this));
+        }
+        return super.getChildren();
+    }
+
+    /**
+     * 折叠时丢弃所有子节点
+     */
+    private void dropChildren() {
+        if (!childrenLoaded) {
+            return;
+        }
+        release();
+        super.getChildren().clear();
+    }
+
+    /**
+     * 注销自己和所有已加载的子孙节点，使它们可以被回收
+     */
+    private void release() {
+        if (!childrenLoaded) {
+            return;
+        }
+        childrenLoaded = false;
+        model.unregister(this);
+        for (TreeItem<RedisKey> child : super.getChildren()) {
+            ((KeyTreeItem) child).release();
+        }
+    }
+
+    /**
+     * 把新节点按顺序插入到已加载的子节点中，已存在的节点会被跳过
+     * @param additions 已按 {@link #compare} 排好序的新节点
+     */
+    void addChildren(List<KeyTreeItem> additions) {
+        ObservableList<TreeItem<RedisKey>> children = super.getChildren();
+        if (additions.size() <= MERGE_THRESHOLD) {
+            for (KeyTreeItem item : additions) {
+                int pos = indexOf(children, item.folder, item.node.getSegment());
+                if (pos < 0) {
+                    children.add(-pos - 1, item);
+                }
+            }
+            return;
+        }
+
+        // 新增节点较多时与现有子节点归并，一次 setAll 只触发一次变更事件
+        List<TreeItem<RedisKey>> merged = new ArrayList<>(children.size() + additions.size());
+        int i = 0;
+        int j = 0;
+        while (i < children.size() || j < additions.size()) {
+            if (j >= additions.size()) {
+                merged.add(children.get(i++));
+            } else if (i >= children.size()) {
+                merged.add(additions.get(j++));
+            } else {
+                int cmp = compare((KeyTreeItem) children.get(i), additions.get(j));
+                if (cmp < 0) {
+                    merged.add(children.get(i++));
+                } else if (cmp > 0) {
+                    merged.add(additions.get(j++));
+                } else {
+                    merged.add(children.get(i++));
+                    j++;
+                }
+            }
+        }
+        children.setAll(merged);
+    }
+
+    /**
+     * 移除一个已加载的子节点
+     */
+    void removeChild(KeyNamespace.Node childNode, boolean childFolder) {
+        ObservableList<TreeItem<RedisKey>> children = super.getChildren();
+        int pos = indexOf(children, childFolder, childNode.getSegment());
+        if (pos >= 0) {
+            ((KeyTreeItem) children.get(pos)).release();
+            children.remove(pos);
+        }
+    }
+
+    private static int indexOf(List<TreeItem<RedisKey>> children, boolean folder, String segment) {
+        int low = 0;
+        int high = children.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            KeyTreeItem item = (KeyTreeItem) children.get(mid);
+            int cmp = compare(item.folder, item.node.getSegment(), folder, segment);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    static int compare(KeyTreeItem a, KeyTreeItem b) {
+        return compare(a.folder, a.node.getSegment(), b.folder, b.node.getSegment());
+    }
+
+    private static int compare(boolean folderA, String segmentA, boolean folderB, String segmentB) {
+        if (folderA != folderB) {
+            return folderA ? -1 : 1;
+        }
+        return segmentA.compareTo(segmentB);
+    }
+}
@@ -0,0 +1,128 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.entity.KeyNamespace;
+import com.caven.redistool.entity.RedisKey;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 连接 KeyNamespace 与 TreeView 的桥梁
+ * 只记录当前已展开 (已加载子节点) 的文件夹，前缀树的增量变化只会落到这些文件夹上。
+ * 除构造和 post 外的方法都必须在 FX 线程调用。
+ */
+public class KeyTreeModel {
+    private final KeyNamespace namespace;
+    private final KeyTreeItem root;
+    private final Map<KeyNamespace.Node, KeyTreeItem> loadedFolders = new HashMap<>();
+    private final Queue<KeyNamespace.Change> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    public KeyTreeModel(KeyNamespace namespace) {
+        this.namespace = namespace;
+        this.root = new KeyTreeItem(this, namespace.getRoot(), true, null);
+        this.root.setExpanded(true);
+    }
+
+    public KeyNamespace getNamespace() {
+        return namespace;
+    }
+
+    public TreeItem<RedisKey> getRoot() {
+        return root;
+    }
+
+    void register(KeyTreeItem item) {
+        loadedFolders.put(item.getNode(), item);
+    }
+
+    void unregister(KeyTreeItem item) {
+        loadedFolders.remove(item.getNode(), item);
+    }
+
+    /**
+     * 从前缀树构建某个文件夹的全部子节点
+     */
+    List<KeyTreeItem> buildChildren(KeyTreeItem parent) {
+        List<KeyTreeItem> items = new ArrayList<>();
+        for (KeyNamespace.Node child : namespace.childrenOf(parent.getNode())) {
+            if (child.isFolder()) {
+                items.add(createItem(child, true));
+            }
+            if (child.isKey()) {
+                items.add(createItem(child, false));
+            }
+        }
+        items.sort(KeyTreeItem::compare);
+        return items;
+    }
+
+    private KeyTreeItem createItem(KeyNamespace.Node node, boolean folder) {
+        String fullPath = namespace.fullPath(node);
+        RedisKey value = folder
+                ? new RedisKey(fullPath, node.getSegment(), node.getFolderType(), false)
+                : new RedisKey(fullPath, node.getSegment(), node.getKeyType(), true);
+        return new KeyTreeItem(this, node, folder, value);
+    }
+
+    /**
+     * 从任意线程提交一次变化，同一帧内到达的多次变化合并为一次 UI 更新
+     */
+    public void post(KeyNamespace.Change change) {
+        if (change.isEmpty()) {
+            return;
+        }
+        pendingChanges.add(change);
+        UiDispatcher.getInstance().post(this, this::applyPending);
+    }
+
+    private void applyPending() {
+        KeyNamespace.Change change;
+        while ((change = pendingChanges.poll()) != null) {
+            apply(change);
+        }
+    }
+
+    /**
+     * 把前缀树的一次变化应用到已加载的节点上，未展开的文件夹无需处理
+     */
+    public void apply(KeyNamespace.Change change) {
+        for (KeyNamespace.Node node : change.getRemovedKeys()) {
+            KeyTreeItem parent = loadedFolders.get(node.getParent());
+            if (parent != null) {
+                parent.removeChild(node, false);
+            }
+        }
+        for (KeyNamespace.Node node : change.getRemovedFolders()) {
+            KeyTreeItem parent = loadedFolders.get(node.getParent());
+            if (parent != null) {
+                parent.removeChild(node, true);
+            }
+        }
+
+        Map<KeyTreeItem, List<KeyTreeItem>> additions = new LinkedHashMap<>();
+        for (KeyNamespace.Node node : change.getAddedFolders()) {
+            KeyTreeItem parent = loadedFolders.get(node.getParent());
+            if (parent != null) {
+                additions.computeIfAbsent(parent, k -> new ArrayList<>()).add(createItem(node, true));
+            }
+        }
+        for (KeyNamespace.Node node : change.getAddedKeys()) {
+            KeyTreeItem parent = loadedFolders.get(node.getParent());
+            if (parent != null) {
+                additions.computeIfAbsent(parent, k -> new ArrayList<>()).add(createItem(node, false));
+            }
+        }
+        additions.forEach((parent, items) -> {
+            if (parent.isChildrenLoaded()) {
+                items.sort(KeyTreeItem::compare);
+                parent.addChildren(items);
+            }
+        });
+    }
+}
@@ -0,0 +1,199 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.RangedValueSource;
+import com.caven.redistool.utils.ValueDecoder;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * 大 String value 的虚拟化查看器
+ * 把 value 切成固定字节数的行，ListView 只为可见的行创建单元格，
+ * 单元格按需通过 RangedValueSource 拉取所在的块，支持在整个 value 中查找。
+ * 文本模式下行边界会落在多字节 UTF-8 字符中间，跨行的字符完整显示在它开始的那一行。
+ */
+public class LargeValueView extends VBox {
+    private static final int HEX_ROW_BYTES = 16;
+    private static final int TEXT_ROW_BYTES = 128;
+    private static final int UTF8_MAX_CONTINUATION = 3; // 一个 UTF-8 字符最多 3 个续字节
+    private static final Pattern HEX_INPUT = Pattern.compile("([0-9a-fA-F]{2}\\s*)+");
+
+    private final Label infoLabel = new Label();
+    private final TextField findField = new TextField();
+    private final Label findStatusLabel = new Label();
+    private final ListView<Long> rowView = new ListView<>();
+
+    private RangedValueSource source;
+    private boolean hexMode;
+    private int rowBytes = TEXT_ROW_BYTES;
+    private long lastMatch = -1;
+    private CompletableFuture<Long> pendingFind;
+
+    public LargeValueView() {
+        super(5.0);
+        findField.setPromptText("查找文本 (十六进制模式下可输入如 de ad be ef)");
+        HBox.setHgrow(findField, Priority.ALWAYS);
+        Button findButton = new Button("查找下一个");
+        findButton.setOnAction(event -> findNext());
+        findField.setOnAction(event -> findNext());
+        HBox toolbar = new HBox(5.0, infoLabel, findField, findButton, findStatusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        rowView.setFixedCellSize(22);
+        rowView.setStyle("-fx-font-family: monospace;");
+        rowView.setCellFactory(lv -> new RowCell());
+        VBox.setVgrow(rowView, Priority.ALWAYS);
+        getChildren().addAll(toolbar, rowView);
+    }
+
+    /**
+     * 显示一个新的大 value，之前的数据源会被关闭
+     */
+    public void show(RangedValueSource newSource, boolean hex) {
+        close();
+        this.source = newSource;
+        infoLabel.setText(String.format("共 %,d 字节, 按需分块加载", newSource.getLength()));
+        setHexMode(hex);
+    }
+
+    public RangedValueSource getSource() {
+        return source;
+    }
+
+    public void setHexMode(boolean hex) {
+        this.hexMode = hex;
+        this.rowBytes = hex ? HEX_ROW_BYTES : TEXT_ROW_BYTES;
+        this.lastMatch = -1;
+        findStatusLabel.setText("");
+        rowView.setItems(new IndexList(source == null ? 0 : (source.getLength() + rowBytes - 1) / rowBytes));
+    }
+
+    /**
+     * 关闭数据源并删除临时文件
+     */
+    public void close() {
+        cancelFind();
+        if (source != null) {
+            source.close();
+            source = null;
+        }
+        rowView.setItems(new IndexList(0));
+    }
+
+    private void findNext() {
+        if (source == null || findField.getText().isEmpty()) return;
+        cancelFind();
+        byte[] needle = toNeedle(findField.getText());
+        RangedValueSource current = source;
+        long from = lastMatch >= 0 ? lastMatch + 1 : 0;
+        findStatusLabel.setText("查找中...");
+        CompletableFuture<Long> find = current.find(needle, from);
+        pendingFind = find;
+        find.whenComplete((offset, ex) -> UiDispatcher.getInstance().post(() -> {
+            if (pendingFind != find || source != current) return;
+            pendingFind = null;
+            if (ex != null) {
+                findStatusLabel.setText("查找失败: " + ex.getMessage());
+            } else if (offset < 0) {
+                findStatusLabel.setText(lastMatch >= 0 ? "已到末尾" : "未找到");
+                lastMatch = -1;
+            } else {
+                lastMatch = offset;
+                int row = (int) (offset / rowBytes);
+                rowView.scrollTo(Math.max(0, row - 3));
+                rowView.getSelectionModel().clearAndSelect(row);
+                findStatusLabel.setText(String.format("偏移 %,d", offset));
+            }
+        }));
+    }
+
+    private void cancelFind() {
+        if (pendingFind != null) {
+            pendingFind.cancel(false);
+            pendingFind = null;
+        }
+    }
+
+    private byte[] toNeedle(String text) {
+        if (hexMode && HEX_INPUT.matcher(text.trim()).matches()) {
+            String digits = text.replaceAll("\\s", "");
+            byte[] needle = new byte[digits.length() / 2];
+            for (int i = 0; i < needle.length; i++) {
+                needle[i] = (byte) Integer.parseInt(digits.substring(i * 2, i * 2 + 2), 16);
+            }
+            return needle;
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 一行需要读取的字节数，文本模式下多读几个字节以便补全行尾被截断的字符
+     */
+    private int fetchLength(RangedValueSource rowSource, long offset) {
+        int extra = hexMode ? 0 : UTF8_MAX_CONTINUATION;
+        return (int) Math.min(rowBytes + extra, rowSource.getLength() - offset);
+    }
+
+    private String renderRow(RangedValueSource rowSource, long offset, int len) {
+        byte[] data = new byte[len];
+        int n = rowSource.read(offset, data, 0, len);
+        if (hexMode) {
+            String line = ValueDecoder.hexDump(data, 0, n, offset);
+            return line.endsWith("\n") ? line.substring(0, line.length() - 1) : line;
+        }
+        // 行首的续字节 (10xxxxxx) 属于上一行末尾的字符，已经在上一行显示；行尾的字符带上它的续字节
+        int start = 0;
+        while (offset > 0 && start < Math.min(n, UTF8_MAX_CONTINUATION) && isContinuation(data[start])) {
+            start++;
+        }
+        int end = Math.min(n, rowBytes);
+        while (end < n && isContinuation(data[end])) {
+            end++;
+        }
+        return new String(data, start, Math.max(0, end - start), StandardCharsets.UTF_8)
+                .replace("\r", "")
+                .replace('\n', '↵')
+                .replace('\t', ' ');
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * 一行的单元格，数据未到达时先显示占位文本
+     */
+    private class RowCell extends ListCell<Long> {
+        @Override
+        protected void updateItem(Long row, boolean empty) {
+            super.updateItem(row, empty);
+            RangedValueSource rowSource = source;
+            if (empty || row == null || rowSource == null) {
+                setText(null);
+                return;
+            }
+            long offset = row * rowBytes;
+            int len = fetchLength(rowSource, offset);
+            if (rowSource.isLoaded(offset, len)) {
+                setText(renderRow(rowSource, offset, len));
+                return;
+            }
+            setText("加载中...");
+            rowSource.ensureLoaded(offset, len).whenComplete((v, ex) -> UiDispatcher.getInstance().post(() -> {
+                // 单元格可能已被复用来显示别的行
+                if (source != rowSource || !row.equals(getItem())) return;
+                setText(ex != null ? "加载失败: " + ex.getMessage() : renderRow(rowSource, offset, len));
+            }));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.CommandMetrics;
+import com.caven.redistool.utils.LogHistogram;
+import com.caven.redistool.utils.RedisConnection;
+import com.google.gson.GsonBuilder;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 客户端侧命令延迟统计
+ * 按命令列出本工具发出的所有命令的调用次数、在途数量、失败次数、延迟百分位和平均回复大小，
+ * 最后两行是 UI 线程的等待时间和每帧执行时间。每秒刷新一次，可以清零，也可以把完整分布导出为 JSON。
+ */
+public class LatencyWindow {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String UI_WAKE = "[UI] 等待执行";
+    private static final String UI_FRAME = "[UI] 每帧耗时";
+
+    private final RedisConnection connection;
+    private final String title;
+    private final UiDispatcher ui = UiDispatcher.getInstance();
+    private final Stage stage = new Stage();
+    private final TableView<Row> tableView = new TableView<>();
+    private final Timeline refreshTimeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> refresh()));
+
+    /**
+     * 表格中的一行: 一个命令或一项 UI 线程指标
+     */
+    private static final class Row {
+        private final String name;
+        private final LogHistogram latency;
+        private final LogHistogram payload; // UI 指标为 null
+        private final CommandMetrics.Stats stats; // UI 指标为 null
+
+        private Row(String name, LogHistogram latency, LogHistogram payload, CommandMetrics.Stats stats) {
+            this.name = name;
+            this.latency = latency;
+            this.payload = payload;
+            this.stats = stats;
+        }
+    }
+
+    public LatencyWindow(RedisConnection connection, String title) {
+        this.connection = connection;
+        this.title = title;
+
+        Button resetButton = new Button("清零");
+        resetButton.setOnAction(event -> {
+            connection.getMetrics().reset();
+            ui.getWakeDelayMicros().reset();
+            ui.getFrameMicros().reset();
+            refresh();
+        });
+        Button exportButton = new Button("导出快照");
+        exportButton.setOnAction(event -> exportSnapshot());
+        HBox toolbar = new HBox(5.0, resetButton, exportButton, new Label("延迟单位 μs，从命令写出到收到回复，包含网络往返"));
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(5));
+
+        setupTableView();
+        BorderPane root = new BorderPane(tableView);
+        root.setTop(toolbar);
+        stage.setTitle("命令延迟 - " + title);
+        stage.setScene(new Scene(root, 1000, 500));
+        stage.setOnHidden(event -> refreshTimeline.stop());
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public void show() {
+        refresh();
+        stage.show();
+        refreshTimeline.play();
+    }
+
+    private void refresh() {
+        List<Row> rows = new ArrayList<>();
+        for (CommandMetrics.Stats stats : connection.getMetrics().snapshot()) {
+            rows.add(new Row(stats.getCommand(), stats.getLatencyMicros(), stats.getPayloadBytes(), stats));
+        }
+        rows.add(new Row(UI_WAKE, ui.getWakeDelayMicros(), null, null));
+        rows.add(new Row(UI_FRAME, ui.getFrameMicros(), null, null));
+        if (rows.size() != tableView.getItems().size()) {
+            tableView.getItems().setAll(rows); // 只有出现新命令时才替换列表
+        }
+        tableView.refresh();
+        tableView.sort();
+    }
+
+    private void setupTableView() {
+        TableColumn<Row, String> nameColumn = new TableColumn<>("命令");
+        nameColumn.setPrefWidth(140);
+        nameColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().name));
+
+        TableColumn<Row, Number> countColumn = numberColumn("调用", 90, row -> row.latency.getCount());
+        countColumn.setSortType(TableColumn.SortType.DESCENDING);
+        TableColumn<Row, Number> inFlightColumn = numberColumn("在途", 60, row -> row.stats == null ? -1 : row.stats.getInFlight());
+        TableColumn<Row, Number> failureColumn = numberColumn("失败", 60, row -> row.stats == null ? -1 : row.stats.getFailures());
+        tableView.getColumns().addAll(List.of(nameColumn, countColumn, inFlightColumn, failureColumn));
+        for (double percentile : PERCENTILES) {
+            tableView.getColumns().add(numberColumn(percentileName(percentile), 80, row -> row.latency.getValueAtPercentile(percentile)));
+        }
+        tableView.getColumns().add(numberColumn("最大", 80, row -> row.latency.getMax()));
+        tableView.getColumns().add(numberColumn("平均", 80, row -> Math.round(row.latency.getMean())));
+        tableView.getColumns().add(numberColumn("平均回复 (B)", 100, row -> row.payload == null ? -1 : Math.round(row.payload.getMean())));
+        tableView.getSortOrder().add(countColumn);
+    }
+
+    /**
+     * 数值列按原始数值排序，负数表示不适用，显示为 "-"
+     */
+    private static TableColumn<Row, Number> numberColumn(String name, double width, ToLongFunction<Row> getter) {
+        TableColumn<Row, Number> column = new TableColumn<>(name);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(getter.applyAsLong(param.getValue())));
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.longValue() < 0 ? "-" : String.format("%,d", item.longValue()));
+            }
+        });
+        return column;
+    }
+
+    private static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (int) percentile : "p" + percentile;
+    }
+
+    /**
+     * 把当前统计连同各桶计数写成 JSON，便于离线对比或画分布图
+     */
+    private void exportSnapshot() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("导出延迟快照");
+        chooser.setInitialFileName("redis-latency.json");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON 文件", "*.json"));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("timestamp", Instant.now().toString());
+        snapshot.put("server", title);
+        List<Object> commands = new ArrayList<>();
+        for (CommandMetrics.Stats stats : connection.getMetrics().snapshot()) {
+            Map<String, Object> command = new LinkedHashMap<>();
+            command.put("command", stats.getCommand());
+            command.put("inFlight", stats.getInFlight());
+            command.put("failures", stats.getFailures());
+            command.put("latencyMicros", histogramJson(stats.getLatencyMicros()));
+            command.put("payloadBytes", histogramJson(stats.getPayloadBytes()));
+            commands.add(command);
+        }
+        snapshot.put("commands", commands);
+        Map<String, Object> uiThread = new LinkedHashMap<>();
+        uiThread.put("wakeDelayMicros", histogramJson(ui.getWakeDelayMicros()));
+        uiThread.put("frameMicros", histogramJson(ui.getFrameMicros()));
+        snapshot.put("uiThread", uiThread);
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(snapshot, writer);
+        } catch (IOException e) {
+            new Alert(Alert.AlertType.ERROR, "导出失败: " + e.getMessage()).showAndWait();
+        }
+    }
+
+    private static Map<String, Object> histogramJson(LogHistogram histogram) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("count", histogram.getCount());
+        json.put("mean", histogram.getMean());
+        json.put("max", histogram.getMax());
+        for (double percentile : PERCENTILES) {
+            json.put(percentileName(percentile), histogram.getValueAtPercentile(percentile));
+        }
+        // 只输出非空的桶: [下界, 上界, 计数]
+        List<long[]> buckets = new ArrayList<>();
+        for (int i = 0; i < histogram.bucketCount(); i++) {
+            long count = histogram.countAt(i);
+            if (count > 0) {
+                buckets.add(new long[]{LogHistogram.lowerBound(i), LogHistogram.upperBound(i), count});
+            }
+        }
+        json.put("buckets", buckets);
+        return json;
+    }
+}
@@ -0,0 +1,27 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.RangeWindowSource;
+import com.caven.redistool.utils.RedisDataSource;
+
+/**
+ * List 的虚拟化查看器
+ * 行数等于 LLEN，滚动位置直接对应 LRANGE 窗口，可以从尾部开始查看 (队列的最新元素通常在尾部)。
+ */
+public class ListContentView extends RangeContentView<byte[]> {
+
+    public ListContentView() {
+        super("个元素", "从尾部查看", "最新的在上", "跳转到下标 (负数从尾部算起, -1 为最后一个)");
+    }
+
+    /**
+     * @param length 打开时 LLEN 的结果
+     */
+    public void show(RedisDataSource dataSource, String key, long length, boolean fromTail) {
+        show(new RangeWindowSource<>(key, length, fromTail, (start, stop) -> dataSource.lrangeBytesAsync(key, start, stop)));
+    }
+
+    @Override
+    protected String renderElement(byte[] element) {
+        return decode(element);
+    }
+}
@@ -0,0 +1,302 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.entity.KeyNamespace;
+import com.caven.redistool.service.MemoryAnalyzer;
+import com.caven.redistool.utils.RedisDataSource;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableCell;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * 内存分析窗口
+ * 上半部分是按前缀汇总的树表 (可按 key 数、内存排序)，下半部分是最大的 N 个 key。
+ * 分析在后台进行，窗口定时刷新部分结果，关闭窗口即停止分析。
+ */
+public class MemoryAnalyzerWindow {
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final String[] SAMPLE_RATES = {"100%", "10%", "1%"};
+
+    private final RedisDataSource connection;
+    private final String pattern;
+    private final String delimiter;
+    private final int opsPerSecond;
+
+    private final Stage stage = new Stage();
+    private final ComboBox<String> sampleRateBox = new ComboBox<>();
+    private final Button startButton = new Button("开始分析");
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label statusLabel = new Label("未开始");
+    private final TreeTableView<KeyNamespace.Node> prefixView = new TreeTableView<>();
+    private final TableView<MemoryAnalyzer.KeySize> topKeysView = new TableView<>();
+    // 已展开过的树节点，刷新时只需要为它们补充新出现的子文件夹
+    private final Map<KeyNamespace.Node, PrefixItem> loadedItems = new IdentityHashMap<>();
+
+    private MemoryAnalyzer analyzer; // 最近一次分析，结束后保留结果供查看
+    private boolean running;
+    private long lastRefreshNanos;
+
+    public MemoryAnalyzerWindow(RedisDataSource connection, String pattern, String delimiter, int opsPerSecond, String title) {
+        this.connection = connection;
+        this.pattern = pattern;
+        this.delimiter = delimiter;
+        this.opsPerSecond = opsPerSecond;
+
+        sampleRateBox.getItems().addAll(SAMPLE_RATES);
+        sampleRateBox.getSelectionModel().selectFirst();
+        startButton.setOnAction(event -> {
+            if (!running) {
+                start();
+            } else {
+                analyzer.cancel();
+            }
+        });
+        HBox toolbar = new HBox(5.0, new Label("匹配模式: " + pattern), new Label("抽样比例:"), sampleRateBox,
+                startButton, progressBar, statusLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(5));
+
+        setupPrefixView();
+        setupTopKeysView();
+        SplitPane splitPane = new SplitPane(prefixView, topKeysView);
+        splitPane.setOrientation(Orientation.VERTICAL);
+        splitPane.setDividerPositions(0.6);
+
+        BorderPane root = new BorderPane(splitPane);
+        root.setTop(toolbar);
+        stage.setTitle("内存分析 - " + title);
+        stage.setScene(new Scene(root, 800, 600));
+        stage.setOnHidden(event -> {
+            if (running) {
+                analyzer.cancel();
+            }
+        });
+    }
+
+    public void show() {
+        stage.show();
+    }
+
+    private void setupPrefixView() {
+        TreeTableColumn<KeyNamespace.Node, String> prefixColumn = new TreeTableColumn<>("前缀");
+        prefixColumn.setPrefWidth(320);
+        prefixColumn.setCellValueFactory(param -> {
+            KeyNamespace.Node node = param.getValue().getValue();
+            String text = node.getParent() == null ? "(全部)" : node.getSegment() + delimiter + "*";
+            return new ReadOnlyStringWrapper(text);
+        });
+
+        TreeTableColumn<KeyNamespace.Node, Long> keysColumn = new TreeTableColumn<>("Key 数");
+        keysColumn.setPrefWidth(120);
+        keysColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(keysOf(param.getValue())));
+        keysColumn.setCellFactory(column -> new FormattedCell(value -> String.format("%,d", value)));
+
+        TreeTableColumn<KeyNamespace.Node, Long> bytesColumn = new TreeTableColumn<>("内存");
+        bytesColumn.setPrefWidth(120);
+        bytesColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(bytesOf(param.getValue())));
+        bytesColumn.setCellFactory(column -> new FormattedCell(MemoryAnalyzerWindow::formatBytes));
+        bytesColumn.setSortType(TreeTableColumn.SortType.DESCENDING);
+
+        TreeTableColumn<KeyNamespace.Node, String> shareColumn = new TreeTableColumn<>("占比");
+        shareColumn.setPrefWidth(80);
+        shareColumn.setSortable(false);
+        shareColumn.setCellValueFactory(param -> {
+            long total = bytesOf(prefixView.getRoot());
+            long bytes = bytesOf(param.getValue());
+            return new ReadOnlyStringWrapper(total > 0 ? String.format("%.1f%%", bytes * 100.0 / total) : "");
+        });
+
+        prefixView.getColumns().addAll(List.of(prefixColumn, keysColumn, bytesColumn, shareColumn));
+        prefixView.getSortOrder().add(bytesColumn);
+    }
+
+    private void setupTopKeysView() {
+        TableColumn<MemoryAnalyzer.KeySize, String> keyColumn = new TableColumn<>("最大的 Key");
+        keyColumn.setPrefWidth(480);
+        keyColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getKey()));
+        TableColumn<MemoryAnalyzer.KeySize, String> typeColumn = new TableColumn<>("类型");
+        typeColumn.setPrefWidth(80);
+        typeColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getType()));
+        TableColumn<MemoryAnalyzer.KeySize, String> bytesColumn = new TableColumn<>("内存");
+        bytesColumn.setPrefWidth(120);
+        bytesColumn.setSortable(false);
+        bytesColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(formatBytes(param.getValue().getBytes())));
+        topKeysView.getColumns().addAll(List.of(keyColumn, typeColumn, bytesColumn));
+    }
+
+    private long keysOf(TreeItem<KeyNamespace.Node> item) {
+        return item == null || analyzer == null ? 0 : analyzer.statsOf(item.getValue()).getKeys();
+    }
+
+    private long bytesOf(TreeItem<KeyNamespace.Node> item) {
+        return item == null || analyzer == null ? 0 : analyzer.statsOf(item.getValue()).getBytes();
+    }
+
+    private void start() {
+        MemoryAnalyzer newAnalyzer = new MemoryAnalyzer(connection, pattern, delimiter);
+        newAnalyzer.setSampleRate(Double.parseDouble(sampleRateBox.getValue().replace("%", "")) / 100);
+        newAnalyzer.setOpsPerSecond(opsPerSecond);
+        newAnalyzer.setListener(new MemoryAnalyzer.Listener() {
+            @Override
+            public void onProgress(long analyzedKeys, long examinedKeys, long totalKeys) {
+                UiDispatcher.getInstance().post(MemoryAnalyzerWindow.this, () -> {
+                    if (analyzer != newAnalyzer) return;
+                    progressBar.setProgress(totalKeys > 0 ? Math.min(0.99, (double) examinedKeys / totalKeys) : -1);
+                    statusLabel.setText(String.format("已分析 %,d 个 key", analyzedKeys));
+                    // 汇总值变化很快，限制整表刷新和重新排序的频率
+                    long now = System.nanoTime();
+                    if (now - lastRefreshNanos >= REFRESH_INTERVAL_NANOS) {
+                        lastRefreshNanos = now;
+                        refresh();
+                    }
+                });
+            }
+
+            @Override
+            public void onFinished(boolean cancelled, Throwable error) {
+                UiDispatcher.getInstance().post(() -> {
+                    if (analyzer != newAnalyzer) return;
+                    refresh();
+                    running = false;
+                    startButton.setText("开始分析");
+                    sampleRateBox.setDisable(false);
+                    if (error != null) {
+                        statusLabel.setText("分析失败: " + error.getMessage());
+                    } else {
+                        progressBar.setProgress(cancelled ? progressBar.getProgress() : 1);
+                        statusLabel.setText(String.format("%s, 共分析 %,d 个 key%s", cancelled ? "已停止" : "分析完成",
+                                newAnalyzer.getAnalyzedKeys(), newAnalyzer.getSampleRate() < 1 ? " (抽样估算)" : ""));
+                    }
+                });
+            }
+        });
+
+        analyzer = newAnalyzer;
+        running = true;
+        loadedItems.clear();
+        PrefixItem root = new PrefixItem(newAnalyzer.getNamespace().getRoot());
+        root.setExpanded(true);
+        prefixView.setRoot(root);
+        topKeysView.getItems().clear();
+        startButton.setText("停止");
+        sampleRateBox.setDisable(true);
+        progressBar.setProgress(-1);
+        statusLabel.setText("正在分析...");
+        newAnalyzer.start();
+    }
+
+    /**
+     * 为已展开的节点补充新出现的子文件夹，然后重新排序并刷新数值
+     */
+    private void refresh() {
+        KeyNamespace namespace = analyzer.getNamespace();
+        for (PrefixItem item : new ArrayList<>(loadedItems.values())) {
+            item.sync(namespace);
+        }
+        prefixView.sort();
+        prefixView.refresh();
+        topKeysView.getItems().setAll(analyzer.topKeys());
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    /**
+     * 懒加载的前缀节点，第一次展开时才从前缀树读取子文件夹
+     */
+    private final class PrefixItem extends TreeItem<KeyNamespace.Node> {
+        private final KeyNamespace namespace;
+        private boolean loaded;
+
+        PrefixItem(KeyNamespace.Node node) {
+            super(node);
+            this.namespace = analyzer.getNamespace();
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return !namespace.hasChildren(getValue());
+        }
+
+        @Override
+        public ObservableList<TreeItem<KeyNamespace.Node>> getChildren() {
+            if (!loaded) {
+                loaded = true;
+                loadedItems.put(getValue(), this);
+                sync(namespace);
+            }
+            return super.getChildren();
+        }
+
+        void sync(KeyNamespace source) {
+            List<KeyNamespace.Node> children = source.childrenOf(getValue());
+            ObservableList<TreeItem<KeyNamespace.Node>> items = super.getChildren();
+            if (children.size() == items.size()) {
+                return; // 分析过程中文件夹只增不减
+            }
+            Map<KeyNamespace.Node, Boolean> present = new IdentityHashMap<>();
+            for (TreeItem<KeyNamespace.Node> item : items) {
+                present.put(item.getValue(), Boolean.TRUE);
+            }
+            List<TreeItem<KeyNamespace.Node>> added = new ArrayList<>();
+            for (KeyNamespace.Node child : children) {
+                if (!present.containsKey(child)) {
+                    added.add(new PrefixItem(child));
+                }
+            }
+            items.addAll(added);
+        }
+    }
+
+    /**
+     * 数值列的单元格，保留 Long 值用于排序，只在显示时格式化
+     */
+    private static final class FormattedCell extends TreeTableCell<KeyNamespace.Node, Long> {
+        private final LongFunction<String> formatter;
+
+        FormattedCell(LongFunction<String> formatter) {
+            this.formatter = formatter;
+        }
+
+        @Override
+        protected void updateItem(Long value, boolean empty) {
+            super.updateItem(value, empty);
+            setText(empty || value == null ? null : formatter.apply(value));
+        }
+    }
+}
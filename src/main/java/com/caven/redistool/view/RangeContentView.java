@@ -0,0 +1,221 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.RangeWindowSource;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按下标浏览的集合 (List、Sorted Set) 的虚拟化查看器
+ * 行数等于集合大小，滚动位置直接对应读取窗口，单元格按需通过 RangeWindowSource 拉取所在的窗口，
+ * 可以跳转到任意下标，也可以从尾部开始查看。
+ */
+public abstract class RangeContentView<T> extends VBox {
+    private final String unit;
+    private final String tailHint;
+    private final Label infoLabel = new Label();
+    private final TextField jumpField = new TextField();
+    private final Label jumpStatusLabel = new Label();
+    private final ToggleButton tailButton;
+    private final ListView<Long> rowView = new ListView<>();
+
+    private RangeWindowSource<T> source;
+    private Function<byte[], String> decoder = String::new;
+    private Consumer<Boolean> onTailModeChanged = fromTail -> {};
+
+    /**
+     * @param unit 信息栏中元素的量词, 如 "个元素"
+     * @param tailText 反向查看按钮的文字
+     * @param tailHint 反向查看时信息栏的提示
+     * @param jumpPrompt 跳转输入框的提示
+     */
+    protected RangeContentView(String unit, String tailText, String tailHint, String jumpPrompt) {
+        super(5.0);
+        this.unit = unit;
+        this.tailHint = tailHint;
+        jumpField.setPromptText(jumpPrompt);
+        HBox.setHgrow(jumpField, Priority.ALWAYS);
+        jumpField.setOnAction(event -> jump());
+        Button jumpButton = new Button("跳转");
+        jumpButton.setOnAction(event -> jump());
+        Button firstButton = new Button("首行");
+        firstButton.setOnAction(event -> scrollToRow(0));
+        Button lastButton = new Button("末行");
+        lastButton.setOnAction(event -> scrollToRow(rowView.getItems().size() - 1));
+        tailButton = new ToggleButton(tailText);
+        tailButton.setOnAction(event -> onTailModeChanged.accept(tailButton.isSelected()));
+        HBox toolbar = new HBox(5.0, infoLabel, jumpField, jumpButton, jumpStatusLabel, firstButton, lastButton, tailButton);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        rowView.setFixedCellSize(24);
+        rowView.setCellFactory(lv -> new RowCell());
+        VBox.setVgrow(rowView, Priority.ALWAYS);
+        getChildren().addAll(toolbar, rowView);
+    }
+
+    /**
+     * 单元格显示元素时使用的解码方式
+     */
+    public void setDecoder(Function<byte[], String> decoder) {
+        this.decoder = decoder;
+    }
+
+    protected String decode(byte[] value) {
+        return decoder.apply(value);
+    }
+
+    /**
+     * 用户切换反向查看时回调，由调用方按新的方向重新打开
+     */
+    public void setOnTailModeChanged(Consumer<Boolean> onTailModeChanged) {
+        this.onTailModeChanged = onTailModeChanged;
+    }
+
+    public boolean isTailMode() {
+        return tailButton.isSelected();
+    }
+
+    /**
+     * 显示新的数据源，之前的数据源会被关闭
+     */
+    public void show(RangeWindowSource<T> newSource) {
+        close();
+        this.source = newSource;
+        tailButton.setSelected(newSource.isFromTail());
+        infoLabel.setText(String.format("共 %,d %s%s", newSource.getLength(), unit, newSource.isFromTail() ? ", " + tailHint : ""));
+        rowView.setItems(new IndexList(newSource.getLength()));
+        rowView.scrollTo(0);
+    }
+
+    public RangeWindowSource<T> getSource() {
+        return source;
+    }
+
+    /**
+     * 当前选中的行对应的元素下标，未选中时为 -1
+     */
+    public long getSelectedIndex() {
+        Long row = rowView.getSelectionModel().getSelectedItem();
+        return row == null || source == null ? -1 : source.elementIndex(row);
+    }
+
+    /**
+     * 重新解码可见的行 (切换显示格式后)
+     */
+    public void refresh() {
+        rowView.refresh();
+    }
+
+    public void close() {
+        if (source != null) {
+            source.close();
+            source = null;
+        }
+        jumpStatusLabel.setText("");
+        rowView.setItems(new IndexList(0));
+    }
+
+    /**
+     * 在工具栏下方增加一行控件
+     */
+    protected void addToolbarRow(Node... nodes) {
+        HBox row = new HBox(5.0, nodes);
+        row.setAlignment(Pos.CENTER_LEFT);
+        getChildren().add(getChildren().indexOf(rowView), row);
+    }
+
+    protected void setStatus(String status) {
+        jumpStatusLabel.setText(status);
+    }
+
+    /**
+     * 滚动到元素下标所在的行并选中
+     * @return 下标超出范围时为 false
+     */
+    protected boolean scrollToElement(long elementIndex) {
+        if (source == null) return false;
+        long row = source.rowOf(elementIndex);
+        if (row < 0 || row >= rowView.getItems().size()) {
+            return false;
+        }
+        scrollToRow((int) row);
+        return true;
+    }
+
+    /**
+     * 单元格中显示的文本, 不含行首的下标
+     */
+    protected abstract String renderElement(T element);
+
+    private void jump() {
+        if (source == null) return;
+        long index;
+        try {
+            index = Long.parseLong(jumpField.getText().trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            jumpStatusLabel.setText("请输入整数下标");
+            return;
+        }
+        jumpStatusLabel.setText(scrollToElement(index) ? "" : "下标超出范围");
+    }
+
+    private void scrollToRow(int row) {
+        if (row < 0) return;
+        rowView.scrollTo(Math.max(0, row - 3));
+        rowView.getSelectionModel().clearAndSelect(row);
+    }
+
+    private String renderRow(RangeWindowSource<T> rowSource, long row) {
+        T value = rowSource.get(row);
+        String text = value == null ? "(已不存在)" : renderElement(value);
+        return String.format("%,d  %s", rowSource.elementIndex(row), text);
+    }
+
+    /**
+     * 一行的单元格，窗口未到达时先显示占位文本
+     */
+    private class RowCell extends ListCell<Long> {
+        @Override
+        protected void updateItem(Long row, boolean empty) {
+            super.updateItem(row, empty);
+            RangeWindowSource<T> rowSource = source;
+            if (empty || row == null || rowSource == null) {
+                setText(null);
+                return;
+            }
+            if (rowSource.isLoaded(row)) {
+                setText(renderRow(rowSource, row));
+                rowSource.ensureLoaded(row); // 移动视口, 触发预取和淘汰
+                return;
+            }
+            setText("加载中...");
+            rowSource.ensureLoaded(row).whenComplete((v, ex) -> UiDispatcher.getInstance().post(() -> {
+                // 单元格可能已被复用来显示别的行
+                if (source != rowSource || !row.equals(getItem())) return;
+                Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                if (cause instanceof CancellationException) {
+                    updateItem(row, false); // 窗口离开视口后又回来了, 重新请求
+                } else if (ex != null) {
+                    setText("加载失败: " + cause.getMessage());
+                } else if (rowSource.isLoaded(row)) {
+                    setText(renderRow(rowSource, row));
+                } else {
+                    updateItem(row, false);
+                }
+            }));
+        }
+    }
+}
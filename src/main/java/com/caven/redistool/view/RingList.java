@@ -0,0 +1,131 @@
+package com.caven.redistool.view;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 固定容量的环形 ObservableList，作为不断追加的表格 (Set 分页、Stream 实时跟踪) 的行数据
+ * 从一端加入新行时，超出容量的行从另一端丢弃，内存上限由容量决定；
+ * 行保存在预先分配的数组里，丢弃旧行不需要移动其余的行。
+ * 只能在 FX 线程上修改。
+ */
+public class RingList<T> extends ObservableListBase<T> {
+    private final Object[] items;
+    private int head;
+    private int size;
+    private long droppedCount;
+
+    public RingList(int capacity) {
+        this.items = new Object[capacity];
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * 因超出容量被丢弃的行数 (clear 时归零)
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) items[(head + index) % items.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 追加到末尾，超出容量时丢弃最前面的行
+     */
+    public void addAllLast(List<? extends T> added) {
+        int skip = Math.max(0, added.size() - items.length); // 一批就超出容量时, 前面的部分直接跳过
+        int keep = added.size() - skip;
+        dropFirst(Math.max(0, size + keep - items.length));
+        droppedCount += skip;
+        if (keep == 0) return;
+        int from = size;
+        for (int i = skip; i < added.size(); i++) {
+            items[(head + size) % items.length] = added.get(i);
+            size++;
+        }
+        beginChange();
+        nextAdd(from, size);
+        endChange();
+    }
+
+    /**
+     * 插入到最前面，超出容量时丢弃最后面的行
+     */
+    public void addAllFirst(List<? extends T> added) {
+        int keep = Math.min(added.size(), items.length);
+        dropLast(Math.max(0, size + keep - items.length));
+        droppedCount += added.size() - keep;
+        if (keep == 0) return;
+        head = (head - keep + items.length) % items.length;
+        for (int i = 0; i < keep; i++) {
+            items[(head + i) % items.length] = added.get(i);
+        }
+        size += keep;
+        beginChange();
+        nextAdd(0, keep);
+        endChange();
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            List<T> removed = new ArrayList<>(this);
+            Arrays.fill(items, null);
+            head = 0;
+            size = 0;
+            beginChange();
+            nextRemove(0, removed);
+            endChange();
+        }
+        droppedCount = 0;
+    }
+
+    private void dropFirst(int count) {
+        if (count <= 0) return;
+        List<T> removed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            removed.add(get(0));
+            items[head] = null;
+            head = (head + 1) % items.length;
+            size--;
+        }
+        droppedCount += count;
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+
+    private void dropLast(int count) {
+        if (count <= 0) return;
+        List<T> removed = new ArrayList<>(count);
+        for (int i = size - count; i < size; i++) {
+            removed.add(get(i));
+        }
+        for (int i = size - count; i < size; i++) {
+            items[(head + i) % items.length] = null;
+        }
+        size -= count;
+        droppedCount += count;
+        beginChange();
+        nextRemove(size, removed);
+        endChange();
+    }
+}
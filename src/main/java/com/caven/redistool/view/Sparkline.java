@@ -0,0 +1,124 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.MetricRing;
+import javafx.geometry.Insets;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+import java.util.function.DoubleFunction;
+
+/**
+ * 在 Canvas 上绘制一条指标的迷你折线图
+ * 每次刷新把环形缓冲区复制到复用的数组里再绘制，不创建图表节点，也不为每个采样分配对象。
+ * NaN 采样处折线断开。
+ */
+public class Sparkline extends BorderPane {
+    private final Label titleLabel = new Label();
+    private final Label valueLabel = new Label();
+    private final Canvas canvas = new Canvas();
+    private final DoubleFunction<String> formatter;
+    private MetricRing ring;
+    private double[] buffer = new double[0];
+
+    public Sparkline(String title, DoubleFunction<String> formatter) {
+        this.formatter = formatter;
+        titleLabel.setText(title);
+        valueLabel.setStyle("-fx-font-weight: bold;");
+        BorderPane header = new BorderPane();
+        header.setLeft(titleLabel);
+        header.setRight(valueLabel);
+        setTop(header);
+
+        // Canvas 没有自适应大小, 放进 Pane 里跟随布局变化
+        Pane canvasPane = new Pane(canvas);
+        canvasPane.setMinSize(120, 50);
+        canvasPane.setPrefSize(240, 70);
+        canvas.widthProperty().bind(canvasPane.widthProperty());
+        canvas.heightProperty().bind(canvasPane.heightProperty());
+        canvas.widthProperty().addListener(obs -> refresh());
+        canvas.heightProperty().addListener(obs -> refresh());
+        setCenter(canvasPane);
+        setPadding(new Insets(5));
+        setStyle("-fx-border-color: #dddddd;");
+    }
+
+    public void setTitle(String title) {
+        titleLabel.setText(title);
+    }
+
+    public void setRing(MetricRing ring) {
+        this.ring = ring;
+        if (ring != null && buffer.length != ring.capacity()) {
+            buffer = new double[ring.capacity()];
+        }
+        refresh();
+    }
+
+    /**
+     * 重新绘制，需要在 FX 线程调用
+     */
+    public void refresh() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        g.clearRect(0, 0, width, height);
+        if (ring == null) {
+            valueLabel.setText("");
+            return;
+        }
+        int count = ring.copyTo(buffer);
+        double last = count > 0 ? buffer[count - 1] : Double.NaN;
+        valueLabel.setText(Double.isNaN(last) ? "-" : formatter.apply(last));
+        if (count < 2 || width <= 0 || height <= 0) {
+            return;
+        }
+
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            double value = buffer[i];
+            if (!Double.isNaN(value)) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (min > max) {
+            return; // 全部是 NaN
+        }
+        // 纵轴从 0 开始, 避免平稳的指标被放大成剧烈波动
+        min = Math.min(0, min);
+        double range = max - min > 0 ? max - min : 1;
+        double step = width / (ring.capacity() - 1);
+        double x0 = width - (count - 1) * step;
+
+        g.setStroke(Color.web("#1e88e5"));
+        g.setLineWidth(1.5);
+        boolean drawing = false;
+        for (int i = 0; i < count; i++) {
+            double value = buffer[i];
+            if (Double.isNaN(value)) {
+                if (drawing) {
+                    g.stroke();
+                }
+                drawing = false;
+                continue;
+            }
+            double x = x0 + i * step;
+            double y = height - 2 - (value - min) / range * (height - 4);
+            if (!drawing) {
+                g.beginPath();
+                g.moveTo(x, y);
+                drawing = true;
+            } else {
+                g.lineTo(x, y);
+            }
+        }
+        if (drawing) {
+            g.stroke();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.service.StreamTailer;
+import com.caven.redistool.utils.RedisConnection;
+import com.caven.redistool.utils.RequestGeneration;
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Stream 的查看器
+ * 按 ID 分页: 最早/最新一页用 XRANGE - + / XREVRANGE + -，向前向后翻页从当前首尾条目相邻的 ID 继续读取，
+ * 也可以跳转到指定 ID (或毫秒时间戳)。"实时跟踪" 在独立连接上 XREAD BLOCK，新条目追加到末尾。
+ * 行保存在容量为 CAPACITY 的 RingList 中，翻页或跟踪时超出的行从另一端丢弃，繁忙的 Stream 不会占满内存。
+ * 只用于在线连接，离线快照不解析 Stream。
+ */
+public class StreamContentView extends VBox {
+    public static final int CAPACITY = 10_000;
+    private static final int PAGE_SIZE = 200;
+    private static final String MAX_SEQUENCE = "18446744073709551615";
+
+    /**
+     * 一页结果放在哪里: 替换全部、插入到最前面、追加到末尾
+     */
+    private enum Placement {REPLACE, BEFORE, AFTER}
+
+    private final Label infoLabel = new Label();
+    private final Label statusLabel = new Label();
+    private final TextField idField = new TextField();
+    private final ToggleButton liveButton = new ToggleButton("实时跟踪");
+    private final ListView<StreamMessage<byte[], byte[]>> rowView = new ListView<>();
+    private final RingList<StreamMessage<byte[], byte[]>> rows = new RingList<>(CAPACITY);
+    private final UiDispatcher ui = UiDispatcher.getInstance();
+    private final RequestGeneration loads = new RequestGeneration(1); // 切换 key 或重新翻页后作废进行中的读取
+
+    private RedisConnection connection;
+    private String key;
+    private StreamTailer tailer;
+    private Function<byte[], String> decoder = String::new;
+
+    public StreamContentView() {
+        super(5.0);
+        Button firstButton = new Button("最早");
+        firstButton.setOnAction(event -> loadFirst());
+        Button olderButton = new Button("更早");
+        olderButton.setOnAction(event -> loadOlder());
+        Button newerButton = new Button("更新");
+        newerButton.setOnAction(event -> loadNewer());
+        Button latestButton = new Button("最新");
+        latestButton.setOnAction(event -> loadLatest());
+        idField.setPromptText("跳转到 ID 或毫秒时间戳");
+        HBox.setHgrow(idField, Priority.ALWAYS);
+        idField.setOnAction(event -> jump());
+        Button jumpButton = new Button("跳转");
+        jumpButton.setOnAction(event -> jump());
+        liveButton.setOnAction(event -> {
+            if (liveButton.isSelected()) {
+                startLive();
+            } else {
+                stopLive();
+            }
+        });
+        HBox toolbar = new HBox(5.0, infoLabel, firstButton, olderButton, newerButton, latestButton,
+                idField, jumpButton, liveButton);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        rowView.setItems(rows);
+        rowView.setFixedCellSize(24);
+        rowView.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(StreamMessage<byte[], byte[]> message, boolean empty) {
+                super.updateItem(message, empty);
+                setText(empty || message == null ? null : render(message));
+            }
+        });
+        VBox.setVgrow(rowView, Priority.ALWAYS);
+        getChildren().addAll(toolbar, rowView, statusLabel);
+    }
+
+    /**
+     * 单元格显示字段和值时使用的解码方式
+     */
+    public void setDecoder(Function<byte[], String> decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * 显示一个新的 Stream，先读取最新的一页
+     */
+    public void show(RedisConnection connection, String key) {
+        close();
+        this.connection = connection;
+        this.key = key;
+        connection.xlenAsync(key).whenComplete((length, ex) -> ui.post(() -> {
+            if (this.connection != connection || !key.equals(this.key)) return; // 已经切换到别的 key
+            infoLabel.setText(ex != null ? "" : String.format("共 %,d 条", length));
+        }));
+        loadLatest();
+    }
+
+    /**
+     * 重新解码可见的行 (切换显示格式后)
+     */
+    public void refresh() {
+        rowView.refresh();
+    }
+
+    public void close() {
+        stopLive();
+        loads.invalidate();
+        connection = null;
+        key = null;
+        rows.clear();
+        infoLabel.setText("");
+        statusLabel.setText("");
+    }
+
+    private void loadFirst() {
+        if (connection == null) return;
+        stopLive();
+        load(() -> connection.xrangeBytesAsync(key, Range.unbounded(), PAGE_SIZE), false, Placement.REPLACE);
+    }
+
+    private void loadLatest() {
+        if (connection == null) return;
+        stopLive();
+        load(() -> connection.xrevrangeBytesAsync(key, Range.unbounded(), PAGE_SIZE), true, Placement.REPLACE);
+    }
+
+    private void loadOlder() {
+        if (connection == null) return;
+        if (rows.isEmpty()) {
+            loadLatest();
+            return;
+        }
+        String before = previousId(rows.get(0).getId());
+        if (before == null) {
+            statusLabel.setText("已经是最早的条目");
+            return;
+        }
+        stopLive();
+        Range<String> range = Range.from(Range.Boundary.unbounded(), Range.Boundary.including(before));
+        load(() -> connection.xrevrangeBytesAsync(key, range, PAGE_SIZE), true, Placement.BEFORE);
+    }
+
+    private void loadNewer() {
+        if (connection == null) return;
+        if (rows.isEmpty()) {
+            loadFirst();
+            return;
+        }
+        stopLive();
+        String after = nextId(rows.get(rows.size() - 1).getId());
+        Range<String> range = Range.from(Range.Boundary.including(after), Range.Boundary.unbounded());
+        load(() -> connection.xrangeBytesAsync(key, range, PAGE_SIZE), false, Placement.AFTER);
+    }
+
+    private void jump() {
+        if (connection == null) return;
+        String id = idField.getText().trim();
+        if (!id.matches("\\d+(-\\d+)?")) {
+            statusLabel.setText("ID 格式应为 毫秒时间戳-序号, 序号可以省略");
+            return;
+        }
+        stopLive();
+        Range<String> range = Range.from(Range.Boundary.including(id), Range.Boundary.unbounded());
+        load(() -> connection.xrangeBytesAsync(key, range, PAGE_SIZE), false, Placement.REPLACE);
+    }
+
+    /**
+     * @param descending 结果是否按 ID 从大到小 (XREVRANGE)，显示前统一翻转为从小到大
+     */
+    private void load(Supplier<CompletableFuture<List<StreamMessage<byte[], byte[]>>>> request, boolean descending, Placement placement) {
+        RequestGeneration.Token token = loads.next();
+        statusLabel.setText("加载中...");
+        token.submit(request).whenComplete((messages, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) return;
+            if (ex != null) {
+                statusLabel.setText("读取失败: " + causeOf(ex).getMessage());
+                return;
+            }
+            List<StreamMessage<byte[], byte[]>> page = new ArrayList<>(messages);
+            if (descending) {
+                Collections.reverse(page);
+            }
+            switch (placement) {
+                case BEFORE:
+                    rows.addAllFirst(page);
+                    rowView.scrollTo(Math.max(0, page.size() - 1));
+                    break;
+                case AFTER:
+                    rows.addAllLast(page);
+                    rowView.scrollTo(Math.max(0, rows.size() - page.size()));
+                    break;
+                default:
+                    rows.clear();
+                    rows.addAllLast(page);
+                    rowView.scrollTo(descending ? Math.max(0, rows.size() - 1) : 0);
+                    break;
+            }
+            updateStatus(page.isEmpty() ? (placement == Placement.REPLACE ? "没有条目" : "没有更多条目") : "");
+        }));
+    }
+
+    /**
+     * 先读取最新的一页，再从其中最后一个 ID 之后开始跟踪，两次读取之间写入的条目不会遗漏
+     */
+    private void startLive() {
+        if (connection == null) {
+            liveButton.setSelected(false);
+            return;
+        }
+        stopLive();
+        RedisConnection conn = connection;
+        String streamKey = key;
+        RequestGeneration.Token token = loads.next();
+        statusLabel.setText("加载中...");
+        token.submit(() -> conn.xrevrangeBytesAsync(streamKey, Range.unbounded(), PAGE_SIZE)).whenComplete((messages, ex) -> ui.post(() -> {
+            if (!token.isCurrent()) return;
+            if (ex != null) {
+                liveButton.setSelected(false);
+                statusLabel.setText("读取失败: " + causeOf(ex).getMessage());
+                return;
+            }
+            List<StreamMessage<byte[], byte[]>> page = new ArrayList<>(messages);
+            Collections.reverse(page);
+            rows.clear();
+            rows.addAllLast(page);
+            rowView.scrollTo(Math.max(0, rows.size() - 1));
+            String afterId = page.isEmpty() ? "0-0" : page.get(page.size() - 1).getId();
+            tailer = new StreamTailer(conn, streamKey, afterId, new TailListener(token));
+            tailer.start();
+            liveButton.setSelected(true);
+            updateStatus("");
+        }));
+    }
+
+    private void stopLive() {
+        if (tailer != null) {
+            tailer.stop();
+            tailer = null;
+        }
+        liveButton.setSelected(false);
+    }
+
+    private class TailListener implements StreamTailer.Listener {
+        private final RequestGeneration.Token owner;
+
+        TailListener(RequestGeneration.Token owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public CompletableFuture<Void> onMessages(List<StreamMessage<byte[], byte[]>> messages) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            ui.post(() -> {
+                if (owner.isCurrent() && tailer != null) {
+                    rows.addAllLast(messages);
+                    rowView.scrollTo(rows.size() - 1);
+                    updateStatus("");
+                }
+                done.complete(null);
+            });
+            return done;
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            ui.post(() -> {
+                if (!owner.isCurrent()) return;
+                tailer = null;
+                liveButton.setSelected(false);
+                statusLabel.setText("实时跟踪已停止: " + causeOf(error).getMessage());
+            });
+        }
+    }
+
+    private void updateStatus(String message) {
+        String status = String.format("显示 %,d 条", rows.size());
+        if (rows.getDroppedCount() > 0) {
+            status += String.format(", 最多保留 %,d 条, 已丢弃 %,d 条", rows.capacity(), rows.getDroppedCount());
+        }
+        if (tailer != null) {
+            status += ", 实时跟踪中";
+        }
+        statusLabel.setText(message.isEmpty() ? status : message + "  (" + status + ")");
+    }
+
+    private String render(StreamMessage<byte[], byte[]> message) {
+        StringBuilder text = new StringBuilder(message.getId());
+        String separator = "  ";
+        for (Map.Entry<byte[], byte[]> field : message.getBody().entrySet()) {
+            text.append(separator).append(decoder.apply(field.getKey())).append('=').append(decoder.apply(field.getValue()));
+            separator = ", ";
+        }
+        return text.toString();
+    }
+
+    /**
+     * 紧接在 id 之后的 ID，用于闭区间的 XRANGE (兼容不支持 "(" 前缀的 6.2 之前的服务器)
+     */
+    static String nextId(String id) {
+        int dash = id.indexOf('-');
+        long ms = Long.parseUnsignedLong(id.substring(0, dash));
+        long seq = Long.parseUnsignedLong(id.substring(dash + 1));
+        return seq == -1L ? Long.toUnsignedString(ms + 1) + "-0" : Long.toUnsignedString(ms) + "-" + Long.toUnsignedString(seq + 1);
+    }
+
+    /**
+     * 紧挨在 id 之前的 ID，id 已经是 0-0 时为 null
+     */
+    static String previousId(String id) {
+        int dash = id.indexOf('-');
+        long ms = Long.parseUnsignedLong(id.substring(0, dash));
+        long seq = Long.parseUnsignedLong(id.substring(dash + 1));
+        if (seq != 0) {
+            return Long.toUnsignedString(ms) + "-" + Long.toUnsignedString(seq - 1);
+        }
+        return ms == 0 ? null : Long.toUnsignedString(ms - 1) + "-" + MAX_SEQUENCE;
+    }
+
+    private static Throwable causeOf(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
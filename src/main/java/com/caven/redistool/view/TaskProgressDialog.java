@@ -0,0 +1,93 @@
+package com.caven.redistool.view;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * 长时间后台任务的进度窗口，带取消按钮
+ * 任务结束后取消按钮变为关闭按钮。所有方法都必须在 FX 线程调用。
+ */
+public class TaskProgressDialog {
+    private final Stage stage = new Stage();
+    private final Label messageLabel = new Label();
+    private final ProgressBar progressBar = new ProgressBar(-1);
+    private final Button cancelButton = new Button("取消");
+    private Runnable onCancel;
+    private boolean finished;
+    private boolean cancelling;
+
+    public TaskProgressDialog(Window owner, String title) {
+        stage.setTitle(title);
+        if (owner != null) {
+            stage.initOwner(owner);
+        }
+        stage.initModality(Modality.WINDOW_MODAL);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        cancelButton.setOnAction(event -> {
+            if (finished) {
+                stage.close();
+            } else {
+                cancel();
+            }
+        });
+        // 任务运行中关闭窗口等同于取消
+        stage.setOnCloseRequest(event -> {
+            if (!finished) {
+                cancel();
+            }
+        });
+
+        HBox buttonBox = new HBox(cancelButton);
+        buttonBox.setAlignment(Pos.CENTER_RIGHT);
+        VBox root = new VBox(10, messageLabel, progressBar, buttonBox);
+        root.setPadding(new Insets(10));
+        stage.setScene(new Scene(root, 380, 120));
+    }
+
+    public void setOnCancel(Runnable onCancel) {
+        this.onCancel = onCancel;
+    }
+
+    public void show() {
+        stage.show();
+    }
+
+    /**
+     * @param progress 0 到 1, 未知时传负数
+     */
+    public void update(double progress, String message) {
+        if (finished) return;
+        progressBar.setProgress(progress);
+        if (!cancelling) {
+            messageLabel.setText(message);
+        }
+    }
+
+    public void finish(String message) {
+        finished = true;
+        if (progressBar.getProgress() < 0) {
+            progressBar.setProgress(0);
+        }
+        messageLabel.setText(message);
+        cancelButton.setText("关闭");
+        cancelButton.setDisable(false);
+    }
+
+    private void cancel() {
+        cancelling = true;
+        cancelButton.setDisable(true);
+        messageLabel.setText("正在取消...");
+        if (onCancel != null) {
+            onCancel.run();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.CoalescingQueue;
+import com.caven.redistool.utils.LogHistogram;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 统一的 UI 更新调度器
+ * 后台线程提交的 UI 更新先进入队列，每个渲染脉冲 (pulse) 在固定时间预算内批量执行，
+ * 超出预算的留到下一帧，因此结果到达得再快也不会把 FX 事件队列塞满，输入响应保持平稳。
+ * 带 key 的更新会合并: 同一个 key 在一帧内只执行最后提交的那一次 (适合进度、计数等)，
+ * 它和普通更新在同一个队列中按提交顺序执行，旧的合并值不会覆盖之后提交的普通更新。
+ * 同时统计从空闲状态收到更新到开始执行的等待时间和每帧的执行时间，用来判断卡顿出在 UI 线程还是 Redis 侧。
+ */
+public class UiDispatcher {
+    private static final UiDispatcher INSTANCE = new UiDispatcher();
+    private static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+
+    private final CoalescingQueue updates = new CoalescingQueue();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LogHistogram wakeDelayMicros = new LogHistogram();
+    private final LogHistogram frameMicros = new LogHistogram();
+    private volatile long wokenAtNanos; // 0 表示本轮已统计过等待时间
+    private AnimationTimer timer; // 只在 FX 线程访问
+
+    private UiDispatcher() {
+    }
+
+    public static UiDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提交一个 UI 更新，按提交顺序执行
+     */
+    public void post(Runnable update) {
+        updates.add(update);
+        wakeUp();
+    }
+
+    /**
+     * 提交一个可合并的 UI 更新，同 key 尚未执行的旧更新作废，新的排在队尾
+     */
+    public void post(Object key, Runnable update) {
+        updates.add(key, update);
+        wakeUp();
+    }
+
+    /**
+     * 从空闲状态收到第一条更新到 FX 线程开始执行的等待时间
+     */
+    public LogHistogram getWakeDelayMicros() {
+        return wakeDelayMicros;
+    }
+
+    /**
+     * 每帧执行排队更新所花的时间
+     */
+    public LogHistogram getFrameMicros() {
+        return frameMicros;
+    }
+
+    private void wakeUp() {
+        if (running.compareAndSet(false, true)) {
+            wokenAtNanos = System.nanoTime();
+            if (Platform.isFxApplicationThread()) {
+                startTimer();
+            } else {
+                Platform.runLater(this::startTimer);
+            }
+        }
+    }
+
+    private void startTimer() {
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    drain();
+                }
+            };
+        }
+        timer.start();
+    }
+
+    /**
+     * 在本帧预算内执行排队的更新，队列清空后停止计时器，避免空闲时也持续请求脉冲
+     */
+    private void drain() {
+        long start = System.nanoTime();
+        long wokenAt = wokenAtNanos;
+        if (wokenAt != 0) {
+            wokenAtNanos = 0;
+            wakeDelayMicros.record(TimeUnit.NANOSECONDS.toMicros(start - wokenAt));
+        }
+        updates.runUntil(start + FRAME_BUDGET_NANOS);
+        frameMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+
+        if (updates.isEmpty()) {
+            timer.stop();
+            running.set(false);
+            // 停止和标记之间可能有新提交，重新检查一次
+            if (!updates.isEmpty() && running.compareAndSet(false, true)) {
+                wokenAtNanos = System.nanoTime();
+                timer.start();
+            }
+        }
+    }
+}
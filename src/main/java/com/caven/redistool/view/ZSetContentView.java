@@ -0,0 +1,198 @@
+package com.caven.redistool.view;
+
+import com.caven.redistool.utils.RangeWindowSource;
+import com.caven.redistool.utils.RedisDataSource;
+import com.caven.redistool.utils.RequestGeneration;
+import com.caven.redistool.utils.ScoreFormatter;
+import io.lettuce.core.Range;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sorted Set 的虚拟化查看器
+ * 行按排名排列，滚动位置对应按排名的 ZRANGE WITHSCORES 窗口。
+ * 按分数跳转时先用 ZCOUNT 算出第一个不小于该分数的成员的排名，再跳到那一行；
+ * 查找成员用 ZSCAN MATCH 逐页扫描，找到后用 ZRANK 定位所在的行。
+ */
+public class ZSetContentView extends RangeContentView<ScoredValue<byte[]>> {
+    private static final int FIND_SCAN_COUNT = 1000;
+
+    private final TextField scoreField = new TextField();
+    private final TextField memberField = new TextField();
+    private final Deque<byte[]> pendingMatches = new ArrayDeque<>();
+    private final RequestGeneration jumps = new RequestGeneration(1); // 连续跳转时只保留最后一次
+    private final RequestGeneration finds = new RequestGeneration(1); // 重新查找或切换 key 后作废进行中的扫描
+
+    private RedisDataSource dataSource;
+    private String key;
+    private String findPattern;
+    private ScanCursor findCursor = ScanCursor.INITIAL;
+
+    public ZSetContentView() {
+        super("个成员", "从高分到低分", "最高分在上", "跳转到排名 (负数从最高分算起, -1 为最高分)");
+        scoreField.setPromptText("跳转到分数 (第一个不小于该分数的成员)");
+        HBox.setHgrow(scoreField, Priority.ALWAYS);
+        scoreField.setOnAction(event -> jumpToScore());
+        Button scoreButton = new Button("按分数跳转");
+        scoreButton.setOnAction(event -> jumpToScore());
+        memberField.setPromptText("查找成员 (包含即匹配, 也可以用 * ? 通配)");
+        HBox.setHgrow(memberField, Priority.ALWAYS);
+        memberField.setOnAction(event -> findNext());
+        Button findButton = new Button("查找下一个");
+        findButton.setOnAction(event -> findNext());
+        addToolbarRow(scoreField, scoreButton, memberField, findButton);
+    }
+
+    /**
+     * @param length 打开时 ZCARD 的结果
+     * @param fromTail 为 true 时按分数从高到低显示
+     */
+    public void show(RedisDataSource dataSource, String key, long length, boolean fromTail) {
+        this.dataSource = dataSource;
+        this.key = key;
+        show(new RangeWindowSource<>(key, length, fromTail, (start, stop) -> dataSource.zrangeWithScoresBytesAsync(key, start, stop)));
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        jumps.invalidate();
+        resetFind();
+    }
+
+    @Override
+    protected String renderElement(ScoredValue<byte[]> element) {
+        return ScoreFormatter.format(element.getScore()) + "  " + decode(element.getValue());
+    }
+
+    private void jumpToScore() {
+        RangeWindowSource<ScoredValue<byte[]>> source = getSource();
+        if (source == null) return;
+        String text = scoreField.getText().trim();
+        double score;
+        try {
+            score = parseScore(text);
+        } catch (NumberFormatException e) {
+            setStatus("请输入数字分数");
+            return;
+        }
+        // 分数小于 score 的成员数就是第一个分数不小于 score 的成员的排名
+        Range<Double> below = Range.from(Range.Boundary.unbounded(), Range.Boundary.excluding(score));
+        RequestGeneration.Token token = jumps.next();
+        token.submit(() -> dataSource.zcountAsync(key, below))
+                .whenComplete((rank, ex) -> UiDispatcher.getInstance().post(() -> {
+                    if (!token.isCurrent()) return; // 已经切换到别的 key 或又跳转了一次
+                    if (ex != null) {
+                        setStatus("跳转失败: " + causeOf(ex).getMessage());
+                    } else if (rank >= source.getLength()) {
+                        setStatus("没有分数不小于 " + text + " 的成员");
+                    } else {
+                        setStatus(scrollToElement(rank) ? "" : "排名超出范围, 请刷新");
+                    }
+                }));
+    }
+
+    private static double parseScore(String text) {
+        switch (text.toLowerCase()) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(text);
+        }
+    }
+
+    private void findNext() {
+        RangeWindowSource<ScoredValue<byte[]>> source = getSource();
+        if (source == null) return;
+        String pattern = memberField.getText().trim();
+        if (pattern.isEmpty()) {
+            setStatus("请输入要查找的成员");
+            return;
+        }
+        if (!pattern.equals(findPattern)) {
+            resetFind();
+            findPattern = pattern;
+        }
+        if (finds.isBusy()) {
+            return; // 上一次查找还在进行
+        }
+        RequestGeneration.Token token = finds.next();
+        if (!pendingMatches.isEmpty()) {
+            locate(token, pendingMatches.poll());
+            return;
+        }
+        if (findCursor.isFinished()) {
+            setStatus("没有更多匹配的成员, 再次查找将从头开始");
+            resetFind();
+            return;
+        }
+        setStatus("查找中...");
+        scanNextPage(token);
+    }
+
+    /**
+     * 扫描下一页，没有匹配时继续扫描，直到找到或者扫描结束
+     */
+    private void scanNextPage(RequestGeneration.Token token) {
+        ScanCursor cursor = findCursor;
+        String pattern = matchPattern(findPattern);
+        token.submit(() -> dataSource.zscanBytesAsync(key, cursor, pattern, FIND_SCAN_COUNT))
+                .whenComplete((page, ex) -> UiDispatcher.getInstance().post(() -> {
+                    if (!token.isCurrent()) return;
+                    if (ex != null) {
+                        setStatus("查找失败: " + causeOf(ex).getMessage());
+                        return;
+                    }
+                    findCursor = page;
+                    page.getValues().forEach(member -> pendingMatches.add(member.getValue()));
+                    if (!pendingMatches.isEmpty()) {
+                        locate(token, pendingMatches.poll());
+                    } else if (page.isFinished()) {
+                        setStatus("没有找到匹配的成员");
+                        resetFind();
+                    } else {
+                        scanNextPage(token);
+                    }
+                }));
+    }
+
+    private void locate(RequestGeneration.Token token, byte[] member) {
+        token.submit(() -> dataSource.zrankBytesAsync(key, member)).whenComplete((rank, ex) -> UiDispatcher.getInstance().post(() -> {
+            if (!token.isCurrent()) return;
+            if (ex != null) {
+                setStatus("定位失败: " + causeOf(ex).getMessage());
+            } else if (rank == null) {
+                setStatus("该成员已被删除");
+            } else {
+                setStatus(scrollToElement(rank) ? "" : "排名超出范围, 请刷新");
+            }
+        }));
+    }
+
+    private void resetFind() {
+        finds.invalidate();
+        findPattern = null;
+        findCursor = ScanCursor.INITIAL;
+        pendingMatches.clear();
+    }
+
+    private static String matchPattern(String text) {
+        boolean glob = text.indexOf('*') >= 0 || text.indexOf('?') >= 0 || text.indexOf('[') >= 0;
+        return glob ? text : "*" + text + "*";
+    }
+
+    private static Throwable causeOf(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
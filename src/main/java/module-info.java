@@ -10,11 +10,13 @@ module com.caven.redistool {
     opens com.caven.redistool.controller to javafx.fxml;
     opens com.caven.redistool to javafx.fxml;
     opens com.caven.redistool.utils to javafx.fxml;
+    opens com.caven.redistool.view to javafx.fxml;
     opens com.caven.redistool.config to com.google.gson;
     opens com.caven.redistool.entity to com.google.gson;
     exports com.caven.redistool;
     exports com.caven.redistool.controller;
     exports com.caven.redistool.utils;
     exports com.caven.redistool.entity;
+    exports com.caven.redistool.view;
 
 }
\ No newline at end of file
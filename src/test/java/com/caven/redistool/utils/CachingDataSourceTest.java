@@ -0,0 +1,117 @@
+package com.caven.redistool.utils;
+
+import com.caven.redistool.service.KeyspaceCrawler;
+import com.caven.redistool.service.MemoryAnalyzer;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanCursor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 遍历整个 keyspace 的读取不能进入本地缓存, 也不能让服务器跟踪
+ */
+class CachingDataSourceTest {
+    private static final List<String> KEYS = List.of("user:1", "user:2", "order:1", "order:2", "queue");
+
+    @Test
+    void crawlDoesNotPopulateCache() {
+        FakeConnection connection = new FakeConnection();
+        CachingDataSource caching = new CachingDataSource(connection, 1 << 20);
+        RedisDataSource conn = caching.uncached();
+        assertSame(connection, conn);
+
+        List<String> crawled = Collections.synchronizedList(new ArrayList<>());
+        KeyspaceCrawler crawler = new KeyspaceCrawler(conn, "*", keys -> conn.typesAsync(keys)
+                .thenAccept(types -> crawled.addAll(keys)));
+        crawler.setOpsPerSecond(0);
+        crawler.start().orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(KEYS, crawled);
+        assertEquals(0, caching.getCache().getUsedBytes());
+        assertEquals(0, connection.trackedKeys.size());
+    }
+
+    @Test
+    void memoryAnalyzerDoesNotPopulateCache() {
+        FakeConnection connection = new FakeConnection();
+        CachingDataSource caching = new CachingDataSource(connection, 1 << 20);
+
+        MemoryAnalyzer analyzer = new MemoryAnalyzer(caching, "*", ":");
+        analyzer.setOpsPerSecond(0);
+        analyzer.start().orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(KEYS.size(), analyzer.getAnalyzedKeys());
+        assertEquals(0, caching.getCache().getUsedBytes());
+        assertEquals(0, connection.trackedKeys.size());
+    }
+
+    @Test
+    void visibleKeysAreCachedAndTracked() {
+        FakeConnection connection = new FakeConnection();
+        CachingDataSource caching = new CachingDataSource(connection, 1 << 20);
+
+        caching.typesAsync(List.of("user:1", "queue")).join();
+        caching.typesAsync(List.of("user:1", "queue")).join();
+
+        assertTrue(caching.getCache().getUsedBytes() > 0);
+        assertEquals(List.of("user:1", "queue"), connection.trackedKeys);
+    }
+
+    /**
+     * 不连接服务器的 RedisConnection, 每页返回两个 key, 记录经过跟踪连接读取的 key
+     */
+    private static class FakeConnection extends RedisConnection {
+        final List<String> trackedKeys = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public synchronized CompletableFuture<Boolean> enableTracking(InvalidationListener listener) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean isTracking() {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<List<String>> trackedTypesAsync(List<String> keys) {
+            trackedKeys.addAll(keys);
+            return typesAsync(keys);
+        }
+
+        @Override
+        public CompletableFuture<List<String>> typesAsync(List<String> keys) {
+            return CompletableFuture.completedFuture(new ArrayList<>(Collections.nCopies(keys.size(), "string")));
+        }
+
+        @Override
+        public CompletableFuture<List<Long>> memoryUsagesAsync(List<String> keys) {
+            return CompletableFuture.completedFuture(new ArrayList<>(Collections.nCopies(keys.size(), 64L)));
+        }
+
+        @Override
+        public CompletableFuture<Long> dbsizeAsync() {
+            return CompletableFuture.completedFuture((long) KEYS.size());
+        }
+
+        @Override
+        public CompletableFuture<KeyScanCursor<String>> scanAsync(ScanCursor cursor, String pattern, long count) {
+            int start = Integer.parseInt(cursor.getCursor());
+            int end = Math.min(KEYS.size(), start + 2);
+            KeyScanCursor<String> page = new KeyScanCursor<>();
+            page.getKeys().addAll(KEYS.subList(start, end));
+            page.setCursor(end == KEYS.size() ? "0" : String.valueOf(end));
+            page.setFinished(end == KEYS.size());
+            return CompletableFuture.completedFuture(page);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.caven.redistool.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingQueueTest {
+    private final CoalescingQueue queue = new CoalescingQueue();
+    private final List<String> log = new ArrayList<>();
+
+    @Test
+    void runsOnlyLatestValuePerKey() {
+        queue.add("progress", () -> log.add("p1"));
+        queue.add("progress", () -> log.add("p2"));
+        queue.add("other", () -> log.add("o1"));
+        queue.add("progress", () -> log.add("p3"));
+        runAll();
+        assertEquals(List.of("o1", "p3"), log);
+    }
+
+    @Test
+    void staleCoalescedValueDoesNotOverwriteLaterUpdate() {
+        // 进度更新之后提交了完成状态, 完成状态必须最后执行
+        queue.add("status", () -> log.add("progress 50%"));
+        queue.add(() -> log.add("finished"));
+        runAll();
+        assertEquals(List.of("progress 50%", "finished"), log);
+    }
+
+    @Test
+    void coalescedValueKeepsItsPlaceAmongPlainUpdates() {
+        queue.add(() -> log.add("a"));
+        queue.add("status", () -> log.add("s1"));
+        queue.add(() -> log.add("b"));
+        queue.add("status", () -> log.add("s2"));
+        queue.add(() -> log.add("c"));
+        runAll();
+        assertEquals(List.of("a", "b", "s2", "c"), log);
+    }
+
+    @Test
+    void keyCanBePostedAgainAfterRunning() {
+        queue.add("status", () -> log.add("s1"));
+        runAll();
+        queue.add("status", () -> log.add("s2"));
+        runAll();
+        assertEquals(List.of("s1", "s2"), log);
+    }
+
+    @Test
+    void stopsAtDeadlineAndKeepsRemainder() {
+        queue.add(() -> log.add("a"));
+        queue.runUntil(System.nanoTime() - 1);
+        assertTrue(log.isEmpty());
+        runAll();
+        assertEquals(List.of("a"), log);
+        assertTrue(queue.isEmpty());
+    }
+
+    private void runAll() {
+        queue.runUntil(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,88 @@
+package com.caven.redistool.utils;
+
+import com.caven.redistool.config.ServerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyIndexStoreTest {
+    private final ServerConfig config = new ServerConfig("127.0.0.1", 6379, null);
+
+    private Path dir;
+    private KeyIndexStore store;
+
+    @BeforeEach
+    void createStore() throws IOException {
+        dir = Files.createTempDirectory("keyindex-store-test");
+        store = new KeyIndexStore(dir);
+    }
+
+    @AfterEach
+    void deleteDir() {
+        store.shutdown(10, TimeUnit.SECONDS);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    void loadReturnsNullWhenNothingSaved() {
+        assertFalse(store.exists(config));
+        assertNull(store.loadAsync(config).join());
+    }
+
+    @Test
+    void saveKeepsOnlyLatestFile() throws IOException {
+        KeyIndex first = new KeyIndex();
+        first.addAll(List.of("a"), List.of("string"));
+        store.saveAsync(config, first).join();
+        KeyIndex second = new KeyIndex();
+        second.addAll(List.of("a", "b"), List.of("string", "hash"));
+        store.saveAsync(config, second).join();
+
+        assertEquals(1, files().size());
+        assertEquals(2, store.loadAsync(config).join().size());
+    }
+
+    @Test
+    void loadSkipsIncompleteNewerFile() throws IOException {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("a", "b"), List.of("string", "hash"));
+        store.saveAsync(config, index).join();
+        Path saved = files().get(0);
+
+        // 保存过程中退出留下的文件: 名字更新, 但标识还没有写入
+        String name = saved.getFileName().toString();
+        Path incomplete = dir.resolve(name.replaceAll("\\.\\d+\\.idx$", ".9999999999999.idx"));
+        Files.write(incomplete, new byte[64]);
+
+        assertTrue(store.exists(config));
+        KeyIndex loaded = store.loadAsync(config).join();
+        assertEquals(2, loaded.size());
+    }
+
+    private List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.idx")) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+}
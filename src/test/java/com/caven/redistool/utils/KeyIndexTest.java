@@ -0,0 +1,238 @@
+package com.caven.redistool.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyIndexTest {
+    private static final int CHUNK_SIZE = 1 << 20;  // 与 KeyIndex.CHUNK_SIZE 一致
+    private static final int MAP_WINDOW = 64 << 20; // 与 KeyIndex.MAP_WINDOW 一致
+
+    private Path dir;
+
+    @BeforeEach
+    void createDir() throws IOException {
+        dir = Files.createTempDirectory("keyindex-test");
+    }
+
+    @AfterEach
+    void deleteDir() {
+        // 映射在 GC 之前不会释放, Windows 上可能删不掉, 留给系统清理
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    void roundTripKeepsKeysAndTypes() throws IOException {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("user:1", "user:2", "订单:1", "queue"), List.of("hash", "hash", "string", "list"));
+        index.removeAll(List.of("user:2"));
+
+        Path file = dir.resolve("small.idx");
+        index.writeTo(file);
+        KeyIndex restored = KeyIndex.readFrom(file);
+
+        assertEquals(3, restored.size());
+        assertEquals(List.of("user:1", "订单:1", "queue"), keys(restored));
+        assertEquals(List.of("hash", "string", "list"), types(restored));
+    }
+
+    @Test
+    void roundTripKeepsKeyLongerThanChunkAndCrossesMapWindow() throws IOException {
+        KeyIndex index = new KeyIndex();
+        List<String> expected = new ArrayList<>();
+        String longKey = "long:" + "k".repeat(CHUNK_SIZE + 10);
+        expected.add("before");
+        expected.add(longKey);
+        expected.add("after");
+        // 每个 key 约 70KB, 总量超过一个映射窗口, 长度前缀和内容都会有跨窗口的情况
+        long total = 0;
+        for (int i = 0; total <= MAP_WINDOW + CHUNK_SIZE; i++) {
+            String key = "big:" + i + ":" + "v".repeat(70_000 + i % 7);
+            expected.add(key);
+            total += key.length();
+        }
+        for (String key : expected) {
+            index.addAll(List.of(key), List.of("string"));
+        }
+
+        Path file = dir.resolve("large.idx");
+        index.writeTo(file);
+        assertTrue(Files.size(file) > MAP_WINDOW);
+        KeyIndex restored = KeyIndex.readFrom(file);
+
+        assertEquals(expected.size(), restored.size());
+        assertEquals(expected, keys(restored));
+    }
+
+    @Test
+    void emptyKeyFirstRoundTrips() throws IOException {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("", "a"), List.of("string", "hash"));
+        assertEquals(List.of("", "a"), keys(index));
+
+        Path file = dir.resolve("empty.idx");
+        index.writeTo(file);
+        assertEquals(List.of("", "a"), keys(KeyIndex.readFrom(file)));
+    }
+
+    @Test
+    void rejectsFileWithoutMagic() throws IOException {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("a", "b", "c"), List.of("string", "set", "zset"));
+        Path file = dir.resolve("partial.idx");
+        index.writeTo(file);
+
+        // 模拟写到一半中断: 标识最后写入, 中断的文件标识处还是 0
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[8]), 0);
+            channel.truncate(size / 2);
+        }
+
+        assertThrows(IOException.class, () -> KeyIndex.readFrom(file));
+    }
+
+    @Test
+    void rejectsTruncatedFileWithMagic() throws IOException {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("alpha", "beta", "gamma"), List.of("string", "string", "hash"));
+        Path file = dir.resolve("truncated.idx");
+        index.writeTo(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        assertThrows(IOException.class, () -> KeyIndex.readFrom(file));
+    }
+
+    @Test
+    void sweepRemovesKeysNotSeenInCurrentEpoch() {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("a", "b", "c"), List.of("string", "string", "string"));
+
+        index.beginEpoch();
+        index.addAll(List.of("a", "c", "d"), List.of("string", "hash", "list"));
+        long modCount = index.getModCount();
+
+        assertEquals(List.of("b"), index.sweep());
+        assertEquals(3, index.size());
+        assertEquals(List.of("a", "c", "d"), keys(index));
+        assertEquals(List.of("string", "hash", "list"), types(index));
+        assertTrue(index.getModCount() > modCount);
+
+        // 同一轮再次清理没有可删的
+        assertEquals(List.of(), index.sweep());
+    }
+
+    @Test
+    void sweepAfterRestoreRemovesKeysMissingFromServer() throws IOException {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("a", "b", "c"), List.of("string", "string", "string"));
+        Path file = dir.resolve("restore.idx");
+        index.writeTo(file);
+
+        KeyIndex restored = KeyIndex.readFrom(file);
+        restored.beginEpoch();
+        restored.addAll(List.of("c", "a"), List.of("string", "string"));
+        List<String> removed = restored.sweep();
+
+        assertEquals(List.of("b"), removed);
+        assertEquals(Arrays.asList("a", "c"), keys(restored));
+
+        // 删除后重新出现的 key 恢复为现存
+        restored.addAll(List.of("b"), List.of("set"));
+        assertEquals(3, restored.size());
+    }
+
+    @Test
+    void searchByPrefixGlob() {
+        KeyIndex index = searchIndex();
+        assertEquals(List.of("user:1", "user:2", "User:3"), search(index, KeyIndex.Mode.GLOB, "user:*", false));
+        assertEquals(List.of("user:1", "user:2"), search(index, KeyIndex.Mode.GLOB, "user:*", true));
+    }
+
+    @Test
+    void searchByGlob() {
+        KeyIndex index = searchIndex();
+        assertEquals(List.of("user:1", "order:1"), search(index, KeyIndex.Mode.GLOB, "*:1", true));
+        assertEquals(List.of("user:1", "user:2"), search(index, KeyIndex.Mode.GLOB, "user:[12]", true));
+        assertEquals(List.of("a*b"), search(index, KeyIndex.Mode.GLOB, "a\\*b", true));
+    }
+
+    @Test
+    void searchBySubstring() {
+        KeyIndex index = searchIndex();
+        assertEquals(List.of("order:1", "order:20"), search(index, KeyIndex.Mode.SUBSTRING, "der", true));
+        assertEquals(List.of("user:1", "user:2", "User:3"), search(index, KeyIndex.Mode.SUBSTRING, "USER", false));
+        assertEquals(List.of("a*b"), search(index, KeyIndex.Mode.SUBSTRING, "*", true));
+        assertEquals(List.of(), search(index, KeyIndex.Mode.SUBSTRING, "usr", false));
+    }
+
+    @Test
+    void searchByFuzzyMatchesSubsequence() {
+        KeyIndex index = searchIndex();
+        // 字母不相邻, 不能被二元组预筛过滤掉
+        assertEquals(List.of("user:1", "user:2", "User:3"), search(index, KeyIndex.Mode.FUZZY, "usr", false));
+        assertEquals(List.of("order:20"), search(index, KeyIndex.Mode.FUZZY, "or20", false));
+        assertTrue(search(index, KeyIndex.Mode.FUZZY, "xyz", false).isEmpty());
+    }
+
+    @Test
+    void queryMatchesSingleKey() {
+        assertTrue(KeyIndex.Query.of(KeyIndex.Mode.FUZZY, "usr", false).matches("user:1"));
+        assertTrue(KeyIndex.Query.of(KeyIndex.Mode.SUBSTRING, "ser", true).matches("user:1"));
+        assertFalse(KeyIndex.Query.of(KeyIndex.Mode.GLOB, "order:*", true).matches("user:1"));
+    }
+
+    private static KeyIndex searchIndex() {
+        KeyIndex index = new KeyIndex();
+        index.addAll(List.of("user:1", "user:2", "User:3", "order:1", "order:20", "a*b"),
+                List.of("hash", "hash", "hash", "string", "string", "set"));
+        return index;
+    }
+
+    /**
+     * 搜索结果按加入顺序排列, 模糊匹配按得分排列, 这里统一按加入顺序比较
+     */
+    private static List<String> search(KeyIndex index, KeyIndex.Mode mode, String text, boolean caseSensitive) {
+        List<String> found = index.search(KeyIndex.Query.of(mode, text, caseSensitive), 100).getKeys();
+        List<String> ordered = new ArrayList<>(keys(index));
+        ordered.retainAll(found);
+        return ordered;
+    }
+
+    private static List<String> keys(KeyIndex index) {
+        List<String> keys = new ArrayList<>();
+        index.forEachBatch(100, (batch, batchTypes) -> keys.addAll(batch));
+        return keys;
+    }
+
+    private static List<String> types(KeyIndex index) {
+        List<String> types = new ArrayList<>();
+        index.forEachBatch(100, (batch, batchTypes) -> types.addAll(batchTypes));
+        return types;
+    }
+}
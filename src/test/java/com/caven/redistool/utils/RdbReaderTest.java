@@ -0,0 +1,175 @@
+package com.caven.redistool.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 用手工编码的字节验证 RDB 中各种紧凑编码的解码
+ */
+class RdbReaderTest {
+    // prevlen 与编码按 ziplist 格式, 元素: "a", 12, -2, -5, -100000
+    private static final byte[] ZIPLIST = bytes(
+            0x1C, 0x00, 0x00, 0x00, 0x16, 0x00, 0x00, 0x00, 0x05, 0x00, // zlbytes, zltail, zllen
+            0x00, 0x01, 'a',                                            // 6 位长度字符串
+            0x03, 0xFD,                                                 // 立即数 12
+            0x02, 0xC0, 0xFE, 0xFF,                                     // int16 -2
+            0x04, 0xFE, 0xFB,                                           // int8 -5
+            0x03, 0xF0, 0x60, 0x79, 0xFE,                               // int24 -100000
+            0xFF);
+
+    // 元素: 5, "hi", -3, -300, 123456789, 每个元素后面是 backlen
+    private static final byte[] LISTPACK = bytes(
+            0x1A, 0x00, 0x00, 0x00, 0x05, 0x00,  // 总字节数, 元素数
+            0x05, 0x01,                          // 7 位无符号整数
+            0x82, 'h', 'i', 0x03,                // 6 位长度字符串
+            0xDF, 0xFD, 0x02,                    // 13 位有符号整数
+            0xF1, 0xD4, 0xFE, 0x03,              // int16
+            0xF3, 0x15, 0xCD, 0x5B, 0x07, 0x05,  // int32
+            0xFF);
+
+    // int16 编码, 元素: -1, 2, 300
+    private static final byte[] INTSET = bytes(
+            0x02, 0x00, 0x00, 0x00,
+            0x03, 0x00, 0x00, 0x00,
+            0xFF, 0xFF, 0x02, 0x00, 0x2C, 0x01);
+
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("rdb-reader-test", ".rdb");
+    }
+
+    @AfterEach
+    void deleteFile() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 映射在 GC 之前不会释放, Windows 上可能删不掉
+        }
+    }
+
+    @Test
+    void decodesZiplist() throws IOException {
+        assertEquals(List.of("a", "12", "-2", "-5", "-100000"),
+                read(RdbReader.TYPE_LIST_ZIPLIST, string(ZIPLIST)));
+    }
+
+    @Test
+    void decodesListpack() throws IOException {
+        assertEquals(List.of("5", "hi", "-3", "-300", "123456789"),
+                read(RdbReader.TYPE_SET_LISTPACK, string(LISTPACK)));
+    }
+
+    @Test
+    void decodesIntset() throws IOException {
+        assertEquals(List.of("-1", "2", "300"), read(RdbReader.TYPE_SET_INTSET, string(INTSET)));
+    }
+
+    @Test
+    void decodesQuicklistOfListpackAndPlainNodes() throws IOException {
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        value.write(2);           // 节点数
+        value.write(2);           // PACKED 节点
+        value.writeBytes(string(LISTPACK));
+        value.write(1);           // PLAIN 节点
+        value.writeBytes(string("plain".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(List.of("5", "hi", "-3", "-300", "123456789", "plain"),
+                read(RdbReader.TYPE_LIST_QUICKLIST_2, value.toByteArray()));
+    }
+
+    @Test
+    void decodesLzfCompressedZiplist() throws IOException {
+        // 只有一段字面量的 LZF: 控制字节为长度 - 1
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressed.write(ZIPLIST.length - 1);
+        compressed.writeBytes(ZIPLIST);
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        value.write(0xC3);                   // LZF 编码的字符串
+        value.write(compressed.size());      // 压缩后长度
+        value.write(ZIPLIST.length);         // 原始长度
+        value.writeBytes(compressed.toByteArray());
+        assertEquals(List.of("a", "12", "-2", "-5", "-100000"),
+                read(RdbReader.TYPE_LIST_ZIPLIST, value.toByteArray()));
+    }
+
+    @Test
+    void lzfDecompressesOverlappingBackReference() throws IOException {
+        // 字面量 "abc", 然后从 3 字节之前复制 9 个字节 (与输出重叠)
+        byte[] compressed = bytes(0x02, 'a', 'b', 'c', 0xE0, 0x00, 0x02);
+        assertArrayEquals("abcabcabcabc".getBytes(StandardCharsets.US_ASCII),
+                RdbReader.lzfDecompress(compressed, 12));
+    }
+
+    @Test
+    void lzfRejectsReferenceBeforeStart() {
+        assertThrows(IOException.class, () -> RdbReader.lzfDecompress(bytes(0xE0, 0x00, 0x02), 9));
+    }
+
+    @Test
+    void readsIntegerEncodedStrings() throws IOException {
+        Files.write(file, bytes(0xC0, 0x85, 0xC1, 0x39, 0x30, 0xC2, 0x15, 0xCD, 0x5B, 0x07));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RdbReader reader = new RdbReader(channel);
+            assertEquals("-123", text(reader.readString()));
+            assertEquals("12345", text(reader.readString()));
+            assertEquals("123456789", text(reader.readString()));
+        }
+    }
+
+    @Test
+    void rejectsTruncatedValue() throws IOException {
+        byte[] value = string(ZIPLIST);
+        byte[] truncated = new byte[value.length - 4];
+        System.arraycopy(value, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> read(RdbReader.TYPE_LIST_ZIPLIST, truncated));
+    }
+
+    private List<String> read(int type, byte[] value) throws IOException {
+        Files.write(file, value);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<String> elements = new ArrayList<>();
+            for (byte[] element : new RdbReader(channel).readElements(type)) {
+                elements.add(text(element));
+            }
+            return elements;
+        }
+    }
+
+    /**
+     * 按 RDB 长度编码加上内容, 测试数据都短于 64 字节
+     */
+    private static byte[] string(byte[] data) {
+        byte[] result = new byte[data.length + 1];
+        result[0] = (byte) data.length;
+        System.arraycopy(data, 0, result, 1, data.length);
+        return result;
+    }
+
+    private static String text(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}
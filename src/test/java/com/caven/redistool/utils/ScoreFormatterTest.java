@@ -0,0 +1,40 @@
+package com.caven.redistool.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoreFormatterTest {
+
+    @Test
+    void formatsSpecialValuesLikeRedis() {
+        assertEquals("inf", ScoreFormatter.format(Double.POSITIVE_INFINITY));
+        assertEquals("-inf", ScoreFormatter.format(Double.NEGATIVE_INFINITY));
+        assertEquals("nan", ScoreFormatter.format(Double.NaN));
+        assertEquals("0", ScoreFormatter.format(0.0));
+        assertEquals("-0", ScoreFormatter.format(-0.0));
+    }
+
+    @Test
+    void formatsIntegralScoresWithoutFraction() {
+        assertEquals("42", ScoreFormatter.format(42.0));
+        assertEquals("-7", ScoreFormatter.format(-7.0));
+        assertEquals("100000000000000000", ScoreFormatter.format(1e17));
+        assertEquals("4611686018427387904", ScoreFormatter.format(Math.pow(2, 62)));
+    }
+
+    @Test
+    void formatsFractionsWithShortestDigits() {
+        assertEquals("1.5", ScoreFormatter.format(1.5));
+        assertEquals("0.1", ScoreFormatter.format(0.1));
+        assertEquals("-3.25", ScoreFormatter.format(-3.25));
+        assertEquals("0.000001", ScoreFormatter.format(1e-6));
+    }
+
+    @Test
+    void usesExponentOutsidePlainRange() {
+        assertEquals("1.5e-7", ScoreFormatter.format(1.5e-7));
+        assertEquals("1e+21", ScoreFormatter.format(1e21));
+        assertEquals("-1.2345e+30", ScoreFormatter.format(-1.2345e30));
+    }
+}